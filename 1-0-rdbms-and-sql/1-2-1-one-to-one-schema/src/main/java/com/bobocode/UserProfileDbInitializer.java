@@ -1,11 +1,9 @@
 package com.bobocode;
 
-import com.bobocode.util.FileReader;
+import com.bobocode.util.script.SqlScriptRunner;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * {@link UserProfileDbInitializer} is an API that has only one method. It allow to create a database tables to store
@@ -20,16 +18,13 @@ public class UserProfileDbInitializer {
     }
 
     /**
-     * Reads the SQL script form the file and executes it
+     * Reads the SQL script form the file and executes it statement by statement
      *
      * @throws SQLException
      */
     public void init() throws SQLException {
-        String createTablesSql = FileReader.readWholeFileFromResources(TABLE_INITIALIZATION_SQL_FILE);
-
-        try (Connection connection = dataSource.getConnection()) {
-            Statement statement = connection.createStatement();
-            statement.execute(createTablesSql);
+        try {
+            SqlScriptRunner.of(dataSource).runResource(TABLE_INITIALIZATION_SQL_FILE);
         } catch (SQLException e) {
             throw new SQLException("INIT ERROR", e);
         }
@@ -0,0 +1,16 @@
+package com.bobocode.dao;
+
+import lombok.Value;
+
+/**
+ * {@link UpsertResult} counts users processed by {@link UserProfileDao#upsertAll(java.util.Collection)}
+ */
+@Value
+public class UpsertResult {
+    int inserted;
+    int updated;
+    /**
+     * Users which content was the same as stored, so they were not written
+     */
+    int unchanged;
+}
@@ -0,0 +1,23 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.User;
+
+import java.util.Collection;
+
+/**
+ * {@link UserProfileDao} is a Data Access Object pattern (DAO) for users and their optional profiles that share the
+ * primary key of a user.
+ */
+public interface UserProfileDao {
+    /**
+     * Inserts new users and updates existing ones, matching them by email. A user profile is inserted, updated, or
+     * removed when the user has no profile. Users which content is not changed are not written. Sets ids of stored
+     * users to the {@link User} instances.
+     *
+     * @param users users to synchronize; a new user must have an id
+     * @return numbers of inserted, updated and unchanged users
+     * @throws DaoOperationException with message: "Error upserting users"
+     */
+    UpsertResult upsertAll(Collection<User> users);
+}
@@ -0,0 +1,248 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Profile;
+import com.bobocode.model.User;
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link UserProfileDaoImpl} synchronizes users in chunks. For every chunk it reads the stored users and profiles
+ * with a single query, skips users which content hash is the same as the hash of the stored row, and writes the rest
+ * with one JDBC batch per table in a transaction. So a chunk costs a fixed number of round-trips whatever its size:
+ * the query, up to three batches (users, profiles, removed profiles) and the commit. Writes are upserts keyed by email
+ * ({@code MERGE ... KEY} on H2, {@code INSERT ... ON CONFLICT} on PostgreSQL).
+ * <p>
+ * Ids are resolved from the stored rows read at the beginning of a chunk, so synchronizations of the same users must
+ * not run concurrently. Ids are set to the {@link User} instances only after their chunk is committed.
+ */
+public class UserProfileDaoImpl implements UserProfileDao {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final String SELECT_STORED_SQL = "SELECT u.id, u.email, u.first_name, u.last_name, u.birthday, " +
+            "p.user_id, p.city, p.job_position, p.company, p.education " +
+            "FROM users u LEFT JOIN profiles p ON p.user_id = u.id WHERE u.email IN (%s)";
+    private static final String H2_UPSERT_USER_SQL = "MERGE INTO users (id, email, first_name, last_name, birthday) " +
+            "KEY (email) VALUES (?, ?, ?, ?, ?)";
+    private static final String POSTGRES_UPSERT_USER_SQL = "INSERT INTO users (id, email, first_name, last_name, " +
+            "birthday) VALUES (?, ?, ?, ?, ?) ON CONFLICT (email) DO UPDATE SET first_name = EXCLUDED.first_name, " +
+            "last_name = EXCLUDED.last_name, birthday = EXCLUDED.birthday";
+    private static final String H2_UPSERT_PROFILE_SQL = "MERGE INTO profiles (user_id, city, job_position, company, " +
+            "education) KEY (user_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String POSTGRES_UPSERT_PROFILE_SQL = "INSERT INTO profiles (user_id, city, job_position, " +
+            "company, education) VALUES (?, ?, ?, ?, ?) ON CONFLICT (user_id) DO UPDATE SET city = EXCLUDED.city, " +
+            "job_position = EXCLUDED.job_position, company = EXCLUDED.company, education = EXCLUDED.education";
+    private static final String DELETE_PROFILE_SQL = "DELETE FROM profiles WHERE user_id = ?";
+
+    private final DataSource dataSource;
+    private final int chunkSize;
+
+    public UserProfileDaoImpl(DataSource dataSource) {
+        this(dataSource, DEFAULT_CHUNK_SIZE);
+    }
+
+    public UserProfileDaoImpl(DataSource dataSource, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.dataSource = dataSource;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public UpsertResult upsertAll(Collection<User> users) {
+        Map<String, User> usersByEmail = new LinkedHashMap<>();
+        users.forEach(user -> usersByEmail.put(user.getEmail(), user)); // the last occurrence of an email wins
+        List<User> distinctUsers = new ArrayList<>(usersByEmail.values());
+        int[] counts = new int[3];
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = JdbcUtil.isPostgres(connection);
+            for (int from = 0; from < distinctUsers.size(); from += chunkSize) {
+                List<User> chunk = distinctUsers.subList(from, Math.min(from + chunkSize, distinctUsers.size()));
+                upsertChunk(connection, postgres, chunk, counts);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error upserting users", e);
+        }
+        return new UpsertResult(counts[0], counts[1], counts[2]);
+    }
+
+    private void upsertChunk(Connection connection, boolean postgres, List<User> chunk, int[] counts)
+            throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Map<String, StoredUser> storedUsers = findStored(connection, chunk);
+            try (PreparedStatement upsertUser = connection.prepareStatement(
+                    postgres ? POSTGRES_UPSERT_USER_SQL : H2_UPSERT_USER_SQL);
+                 PreparedStatement upsertProfile = connection.prepareStatement(
+                         postgres ? POSTGRES_UPSERT_PROFILE_SQL : H2_UPSERT_PROFILE_SQL);
+                 PreparedStatement deleteProfile = connection.prepareStatement(DELETE_PROFILE_SQL)) {
+                int inserted = 0;
+                int updated = 0;
+                int unchanged = 0;
+                boolean profilesBatched = false;
+                boolean deletesBatched = false;
+                Map<String, Long> ids = new HashMap<>();
+                for (User user : chunk) {
+                    StoredUser stored = storedUsers.get(user.getEmail());
+                    long id;
+                    if (stored != null) {
+                        id = stored.id;
+                        ids.put(user.getEmail(), id);
+                        if (stored.contentHash == contentHash(user)) {
+                            unchanged++;
+                            continue;
+                        }
+                        updated++;
+                    } else if (user.getId() == null) {
+                        throw new DaoOperationException(String.format("Id is required for a new user: %s",
+                                user.getEmail()));
+                    } else {
+                        id = user.getId();
+                        inserted++;
+                    }
+                    bindUser(upsertUser, id, user);
+                    upsertUser.addBatch();
+                    if (user.getProfile() != null) {
+                        bindProfile(upsertProfile, id, user.getProfile());
+                        upsertProfile.addBatch();
+                        profilesBatched = true;
+                    } else if (stored != null && stored.hasProfile) {
+                        deleteProfile.setLong(1, id);
+                        deleteProfile.addBatch();
+                        deletesBatched = true;
+                    }
+                }
+                if (inserted + updated > 0) {
+                    upsertUser.executeBatch();
+                }
+                if (profilesBatched) {
+                    upsertProfile.executeBatch();
+                }
+                if (deletesBatched) {
+                    deleteProfile.executeBatch();
+                }
+                connection.commit();
+                chunk.forEach(user -> user.setId(ids.getOrDefault(user.getEmail(), user.getId())));
+                counts[0] += inserted;
+                counts[1] += updated;
+                counts[2] += unchanged;
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private Map<String, StoredUser> findStored(Connection connection, List<User> chunk) throws SQLException {
+        Map<String, StoredUser> storedUsers = new HashMap<>();
+        String sql = String.format(SELECT_STORED_SQL, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                statement.setString(i + 1, chunk.get(i).getEmail());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    User user = parseUser(resultSet);
+                    storedUsers.put(user.getEmail(), new StoredUser(user.getId(), contentHash(user),
+                            user.getProfile() != null));
+                }
+            }
+        }
+        return storedUsers;
+    }
+
+    private User parseUser(ResultSet resultSet) throws SQLException {
+        User user = User.builder()
+                .id(resultSet.getLong("id"))
+                .email(resultSet.getString("email"))
+                .firstName(resultSet.getString("first_name"))
+                .lastName(resultSet.getString("last_name"))
+                .birthday(resultSet.getDate("birthday").toLocalDate())
+                .build();
+        resultSet.getLong("user_id");
+        if (!resultSet.wasNull()) {
+            user.setProfile(Profile.builder()
+                    .city(resultSet.getString("city"))
+                    .jobPosition(resultSet.getString("job_position"))
+                    .company(resultSet.getString("company"))
+                    .education(resultSet.getString("education"))
+                    .build());
+        }
+        return user;
+    }
+
+    private void bindUser(PreparedStatement statement, long id, User user) throws SQLException {
+        statement.setLong(1, id);
+        statement.setString(2, user.getEmail());
+        statement.setString(3, user.getFirstName());
+        statement.setString(4, user.getLastName());
+        statement.setDate(5, Date.valueOf(user.getBirthday()));
+    }
+
+    private void bindProfile(PreparedStatement statement, long userId, Profile profile) throws SQLException {
+        statement.setLong(1, userId);
+        statement.setString(2, profile.getCity());
+        statement.setString(3, profile.getJobPosition());
+        statement.setString(4, profile.getCompany());
+        statement.setString(5, profile.getEducation());
+    }
+
+    /**
+     * Computes 64-bit FNV-1a hash of all the stored fields of a user and its profile, except the id
+     */
+    static long contentHash(User user) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, user.getEmail());
+        hash = hash(hash, user.getFirstName());
+        hash = hash(hash, user.getLastName());
+        hash = hash(hash, user.getBirthday() == null ? null : user.getBirthday().toString());
+        Profile profile = user.getProfile();
+        if (profile != null) {
+            hash = hash(hash, profile.getCity());
+            hash = hash(hash, profile.getJobPosition());
+            hash = hash(hash, profile.getCompany());
+            hash = hash(hash, profile.getEducation());
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xff) * 0x100000001b3L; // null differs from an empty string
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xfe) * 0x100000001b3L; // field separator
+    }
+
+    private static class StoredUser {
+        private final long id;
+        private final long contentHash;
+        private final boolean hasProfile;
+
+        StoredUser(long id, long contentHash, boolean hasProfile) {
+            this.id = id;
+            this.contentHash = contentHash;
+            this.hasProfile = hasProfile;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bobocode.model;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Profile {
+    private String city;
+    private String jobPosition;
+    private String company;
+    private String education;
+}
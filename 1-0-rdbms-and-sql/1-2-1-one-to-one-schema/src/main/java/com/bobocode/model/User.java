@@ -0,0 +1,19 @@
+package com.bobocode.model;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "email")
+@Builder
+public class User {
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private LocalDate birthday;
+    private Profile profile;
+}
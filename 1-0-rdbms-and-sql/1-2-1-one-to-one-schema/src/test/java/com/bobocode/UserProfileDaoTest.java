@@ -0,0 +1,155 @@
+package com.bobocode;
+
+import com.bobocode.dao.UpsertResult;
+import com.bobocode.dao.UserProfileDao;
+import com.bobocode.dao.UserProfileDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Profile;
+import com.bobocode.model.User;
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class UserProfileDaoTest {
+    private DataSource dataSource;
+    private UserProfileDao userProfileDao;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:user_profile_dao_test;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE users (id BIGINT, email VARCHAR(255) NOT NULL, " +
+                    "first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, birthday DATE NOT NULL, " +
+                    "CONSTRAINT users_PK PRIMARY KEY (id), CONSTRAINT users_email_AK UNIQUE (email))");
+            statement.execute("CREATE TABLE profiles (user_id BIGINT, city VARCHAR(255), " +
+                    "job_position VARCHAR(255), company VARCHAR(255), education VARCHAR(255), " +
+                    "CONSTRAINT profiles_PK PRIMARY KEY (user_id), " +
+                    "CONSTRAINT profiles_users_FK FOREIGN KEY (user_id) REFERENCES users)");
+        }
+        userProfileDao = new UserProfileDaoImpl(dataSource, 3);
+    }
+
+    @Test
+    @DisplayName("New users and profiles are inserted in chunks")
+    void insertsNewUsers() throws SQLException {
+        UpsertResult result = userProfileDao.upsertAll(createUsers(10));
+
+        assertThat(result).isEqualTo(new UpsertResult(10, 0, 0));
+        assertThat(count("users")).isEqualTo(10);
+        assertThat(count("profiles")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Users with unchanged content are not written")
+    void skipsUnchangedUsers() {
+        userProfileDao.upsertAll(createUsers(10));
+
+        UpsertResult result = userProfileDao.upsertAll(createUsers(10));
+
+        assertThat(result).isEqualTo(new UpsertResult(0, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Changed users are updated by email and keep their stored id")
+    void updatesChangedUsers() throws SQLException {
+        userProfileDao.upsertAll(createUsers(4));
+        List<User> changed = createUsers(4);
+        changed.forEach(user -> user.setId(null));
+        changed.get(0).setLastName("Changed");
+        changed.get(0).setProfile(null);
+        changed.get(1).setProfile(Profile.builder().company("Bobocode").build());
+        changed.get(2).getProfile().setCity("Lviv");
+
+        UpsertResult result = userProfileDao.upsertAll(changed);
+
+        assertThat(result).isEqualTo(new UpsertResult(0, 3, 1));
+        assertThat(changed).extracting(User::getId).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(queryString("SELECT last_name FROM users WHERE id = 1")).isEqualTo("Changed");
+        assertThat(queryString("SELECT company FROM profiles WHERE user_id = 2")).isEqualTo("Bobocode");
+        assertThat(queryString("SELECT city FROM profiles WHERE user_id = 3")).isEqualTo("Lviv");
+        assertThat(count("profiles")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("The last occurrence of a duplicated email wins")
+    void lastDuplicateWins() throws SQLException {
+        List<User> users = createUsers(2);
+        User duplicate = createUsers(1).get(0);
+        duplicate.setFirstName("Duplicate");
+        users.add(duplicate);
+
+        UpsertResult result = userProfileDao.upsertAll(users);
+
+        assertThat(result).isEqualTo(new UpsertResult(2, 0, 0));
+        assertThat(queryString("SELECT first_name FROM users WHERE id = 1")).isEqualTo("Duplicate");
+    }
+
+    @Test
+    @DisplayName("A new user without id fails its chunk")
+    void failsNewUserWithoutId() throws SQLException {
+        List<User> users = createUsers(3);
+        users.get(2).setId(null);
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> userProfileDao.upsertAll(users))
+                .withMessageContaining("user3@mail.com");
+        assertThat(count("users")).isZero();
+    }
+
+    @Test
+    @DisplayName("Ids are not set to the users of a failed chunk")
+    void keepsIdsOfFailedChunk() {
+        userProfileDao.upsertAll(createUsers(2));
+        List<User> users = createUsers(3);
+        users.forEach(user -> user.setId(null));
+
+        assertThatExceptionOfType(DaoOperationException.class).isThrownBy(() -> userProfileDao.upsertAll(users));
+        assertThat(users).extracting(User::getId).containsOnlyNulls();
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            users.add(User.builder()
+                    .id((long) i)
+                    .email("user" + i + "@mail.com")
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .birthday(LocalDate.of(1990, 1, 1).plusDays(i))
+                    .profile(i % 2 == 0 ? null : Profile.builder()
+                            .city("Kyiv")
+                            .jobPosition("Developer")
+                            .company("Company" + i)
+                            .build())
+                    .build());
+        }
+        return users;
+    }
+
+    private long count(String table) throws SQLException {
+        return Long.parseLong(queryString("SELECT count(*) FROM " + table));
+    }
+
+    private String queryString(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
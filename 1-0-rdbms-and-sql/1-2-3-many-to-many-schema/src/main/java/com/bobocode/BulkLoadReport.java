@@ -0,0 +1,18 @@
+package com.bobocode;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link BulkLoadReport} is a result of {@link WallStreetBulkLoader}, tables are listed in the order of loading
+ */
+@Value
+public class BulkLoadReport {
+    List<TableLoad> tables;
+
+    public Optional<TableLoad> findTable(String table) {
+        return tables.stream().filter(load -> load.getTable().equals(table)).findFirst();
+    }
+}
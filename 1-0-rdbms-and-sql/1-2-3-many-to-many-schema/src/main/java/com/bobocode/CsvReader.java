@@ -0,0 +1,106 @@
+package com.bobocode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CsvReader} reads RFC 4180 CSV records one by one, so an input of any size is never loaded into memory.
+ * Quoted fields may contain separators, line breaks and doubled quotes. An empty field that is not quoted is read as
+ * {@code null} and an empty quoted field as an empty string, the same way PostgreSQL {@code COPY} and H2
+ * {@code CSVREAD} tell them apart.
+ */
+class CsvReader implements AutoCloseable {
+    private final Reader reader;
+    private int lookahead = -2;
+    private long recordNumber;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record
+     *
+     * @return record fields, {@code null} for empty unquoted fields, or {@code null} when the input is exhausted
+     */
+    List<String> nextRecord() throws IOException {
+        int current = read();
+        while (current == '\r' || current == '\n') { // skip blank lines
+            current = read();
+        }
+        if (current == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (current == -1) {
+                    throw new IOException(String.format("Unterminated quoted field in record %d", recordNumber + 1));
+                } else if (current == '"') {
+                    if (peek() == '"') {
+                        field.append('"');
+                        read();
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) current);
+                }
+            } else if (current == '"') {
+                quoted = true;
+                fieldQuoted = true;
+            } else if (current == ',') {
+                fields.add(toValue(field, fieldQuoted));
+                field.setLength(0);
+                fieldQuoted = false;
+            } else if (current == '\r' || current == '\n' || current == -1) {
+                if (current == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(toValue(field, fieldQuoted));
+                recordNumber++;
+                return fields;
+            } else {
+                field.append((char) current);
+            }
+            current = read();
+        }
+    }
+
+    private static String toValue(StringBuilder field, boolean quoted) {
+        return field.length() == 0 && !quoted ? null : field.toString();
+    }
+
+    /**
+     * Returns the number of records read so far
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int read() throws IOException {
+        if (lookahead != -2) {
+            int next = lookahead;
+            lookahead = -2;
+            return next;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (lookahead == -2) {
+            lookahead = reader.read();
+        }
+        return lookahead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,287 @@
+package com.bobocode;
+
+import javax.sql.DataSource;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SalesGroupEligibilityIndex} is a read-optimized in-memory index over the tables created by
+ * {@link WallStreetDbInitializer}. It answers "which sales groups of a broker allow a transaction of a type and an
+ * amount" without a join over the link table:
+ * <ul>
+ * <li>memberships of every broker are kept as a sorted primitive {@code long[]} of sales group ids;</li>
+ * <li>sales groups of every transaction type are kept sorted by {@code max_transaction_amount}, so the groups that
+ * allow an amount are a suffix found by binary search.</li>
+ * </ul>
+ * A lookup walks the smaller of the two sides and checks the other one, so it costs a few array reads and allocates
+ * only the result.
+ * <p>
+ * {@link SalesGroupEligibilityIndex#refresh()} reloads the whole index. After that, writes to the tables can be
+ * applied incrementally with {@link SalesGroupEligibilityIndex#putSalesGroup(long, String, long)},
+ * {@link SalesGroupEligibilityIndex#addMembership(long, long)} and their counterparts. A membership change copies
+ * only the array of the affected broker, a sales group change copies the sales group maps and the arrays of the
+ * affected transaction type. Updates are serialized with each other and with a refresh, so a change
+ * applied while a refresh reads the tables is not lost.
+ * <p>
+ * Lookups never block. Sales groups and their per-type arrays form an immutable snapshot that a sales group update
+ * copies and publishes with a single volatile write, so a lookup sees either the old or the new snapshot as a whole.
+ * Memberships of a broker are a single array that is replaced atomically, so a lookup sees either the old or the new
+ * memberships of the broker.
+ * <p>
+ * Amounts are whole currency units, limits with a fraction are rounded down.
+ */
+public class SalesGroupEligibilityIndex {
+    private static final long[] NO_GROUPS = new long[0];
+
+    private final DataSource dataSource;
+    private volatile State state = new State();
+
+    public SalesGroupEligibilityIndex(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Reloads all the sales groups and memberships from the database
+     *
+     * @throws SQLException if the tables cannot be read
+     */
+    public synchronized void refresh() throws SQLException {
+        Map<Long, SalesGroup> groups = new HashMap<>();
+        Map<Long, List<Long>> memberships = new HashMap<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT id, transaction_type, max_transaction_amount FROM sales_group")) {
+                while (resultSet.next()) {
+                    SalesGroup group = new SalesGroup(resultSet.getLong(1), resultSet.getString(2),
+                            resultSet.getBigDecimal(3).setScale(0, RoundingMode.FLOOR).longValueExact());
+                    groups.put(group.id, group);
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery("SELECT broker_id, sales_group_id FROM broker_sales_group")) {
+                while (resultSet.next()) {
+                    memberships.computeIfAbsent(resultSet.getLong(1), id -> new ArrayList<>()).add(resultSet.getLong(2));
+                }
+            }
+        }
+        Map<String, List<SalesGroup>> groupsByType = new HashMap<>();
+        groups.values().forEach(group -> groupsByType.computeIfAbsent(group.type, t -> new ArrayList<>()).add(group));
+        Map<String, TypeGroups> types = new HashMap<>();
+        groupsByType.forEach((type, typeGroups) -> types.put(type, TypeGroups.of(typeGroups)));
+        Map<Long, long[]> brokerGroups = new ConcurrentHashMap<>();
+        memberships.forEach((brokerId, groupIds) -> {
+            long[] sorted = groupIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+            brokerGroups.put(brokerId, sorted);
+        });
+        state = new State(groups, types, brokerGroups);
+    }
+
+    /**
+     * Finds sales groups of a broker that allow a transaction
+     *
+     * @param brokerId        broker id
+     * @param transactionType transaction type of a sales group
+     * @param amount          transaction amount, that must not exceed the group limit
+     * @return ids of the eligible sales groups in ascending order
+     */
+    public long[] findEligibleGroups(long brokerId, String transactionType, long amount) {
+        State current = state;
+        long[] memberOf = current.brokerGroups.get(brokerId);
+        TypeGroups typeGroups = current.types.get(transactionType);
+        if (memberOf == null || typeGroups == null) {
+            return NO_GROUPS;
+        }
+        int from = typeGroups.firstAllowing(amount);
+        long[] result = new long[Math.min(memberOf.length, typeGroups.ids.length - from)];
+        int found = 0;
+        if (typeGroups.ids.length - from <= memberOf.length) {
+            for (int i = from; i < typeGroups.ids.length; i++) {
+                if (Arrays.binarySearch(memberOf, typeGroups.ids[i]) >= 0) {
+                    result[found++] = typeGroups.ids[i];
+                }
+            }
+            Arrays.sort(result, 0, found);
+        } else {
+            for (long groupId : memberOf) {
+                SalesGroup group = current.groups.get(groupId);
+                if (group != null && group.limit >= amount && group.type.equals(transactionType)) {
+                    result[found++] = groupId;
+                }
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Adds a new sales group or applies a change of an existing one
+     */
+    public synchronized void putSalesGroup(long id, String transactionType, long maxTransactionAmount) {
+        State current = state;
+        SalesGroup group = new SalesGroup(id, transactionType, maxTransactionAmount);
+        Map<Long, SalesGroup> groups = new HashMap<>(current.groups);
+        Map<String, TypeGroups> types = new HashMap<>(current.types);
+        SalesGroup previous = groups.put(id, group);
+        if (previous != null && !previous.type.equals(transactionType)) {
+            types.computeIfPresent(previous.type, (type, typeGroups) -> typeGroups.without(id));
+        }
+        types.compute(transactionType, (type, typeGroups) -> typeGroups == null
+                ? TypeGroups.of(List.of(group)) : typeGroups.without(id).with(group));
+        state = new State(groups, types, current.brokerGroups);
+    }
+
+    public synchronized void removeSalesGroup(long id) {
+        State current = state;
+        SalesGroup previous = current.groups.get(id);
+        if (previous != null) {
+            Map<Long, SalesGroup> groups = new HashMap<>(current.groups);
+            Map<String, TypeGroups> types = new HashMap<>(current.types);
+            groups.remove(id);
+            types.computeIfPresent(previous.type, (type, typeGroups) -> typeGroups.without(id));
+            state = new State(groups, types, current.brokerGroups);
+        }
+    }
+
+    public synchronized void addMembership(long brokerId, long salesGroupId) {
+        state.brokerGroups.compute(brokerId, (id, groups) -> {
+            if (groups == null) {
+                return new long[]{salesGroupId};
+            }
+            int position = Arrays.binarySearch(groups, salesGroupId);
+            if (position >= 0) {
+                return groups;
+            }
+            int insertion = -position - 1;
+            long[] updated = new long[groups.length + 1];
+            System.arraycopy(groups, 0, updated, 0, insertion);
+            updated[insertion] = salesGroupId;
+            System.arraycopy(groups, insertion, updated, insertion + 1, groups.length - insertion);
+            return updated;
+        });
+    }
+
+    public synchronized void removeMembership(long brokerId, long salesGroupId) {
+        state.brokerGroups.computeIfPresent(brokerId, (id, groups) -> {
+            int position = Arrays.binarySearch(groups, salesGroupId);
+            if (position < 0) {
+                return groups;
+            }
+            if (groups.length == 1) {
+                return null;
+            }
+            long[] updated = new long[groups.length - 1];
+            System.arraycopy(groups, 0, updated, 0, position);
+            System.arraycopy(groups, position + 1, updated, position, groups.length - position - 1);
+            return updated;
+        });
+    }
+
+    /**
+     * A snapshot of the index. Sales groups and types are never changed after creation, while the memberships map is
+     * shared between the snapshots of one refresh and its entries are replaced atomically.
+     */
+    private static class State {
+        private final Map<Long, SalesGroup> groups;
+        private final Map<String, TypeGroups> types;
+        private final Map<Long, long[]> brokerGroups;
+
+        State() {
+            this(Map.of(), Map.of(), new ConcurrentHashMap<>());
+        }
+
+        State(Map<Long, SalesGroup> groups, Map<String, TypeGroups> types, Map<Long, long[]> brokerGroups) {
+            this.groups = groups;
+            this.types = types;
+            this.brokerGroups = brokerGroups;
+        }
+    }
+
+    private static class SalesGroup {
+        private final long id;
+        private final String type;
+        private final long limit;
+
+        SalesGroup(long id, String type, long limit) {
+            this.id = id;
+            this.type = type;
+            this.limit = limit;
+        }
+    }
+
+    /**
+     * Sales groups of one transaction type sorted by limit. Arrays are never changed after creation.
+     */
+    private static class TypeGroups {
+        private final long[] limits;
+        private final long[] ids;
+
+        private TypeGroups(long[] limits, long[] ids) {
+            this.limits = limits;
+            this.ids = ids;
+        }
+
+        static TypeGroups of(List<SalesGroup> groups) {
+            SalesGroup[] sorted = groups.toArray(new SalesGroup[0]);
+            Arrays.sort(sorted, (a, b) -> a.limit != b.limit ? Long.compare(a.limit, b.limit) : Long.compare(a.id, b.id));
+            long[] limits = new long[sorted.length];
+            long[] ids = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                limits[i] = sorted[i].limit;
+                ids[i] = sorted[i].id;
+            }
+            return new TypeGroups(limits, ids);
+        }
+
+        /**
+         * Returns the index of the first group which limit is not less than the amount
+         */
+        int firstAllowing(long amount) {
+            int low = 0;
+            int high = limits.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (limits[middle] < amount) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        TypeGroups with(SalesGroup group) {
+            int position = firstAllowing(group.limit);
+            long[] newLimits = new long[limits.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            System.arraycopy(limits, 0, newLimits, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            newLimits[position] = group.limit;
+            newIds[position] = group.id;
+            System.arraycopy(limits, position, newLimits, position + 1, limits.length - position);
+            System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+            return new TypeGroups(newLimits, newIds);
+        }
+
+        TypeGroups without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] newLimits = new long[limits.length - 1];
+                    long[] newIds = new long[ids.length - 1];
+                    System.arraycopy(limits, 0, newLimits, 0, i);
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(limits, i + 1, newLimits, i, limits.length - i - 1);
+                    System.arraycopy(ids, i + 1, newIds, i, ids.length - i - 1);
+                    return new TypeGroups(newLimits, newIds);
+                }
+            }
+            return this;
+        }
+    }
+}
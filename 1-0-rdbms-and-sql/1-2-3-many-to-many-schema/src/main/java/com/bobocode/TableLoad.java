@@ -0,0 +1,25 @@
+package com.bobocode;
+
+import lombok.Value;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TableLoad} describes how one table was loaded by {@link WallStreetBulkLoader}
+ */
+@Value
+public class TableLoad {
+    String table;
+    long rows;
+    long elapsedNanos;
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d rows in %d ms (%.0f rows/s)", table, rows,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRowsPerSecond());
+    }
+}
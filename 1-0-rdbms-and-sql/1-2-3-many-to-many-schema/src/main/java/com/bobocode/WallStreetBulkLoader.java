@@ -0,0 +1,241 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * {@link WallStreetBulkLoader} loads brokers, sales groups and their memberships into the tables created by
+ * {@link WallStreetDbInitializer}. Parents are loaded before the link table, each table in its own transaction.
+ * <p>
+ * Input is CSV with a header line that names the columns in any order:
+ * <ul>
+ * <li>brokers: {@code id, username, first_name, last_name}</li>
+ * <li>sales groups: {@code id, name, transaction_type, max_transaction_amount}</li>
+ * <li>memberships: {@code broker_id, sales_group_id}</li>
+ * </ul>
+ * Rows are streamed and never collected in memory. PostgreSQL gets the input through {@code COPY ... FROM STDIN}.
+ * H2 reads CSV files itself with {@code CSVREAD}. Other input is inserted with batched multi-row {@code INSERT}
+ * statements.
+ */
+public class WallStreetBulkLoader {
+    private static final int ROWS_PER_STATEMENT = 100;
+    private static final int STATEMENTS_PER_BATCH = 50;
+
+    private final DataSource dataSource;
+
+    public WallStreetBulkLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Loads CSV files. H2 reads the files directly, so they must be accessible by the database.
+     *
+     * @param brokers           CSV file of brokers
+     * @param salesGroups       CSV file of sales groups
+     * @param brokerSalesGroups CSV file of broker and sales group pairs
+     * @return rows and timing per table
+     */
+    public BulkLoadReport load(Path brokers, Path salesGroups, Path brokerSalesGroups) throws SQLException, IOException {
+        List<TableLoad> loads = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            loads.add(loadFile(connection, Table.BROKER, brokers));
+            loads.add(loadFile(connection, Table.SALES_GROUP, salesGroups));
+            loads.add(loadFile(connection, Table.BROKER_SALES_GROUP, brokerSalesGroups));
+        }
+        return new BulkLoadReport(loads);
+    }
+
+    /**
+     * Loads CSV input of any source. Readers are consumed, but not closed.
+     *
+     * @param brokers           CSV of brokers
+     * @param salesGroups       CSV of sales groups
+     * @param brokerSalesGroups CSV of broker and sales group pairs
+     * @return rows and timing per table
+     */
+    public BulkLoadReport load(Reader brokers, Reader salesGroups, Reader brokerSalesGroups)
+            throws SQLException, IOException {
+        List<TableLoad> loads = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            loads.add(loadStream(connection, Table.BROKER, buffered(brokers)));
+            loads.add(loadStream(connection, Table.SALES_GROUP, buffered(salesGroups)));
+            loads.add(loadStream(connection, Table.BROKER_SALES_GROUP, buffered(brokerSalesGroups)));
+        }
+        return new BulkLoadReport(loads);
+    }
+
+    private TableLoad loadFile(Connection connection, Table table, Path file) throws SQLException, IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!JdbcUtil.isH2(connection)) {
+                return loadStream(connection, table, reader);
+            }
+            List<String> columns = readHeader(table, reader);
+            // H2 reads the CSV header when the statement is prepared, so the file name cannot be a bind parameter
+            String fileName = file.toAbsolutePath().toString().replace("'", "''");
+            return inTransaction(connection, table, () -> {
+                try (Statement statement = connection.createStatement()) {
+                    return statement.executeUpdate(String.format(
+                            "INSERT INTO %s (%s) SELECT * FROM CSVREAD('%s', NULL, 'charset=UTF-8')",
+                            table.name, String.join(", ", columns), fileName));
+                }
+            });
+        }
+    }
+
+    private TableLoad loadStream(Connection connection, Table table, BufferedReader reader)
+            throws SQLException, IOException {
+        List<String> columns = readHeader(table, reader);
+        if (JdbcUtil.isPostgres(connection)) {
+            return inTransaction(connection, table, () -> connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)", table.name,
+                            String.join(", ", columns)), reader));
+        }
+        return inTransaction(connection, table, () -> insertBatches(connection, table, columns, new CsvReader(reader)));
+    }
+
+    private long insertBatches(Connection connection, Table table, List<String> columns, CsvReader csv)
+            throws SQLException, IOException {
+        long rows = 0;
+        List<List<String>> chunk = new ArrayList<>(ROWS_PER_STATEMENT);
+        try (PreparedStatement statement = connection.prepareStatement(insertSql(table, columns, ROWS_PER_STATEMENT))) {
+            int batchedStatements = 0;
+            for (List<String> record = csv.nextRecord(); record != null; record = csv.nextRecord()) {
+                if (record.size() != columns.size()) {
+                    throw new IOException(String.format("%s: record %d has %d fields, expected %d", table.name,
+                            csv.getRecordNumber() + 1, record.size(), columns.size()));
+                }
+                chunk.add(record);
+                if (chunk.size() == ROWS_PER_STATEMENT) {
+                    bind(statement, table, columns, chunk);
+                    statement.addBatch();
+                    rows += chunk.size();
+                    chunk.clear();
+                    if (++batchedStatements == STATEMENTS_PER_BATCH) {
+                        statement.executeBatch();
+                        batchedStatements = 0;
+                    }
+                }
+            }
+            if (batchedStatements > 0) {
+                statement.executeBatch();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(table, columns, chunk.size()))) {
+                bind(statement, table, columns, chunk);
+                statement.executeUpdate();
+                rows += chunk.size();
+            }
+        }
+        return rows;
+    }
+
+    private String insertSql(Table table, List<String> columns, int rows) {
+        String row = columns.stream().map(column -> "?").collect(joining(", ", "(", ")"));
+        return String.format("INSERT INTO %s (%s) VALUES %s", table.name, String.join(", ", columns),
+                String.join(", ", Collections.nCopies(rows, row)));
+    }
+
+    private void bind(PreparedStatement statement, Table table, List<String> columns, List<List<String>> records)
+            throws SQLException {
+        int index = 1;
+        for (List<String> record : records) {
+            for (int i = 0; i < columns.size(); i++) {
+                String value = record.get(i);
+                boolean numeric = table.numericColumns.contains(columns.get(i));
+                if (value == null) {
+                    statement.setNull(index++, numeric ? Types.NUMERIC : Types.VARCHAR);
+                } else if (numeric) {
+                    statement.setBigDecimal(index++, new BigDecimal(value.trim()));
+                } else {
+                    statement.setString(index++, value);
+                }
+            }
+        }
+    }
+
+    private List<String> readHeader(Table table, BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException(String.format("%s: CSV header is missing", table.name));
+        }
+        List<String> columns = new ArrayList<>();
+        try (CsvReader header = new CsvReader(new StringReader(line))) {
+            for (String column : header.nextRecord()) {
+                columns.add(column == null ? "" : column.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (columns.size() != table.columns.size() || !new HashSet<>(columns).containsAll(table.columns)) {
+            throw new IOException(String.format("%s: CSV header %s does not match columns %s", table.name, columns,
+                    table.columns));
+        }
+        return columns;
+    }
+
+    private TableLoad inTransaction(Connection connection, Table table, LoadAction action)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            long rows = action.load();
+            connection.commit();
+            return new TableLoad(table.name, rows, System.nanoTime() - start);
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static BufferedReader buffered(Reader reader) {
+        return reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @FunctionalInterface
+    private interface LoadAction {
+        long load() throws SQLException, IOException;
+    }
+
+    private enum Table {
+        BROKER("broker", List.of("id", "username", "first_name", "last_name"), Set.of("id")),
+        SALES_GROUP("sales_group", List.of("id", "name", "transaction_type", "max_transaction_amount"),
+                Set.of("id", "max_transaction_amount")),
+        BROKER_SALES_GROUP("broker_sales_group", List.of("broker_id", "sales_group_id"),
+                Set.of("broker_id", "sales_group_id"));
+
+        private final String name;
+        private final List<String> columns;
+        private final Set<String> numericColumns;
+
+        Table(String name, List<String> columns, Set<String> numericColumns) {
+            this.name = name;
+            this.columns = columns;
+            this.numericColumns = numericColumns;
+        }
+    }
+}
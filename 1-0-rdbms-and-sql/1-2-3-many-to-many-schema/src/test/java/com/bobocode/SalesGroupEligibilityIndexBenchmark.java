@@ -0,0 +1,78 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SalesGroupEligibilityIndexBenchmark} compares the eligibility lookup of {@link SalesGroupEligibilityIndex}
+ * with the SQL join over the link table on an in-memory H2 database with 100 000 brokers, 1 000 sales groups and
+ * 5 memberships per broker. Both paths get the same random lookups. Run it with {@code main()}.
+ */
+public class SalesGroupEligibilityIndexBenchmark {
+    private static final int BROKERS = 100_000;
+    private static final int SALES_GROUPS = 1_000;
+    private static final int GROUPS_PER_BROKER = 5;
+    private static final int INDEX_LOOKUPS = 5_000_000;
+    private static final int SQL_LOOKUPS = 50_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:eligibility_benchmark;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false", "sa", "");
+        long start = System.nanoTime();
+        SalesGroupEligibilityIndexTest.createSchema(dataSource, BROKERS, SALES_GROUPS, GROUPS_PER_BROKER);
+        System.out.printf("schema: %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        start = System.nanoTime();
+        SalesGroupEligibilityIndex index = new SalesGroupEligibilityIndex(dataSource);
+        index.refresh();
+        System.out.printf("index refresh: %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Random random = new Random(round);
+            long found = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < INDEX_LOOKUPS; i++) {
+                found += index.findEligibleGroups(1 + random.nextInt(BROKERS), random.nextBoolean() ? "BUY" : "SELL",
+                        random.nextInt(SALES_GROUPS * 1000)).length;
+            }
+            double indexNanos = (System.nanoTime() - start) / (double) INDEX_LOOKUPS;
+
+            random = new Random(round);
+            long sqlFound = 0;
+            start = System.nanoTime();
+            try (Connection connection = dataSource.getConnection(); PreparedStatement statement =
+                    connection.prepareStatement(SalesGroupEligibilityIndexTest.ELIGIBLE_GROUPS_SQL)) {
+                for (int i = 0; i < SQL_LOOKUPS; i++) {
+                    sqlFound += querySql(statement, 1 + random.nextInt(BROKERS),
+                            random.nextBoolean() ? "BUY" : "SELL", random.nextInt(SALES_GROUPS * 1000));
+                }
+            }
+            double sqlNanos = (System.nanoTime() - start) / (double) SQL_LOOKUPS;
+
+            System.out.printf("round %d: index %.0f ns/lookup (%,d groups), sql %.0f ns/lookup (%,d groups)%n", round,
+                    indexNanos, found, sqlNanos, sqlFound);
+        }
+    }
+
+    private static int querySql(PreparedStatement statement, long brokerId, String type, long amount)
+            throws SQLException {
+        statement.setLong(1, brokerId);
+        statement.setString(2, type);
+        statement.setLong(3, amount);
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
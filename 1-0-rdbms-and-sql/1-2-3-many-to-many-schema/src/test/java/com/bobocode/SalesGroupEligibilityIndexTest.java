@@ -0,0 +1,135 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SalesGroupEligibilityIndexTest {
+    static final String ELIGIBLE_GROUPS_SQL = "SELECT sg.id FROM broker_sales_group bsg " +
+            "JOIN sales_group sg ON sg.id = bsg.sales_group_id " +
+            "WHERE bsg.broker_id = ? AND sg.transaction_type = ? AND sg.max_transaction_amount >= ? ORDER BY sg.id";
+
+    private DataSource dataSource;
+    private SalesGroupEligibilityIndex index;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:eligibility_index_test;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false", "sa", "");
+        createSchema(dataSource, 200, 30, 3);
+        index = new SalesGroupEligibilityIndex(dataSource);
+        index.refresh();
+    }
+
+    @Test
+    @DisplayName("Lookups return the same groups as the SQL join")
+    void matchesSql() throws SQLException {
+        Random random = new Random(42);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(ELIGIBLE_GROUPS_SQL)) {
+            for (int i = 0; i < 500; i++) {
+                long brokerId = random.nextInt(210);
+                String type = random.nextBoolean() ? "BUY" : "SELL";
+                long amount = random.nextInt(35_000);
+
+                assertThat(index.findEligibleGroups(brokerId, type, amount))
+                        .containsExactly(querySql(statement, brokerId, type, amount));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A limit equal to the amount allows the transaction")
+    void limitIsInclusive() {
+        long[] groups = index.findEligibleGroups(1, "SELL", 1000);
+
+        assertThat(groups).contains(1);
+        assertThat(index.findEligibleGroups(1, "SELL", 1001)).doesNotContain(1);
+    }
+
+    @Test
+    @DisplayName("Unknown brokers and transaction types have no groups")
+    void unknownKeys() {
+        assertThat(index.findEligibleGroups(-1, "BUY", 0)).isEmpty();
+        assertThat(index.findEligibleGroups(1, "SWAP", 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Changes are applied incrementally")
+    void appliesChanges() {
+        index.putSalesGroup(100, "SWAP", 5000);
+        index.addMembership(1, 100);
+
+        assertThat(index.findEligibleGroups(1, "SWAP", 5000)).containsExactly(100);
+
+        index.putSalesGroup(100, "BUY", 7000);
+
+        assertThat(index.findEligibleGroups(1, "SWAP", 0)).isEmpty();
+        assertThat(index.findEligibleGroups(1, "BUY", 7000)).containsExactly(100);
+
+        index.removeMembership(1, 100);
+
+        assertThat(index.findEligibleGroups(1, "BUY", 7000)).isEmpty();
+
+        index.addMembership(1, 100);
+        index.removeSalesGroup(100);
+
+        assertThat(index.findEligibleGroups(1, "BUY", 7000)).isEmpty();
+    }
+
+    /**
+     * Creates WallStreet tables with sales groups {@code 1..groups} of alternating {@code SELL}/{@code BUY} type and
+     * limit {@code id * 1000}, and brokers {@code 1..brokers} that are members of {@code groupsPerBroker} groups
+     * evenly spread over all the groups
+     */
+    static void createSchema(DataSource dataSource, int brokers, int groups, int groupsPerBroker) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE broker (id BIGINT, username VARCHAR(255) NOT NULL, " +
+                    "first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, " +
+                    "CONSTRAINT PK_broker PRIMARY KEY (id), CONSTRAINT UQ_broker_username UNIQUE (username))");
+            statement.execute("CREATE TABLE sales_group (id BIGINT, name VARCHAR(255) NOT NULL, " +
+                    "transaction_type VARCHAR(255) NOT NULL, max_transaction_amount INT NOT NULL, " +
+                    "CONSTRAINT PK_sales_group PRIMARY KEY (id), CONSTRAINT UQ_sales_group_name UNIQUE (name))");
+            statement.execute("CREATE TABLE broker_sales_group (broker_id BIGINT NOT NULL, " +
+                    "sales_group_id BIGINT NOT NULL, " +
+                    "CONSTRAINT PK_broker_sales_group PRIMARY KEY (broker_id, sales_group_id), " +
+                    "CONSTRAINT FK_broker_sales_group_broker FOREIGN KEY (broker_id) REFERENCES broker, " +
+                    "CONSTRAINT FK_broker_sales_group_sales_group FOREIGN KEY (sales_group_id) REFERENCES sales_group)");
+            statement.execute(String.format("INSERT INTO broker SELECT x, 'broker' || x, 'First', 'Last' " +
+                    "FROM SYSTEM_RANGE(1, %d)", brokers));
+            statement.execute(String.format("INSERT INTO sales_group SELECT x, 'group' || x, " +
+                    "CASEWHEN(MOD(x, 2) = 0, 'BUY', 'SELL'), x * 1000 FROM SYSTEM_RANGE(1, %d)", groups));
+            for (int i = 0; i < groupsPerBroker; i++) {
+                statement.execute(String.format("INSERT INTO broker_sales_group SELECT x, MOD(x - 1 + %d, %d) + 1 " +
+                        "FROM SYSTEM_RANGE(1, %d)", i * (groups / groupsPerBroker), groups, brokers));
+            }
+        }
+    }
+
+    private long[] querySql(PreparedStatement statement, long brokerId, String type, long amount) throws SQLException {
+        statement.setLong(1, brokerId);
+        statement.setString(2, type);
+        statement.setLong(3, amount);
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,197 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class WallStreetBulkLoaderTest {
+    private static final int BROKERS = 10_000;
+    private static final int SALES_GROUPS = 50;
+
+    @TempDir
+    Path directory;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:wall_street_bulk_load;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE broker (id BIGINT, username VARCHAR(255) NOT NULL, " +
+                    "first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, " +
+                    "CONSTRAINT PK_broker PRIMARY KEY (id), CONSTRAINT UQ_broker_username UNIQUE (username))");
+            statement.execute("CREATE TABLE sales_group (id BIGINT, name VARCHAR(255) NOT NULL, " +
+                    "transaction_type VARCHAR(255) NOT NULL, max_transaction_amount INT NOT NULL, " +
+                    "CONSTRAINT PK_sales_group PRIMARY KEY (id), CONSTRAINT UQ_sales_group_name UNIQUE (name))");
+            statement.execute("CREATE TABLE broker_sales_group (broker_id BIGINT NOT NULL, " +
+                    "sales_group_id BIGINT NOT NULL, " +
+                    "CONSTRAINT PK_broker_sales_group PRIMARY KEY (broker_id, sales_group_id), " +
+                    "CONSTRAINT FK_broker_sales_group_broker FOREIGN KEY (broker_id) REFERENCES broker, " +
+                    "CONSTRAINT FK_broker_sales_group_sales_group FOREIGN KEY (sales_group_id) REFERENCES sales_group)");
+        }
+    }
+
+    @Test
+    @DisplayName("CSV files are loaded with parents before the link table")
+    void loadsFiles() throws Exception {
+        Path brokers = writeBrokers();
+        Path salesGroups = writeSalesGroups();
+        Path memberships = writeMemberships();
+
+        BulkLoadReport report = new WallStreetBulkLoader(dataSource).load(brokers, salesGroups, memberships);
+
+        assertThat(report.getTables()).extracting(TableLoad::getTable)
+                .containsExactly("broker", "sales_group", "broker_sales_group");
+        assertThat(report.getTables()).extracting(TableLoad::getRows).containsExactly(
+                (long) BROKERS, (long) SALES_GROUPS, 2L * BROKERS);
+        assertThat(report.findTable("broker")).hasValueSatisfying(load -> assertThat(load.getRowsPerSecond()).isPositive());
+        assertThat(count("broker_sales_group")).isEqualTo(2L * BROKERS);
+    }
+
+    @Test
+    @DisplayName("Streamed CSV is loaded with batched multi-row inserts")
+    void loadsReaders() throws Exception {
+        Path brokers = writeBrokers();
+        Path salesGroups = writeSalesGroups();
+        Path memberships = writeMemberships();
+
+        BulkLoadReport report;
+        try (BufferedReader brokersReader = Files.newBufferedReader(brokers);
+             BufferedReader salesGroupsReader = Files.newBufferedReader(salesGroups);
+             BufferedReader membershipsReader = Files.newBufferedReader(memberships)) {
+            report = new WallStreetBulkLoader(dataSource).load(brokersReader, salesGroupsReader, membershipsReader);
+        }
+
+        assertThat(report.getTables()).extracting(TableLoad::getRows).containsExactly(
+                (long) BROKERS, (long) SALES_GROUPS, 2L * BROKERS);
+        assertThat(count("broker")).isEqualTo(BROKERS);
+        assertThat(lastName(7)).isEqualTo("O'Brien, \"Jr\" 7");
+    }
+
+    @Test
+    @DisplayName("Columns may come in any order")
+    void mapsColumnsByHeader() throws Exception {
+        new WallStreetBulkLoader(dataSource).load(
+                new StringReader("last_name,first_name,username,id\nSmith,John,jsmith,1\n"),
+                new StringReader("id,name,transaction_type,max_transaction_amount\n1,Gold,BUY,1000\n"),
+                new StringReader("sales_group_id,broker_id\n1,1\n"));
+
+        assertThat(lastName(1)).isEqualTo("Smith");
+        assertThat(count("broker_sales_group")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Decimal amounts are accepted from a reader like from a CSV file")
+    void loadsDecimalAmounts() throws Exception {
+        new WallStreetBulkLoader(dataSource).load(
+                new StringReader("id,username,first_name,last_name\n1,jsmith,John,Smith\n"),
+                new StringReader("id,name,transaction_type,max_transaction_amount\n1,Gold,BUY,1500.50\n"),
+                new StringReader("broker_id,sales_group_id\n1,1\n"));
+
+        assertThat(count("sales_group")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("An empty unquoted field is loaded from a reader as NULL and an empty quoted field as ''")
+    void distinguishesNullFromEmptyString() throws Exception {
+        new WallStreetBulkLoader(dataSource).load(
+                new StringReader("id,username,first_name,last_name\n1,jsmith,John,\"\"\n"),
+                new StringReader("id,name,transaction_type,max_transaction_amount\n"),
+                new StringReader("broker_id,sales_group_id\n"));
+
+        assertThat(lastName(1)).isEmpty();
+        assertThatExceptionOfType(SQLException.class).isThrownBy(() -> new WallStreetBulkLoader(dataSource).load(
+                new StringReader("id,username,first_name,last_name\n2,jdoe,John,\n"),
+                new StringReader("id,name,transaction_type,max_transaction_amount\n"),
+                new StringReader("broker_id,sales_group_id\n")))
+                .withMessageContaining("NULL not allowed");
+    }
+
+    @Test
+    @DisplayName("A failed table load is rolled back")
+    void rollsBackFailedTable() throws SQLException {
+        assertThatExceptionOfType(SQLException.class).isThrownBy(() -> new WallStreetBulkLoader(dataSource).load(
+                new StringReader("id,username,first_name,last_name\n1,jsmith,John,Smith\n"),
+                new StringReader("id,name,transaction_type,max_transaction_amount\n1,Gold,BUY,1000\n"),
+                new StringReader("broker_id,sales_group_id\n1,1\n2,1\n")));
+
+        assertThat(count("broker")).isEqualTo(1);
+        assertThat(count("broker_sales_group")).isZero();
+    }
+
+    @Test
+    @DisplayName("A header that does not match the table is rejected")
+    void rejectsWrongHeader() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> new WallStreetBulkLoader(dataSource).load(
+                new StringReader("id,login,first_name,last_name\n"), new StringReader(""), new StringReader("")))
+                .withMessageContaining("broker");
+    }
+
+    private Path writeBrokers() throws IOException {
+        Path file = directory.resolve("broker.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("id,username,first_name,last_name\n");
+            for (int i = 1; i <= BROKERS; i++) {
+                writer.write(String.format("%d,broker%d,First %d,\"O'Brien, \"\"Jr\"\" %d\"\n", i, i, i, i));
+            }
+        }
+        return file;
+    }
+
+    private Path writeSalesGroups() throws IOException {
+        Path file = directory.resolve("sales_group.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("id,name,transaction_type,max_transaction_amount\n");
+            for (int i = 1; i <= SALES_GROUPS; i++) {
+                writer.write(String.format("%d,group %d,%s,%d\n", i, i, i % 2 == 0 ? "BUY" : "SELL", i * 1000));
+            }
+        }
+        return file;
+    }
+
+    private Path writeMemberships() throws IOException {
+        Path file = directory.resolve("broker_sales_group.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("broker_id,sales_group_id\n");
+            for (int i = 1; i <= BROKERS; i++) {
+                writer.write(String.format("%d,%d\n%d,%d\n", i, i % SALES_GROUPS + 1, i, (i + 1) % SALES_GROUPS + 1));
+            }
+        }
+        return file;
+    }
+
+    private long count(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private String lastName(long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT last_name FROM broker WHERE id = " + id)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
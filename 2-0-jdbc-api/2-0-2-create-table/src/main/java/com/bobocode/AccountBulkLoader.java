@@ -0,0 +1,174 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link AccountBulkLoader} streams rows into an {@code account} table that was created without constraints by
+ * {@link AccountDbInitializer#initForBulkLoad()}. Rows are inserted in JDBC batches and committed periodically, so
+ * memory use does not depend on the number of rows. {@link AccountBulkLoader#finish()} builds the {@code account_pk}
+ * and {@code account_email_uq} constraints in one pass over the loaded data and refreshes table statistics.
+ * <p>
+ * Closing the loader before {@link AccountBulkLoader#finish()} rolls back the rows that are not committed yet. If
+ * a constraint cannot be created, the loaded rows stay in the table without any of the constraints, so the duplicates
+ * can be fixed and the constraints created again.
+ * <p>
+ * The mode was measured only on H2, where it was slower than the normal path; see
+ * {@link AccountDbInitializer#initForBulkLoad()}.
+ */
+public class AccountBulkLoader implements AutoCloseable {
+    static final int BATCH_SIZE = 1000;
+    static final int BATCHES_PER_COMMIT = 50;
+
+    private static final String INSERT_SQL = "INSERT INTO account (id, email, first_name, last_name, gender, " +
+            "birthday, balance) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String ADD_PRIMARY_KEY_SQL = "ALTER TABLE account ADD CONSTRAINT account_pk PRIMARY KEY (id)";
+    private static final String ADD_EMAIL_UNIQUE_SQL = "ALTER TABLE account ADD CONSTRAINT account_email_uq " +
+            "UNIQUE (email)";
+    private static final String DROP_PRIMARY_KEY_SQL = "ALTER TABLE account DROP CONSTRAINT IF EXISTS account_pk";
+    private static final String DUPLICATE_IDS_SQL = "SELECT id FROM account GROUP BY id HAVING count(*) > 1";
+    private static final String DUPLICATE_EMAILS_SQL = "SELECT email FROM account GROUP BY email HAVING count(*) > 1";
+    private static final int MAX_REPORTED_DUPLICATES = 10;
+
+    private final Connection connection;
+    private final PreparedStatement insert;
+    private final long start = System.nanoTime();
+    private int batchedRows;
+    private int uncommittedBatches;
+    private long rows;
+    private boolean finished;
+
+    AccountBulkLoader(Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(false);
+        this.insert = connection.prepareStatement(INSERT_SQL);
+    }
+
+    /**
+     * Adds a row to the current batch, executes the batch when it is full
+     *
+     * @param row account row
+     * @throws SQLException if a batch cannot be inserted
+     */
+    public void add(AccountRow row) throws SQLException {
+        if (finished) {
+            throw new IllegalStateException("Bulk load is already finished");
+        }
+        insert.setLong(1, row.getId());
+        insert.setString(2, row.getEmail());
+        insert.setString(3, row.getFirstName());
+        insert.setString(4, row.getLastName());
+        insert.setString(5, row.getGender());
+        insert.setDate(6, Date.valueOf(row.getBirthday()));
+        if (row.getBalance() == null) {
+            insert.setNull(7, Types.DECIMAL);
+        } else {
+            insert.setBigDecimal(7, row.getBalance());
+        }
+        insert.addBatch();
+        rows++;
+        if (++batchedRows == BATCH_SIZE) {
+            executeBatch();
+        }
+    }
+
+    /**
+     * Inserts the remaining rows, creates the constraints and refreshes table statistics
+     *
+     * @return load timing
+     * @throws SQLException if rows violate the constraints; the message lists duplicated ids or emails
+     */
+    public BulkLoadResult finish() throws SQLException {
+        if (batchedRows > 0) {
+            executeBatch();
+        }
+        connection.commit();
+        long loadNanos = System.nanoTime() - start;
+        long constraintsStart = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            addConstraint(statement, ADD_PRIMARY_KEY_SQL, "account_pk", DUPLICATE_IDS_SQL, "ids");
+            try {
+                addConstraint(statement, ADD_EMAIL_UNIQUE_SQL, "account_email_uq", DUPLICATE_EMAILS_SQL, "emails");
+            } catch (SQLException e) {
+                dropPrimaryKey(statement, e);
+                throw e;
+            }
+            boolean postgres = JdbcUtil.isPostgres(connection);
+            statement.execute(postgres ? "ANALYZE account" : "ANALYZE TABLE account");
+            connection.commit();
+        }
+        finished = true;
+        return new BulkLoadResult(rows, loadNanos, System.nanoTime() - constraintsStart);
+    }
+
+    private void executeBatch() throws SQLException {
+        insert.executeBatch();
+        batchedRows = 0;
+        if (++uncommittedBatches == BATCHES_PER_COMMIT) {
+            connection.commit();
+            uncommittedBatches = 0;
+        }
+    }
+
+    private void addConstraint(Statement statement, String sql, String constraint, String duplicatesSql,
+                               String duplicateValues) throws SQLException {
+        try {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            connection.rollback();
+            List<String> duplicates = findDuplicates(statement, duplicatesSql);
+            if (duplicates.isEmpty()) {
+                throw e;
+            }
+            throw new SQLException(String.format("Cannot create %s, duplicate %s: %s", constraint, duplicateValues,
+                    duplicates), "23505", e);
+        }
+    }
+
+    /**
+     * Drops the primary key that was created before a failed unique constraint. The rollback removes it only on
+     * databases with transactional DDL, while H2 commits the {@code ALTER TABLE} implicitly.
+     */
+    private void dropPrimaryKey(Statement statement, SQLException cause) {
+        try {
+            statement.execute(DROP_PRIMARY_KEY_SQL);
+            connection.commit();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private List<String> findDuplicates(Statement statement, String sql) throws SQLException {
+        List<String> duplicates = new ArrayList<>();
+        statement.setMaxRows(MAX_REPORTED_DUPLICATES);
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                duplicates.add(resultSet.getString(1));
+            }
+        } finally {
+            statement.setMaxRows(0);
+        }
+        return duplicates;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (!finished) {
+                connection.rollback();
+            }
+            insert.close();
+        } finally {
+            connection.close();
+        }
+    }
+}
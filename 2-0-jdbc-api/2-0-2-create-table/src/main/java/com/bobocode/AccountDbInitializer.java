@@ -3,12 +3,24 @@ package com.bobocode;
 import com.bobocode.util.ExerciseNotCompletedException;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * {@link AccountDbInitializer} provides an API that allow to initialize (create) an Account table in the database
  */
 public class AccountDbInitializer {
+    private static final String CREATE_TABLE_WITHOUT_CONSTRAINTS_SQL = "CREATE TABLE account (" +
+            "id BIGINT NOT NULL, " +
+            "email VARCHAR(255) NOT NULL, " +
+            "first_name VARCHAR(255) NOT NULL, " +
+            "last_name VARCHAR(255) NOT NULL, " +
+            "gender VARCHAR(255) NOT NULL, " +
+            "birthday DATE NOT NULL, " +
+            "balance DECIMAL(19, 4), " +
+            "creation_time TIMESTAMP NOT NULL DEFAULT now())";
+
     private DataSource dataSource;
 
     public AccountDbInitializer(DataSource dataSource) {
@@ -32,4 +44,29 @@ public class AccountDbInitializer {
     public void init() throws SQLException {
         throw new ExerciseNotCompletedException(); // todo
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the same {@code account} table as {@link AccountDbInitializer#init()}, but without {@code account_pk}
+     * and {@code account_email_uq} constraints, so rows can be loaded without maintaining their indexes. The returned
+     * loader builds the constraints when the load is finished.
+     * <p>
+     * On H2 this mode is not faster than the normal path. In {@code AccountBulkLoadBenchmark} (1 000 000 rows,
+     * file-backed H2 1.4.197) it took 29-34 s against 25-37 s for batched inserts into a table that already has the
+     * constraints, and it was slower in 2 of 3 rounds: the rows load about twice as fast, but adding the primary key
+     * copies the table. The benefit on PostgreSQL, where indexes are built by sorting after the load, is expected but
+     * has not been measured.
+     *
+     * @return bulk loader that holds a connection until it is closed
+     * @throws SQLException if a connection cannot be opened or the table cannot be created
+     */
+    public AccountBulkLoader initForBulkLoad() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE_WITHOUT_CONSTRAINTS_SQL);
+            return new AccountBulkLoader(connection);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+}
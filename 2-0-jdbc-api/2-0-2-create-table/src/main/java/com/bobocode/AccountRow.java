@@ -0,0 +1,22 @@
+package com.bobocode;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@link AccountRow} is a row of the {@code account} table loaded by {@link AccountBulkLoader}
+ */
+@Value
+@Builder
+public class AccountRow {
+    long id;
+    String email;
+    String firstName;
+    String lastName;
+    String gender;
+    LocalDate birthday;
+    BigDecimal balance;
+}
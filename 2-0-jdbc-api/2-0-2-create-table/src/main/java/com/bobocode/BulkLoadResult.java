@@ -0,0 +1,19 @@
+package com.bobocode;
+
+import lombok.Value;
+
+/**
+ * {@link BulkLoadResult} describes a finished {@link AccountBulkLoader} run
+ */
+@Value
+public class BulkLoadResult {
+    long rows;
+    /**
+     * Time spent inserting rows into the table without constraints
+     */
+    long loadNanos;
+    /**
+     * Time spent building constraints and refreshing statistics
+     */
+    long constraintsNanos;
+}
@@ -0,0 +1,96 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AccountBulkLoadBenchmark} compares two ways of seeding the {@code account} table with 1 000 000 rows in a
+ * file-backed H2 database: batched inserts into a table that already has {@code account_pk} and
+ * {@code account_email_uq} (normal path), and {@link AccountBulkLoader} that creates the constraints after the load
+ * (bulk-load mode). Every run uses a fresh database. Run it with {@code main()}.
+ */
+public class AccountBulkLoadBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("account-bulk-load");
+        for (int round = 1; round <= ROUNDS; round++) {
+            DataSource normal = JdbcUtil.createFileH2DataSource(directory.resolve("normal_" + round));
+            long start = System.nanoTime();
+            loadWithConstraints(normal);
+            long normalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            shutdown(normal);
+
+            DataSource bulk = JdbcUtil.createFileH2DataSource(directory.resolve("bulk_" + round));
+            start = System.nanoTime();
+            BulkLoadResult result;
+            try (AccountBulkLoader loader = new AccountDbInitializer(bulk).initForBulkLoad()) {
+                for (int i = 1; i <= ROWS; i++) {
+                    loader.add(AccountBulkLoaderTest.row(i, "user" + i + "@mail.com"));
+                }
+                result = loader.finish();
+            }
+            long bulkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            shutdown(bulk);
+
+            System.out.printf("round %d: normal %d ms, bulk load %d ms (rows %d ms, constraints %d ms)%n", round,
+                    normalMillis, bulkMillis, TimeUnit.NANOSECONDS.toMillis(result.getLoadNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(result.getConstraintsNanos()));
+        }
+    }
+
+    private static void loadWithConstraints(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE account (id BIGINT, email VARCHAR(255) NOT NULL, " +
+                        "first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, gender VARCHAR(255) NOT NULL, " +
+                        "birthday DATE NOT NULL, balance DECIMAL(19, 4), creation_time TIMESTAMP NOT NULL DEFAULT now(), " +
+                        "CONSTRAINT account_pk PRIMARY KEY (id), CONSTRAINT account_email_uq UNIQUE (email))");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO account " +
+                    "(id, email, first_name, last_name, gender, birthday, balance) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= ROWS; i++) {
+                    AccountRow row = AccountBulkLoaderTest.row(i, "user" + i + "@mail.com");
+                    insert.setLong(1, row.getId());
+                    insert.setString(2, row.getEmail());
+                    insert.setString(3, row.getFirstName());
+                    insert.setString(4, row.getLastName());
+                    insert.setString(5, row.getGender());
+                    insert.setDate(6, Date.valueOf(row.getBirthday()));
+                    if (row.getBalance() == null) {
+                        insert.setNull(7, Types.DECIMAL);
+                    } else {
+                        insert.setBigDecimal(7, row.getBalance());
+                    }
+                    insert.addBatch();
+                    if (i % AccountBulkLoader.BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                    if (i % (AccountBulkLoader.BATCH_SIZE * AccountBulkLoader.BATCHES_PER_COMMIT) == 0) {
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static void shutdown(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AccountBulkLoaderTest {
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:account_bulk_load_test;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    @DisplayName("Rows are loaded and constraints are created at the end")
+    void loadsRowsAndCreatesConstraints() throws SQLException {
+        BulkLoadResult result;
+        try (AccountBulkLoader loader = new AccountDbInitializer(dataSource).initForBulkLoad()) {
+            assertThat(constraints()).isEmpty();
+            for (int i = 1; i <= 2500; i++) {
+                loader.add(row(i, "user" + i + "@mail.com"));
+            }
+            result = loader.finish();
+        }
+
+        assertThat(result.getRows()).isEqualTo(2500);
+        assertThat(queryLong("SELECT count(*) FROM account")).isEqualTo(2500);
+        assertThat(queryLong("SELECT count(*) FROM account WHERE creation_time IS NULL")).isZero();
+        assertThat(constraints()).containsExactlyInAnyOrder("account_pk", "account_email_uq");
+    }
+
+    @Test
+    @DisplayName("Duplicate emails fail the load with a clear message")
+    void failsOnDuplicateEmails() throws SQLException {
+        try (AccountBulkLoader loader = new AccountDbInitializer(dataSource).initForBulkLoad()) {
+            loader.add(row(1, "same@mail.com"));
+            loader.add(row(2, "other@mail.com"));
+            loader.add(row(3, "same@mail.com"));
+
+            assertThatExceptionOfType(SQLException.class)
+                    .isThrownBy(loader::finish)
+                    .withMessage("Cannot create account_email_uq, duplicate emails: [same@mail.com]")
+                    .satisfies(e -> assertThat(e.getSQLState()).isEqualTo("23505"));
+        }
+        assertThat(queryLong("SELECT count(*) FROM account")).isEqualTo(3);
+        assertThat(constraints()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Duplicate ids fail the load with a clear message")
+    void failsOnDuplicateIds() throws SQLException {
+        try (AccountBulkLoader loader = new AccountDbInitializer(dataSource).initForBulkLoad()) {
+            loader.add(row(7, "first@mail.com"));
+            loader.add(row(7, "second@mail.com"));
+
+            assertThatExceptionOfType(SQLException.class)
+                    .isThrownBy(loader::finish)
+                    .withMessage("Cannot create account_pk, duplicate ids: [7]");
+        }
+    }
+
+    @Test
+    @DisplayName("Rows that are not committed are rolled back when the loader is closed before finishing")
+    void rollsBackUnfinishedLoad() throws SQLException {
+        try (AccountBulkLoader loader = new AccountDbInitializer(dataSource).initForBulkLoad()) {
+            loader.add(row(1, "user1@mail.com"));
+        }
+
+        assertThat(queryLong("SELECT count(*) FROM account")).isZero();
+    }
+
+    static AccountRow row(long id, String email) {
+        return AccountRow.builder()
+                .id(id)
+                .email(email)
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .gender(id % 2 == 0 ? "FEMALE" : "MALE")
+                .birthday(LocalDate.of(1990, 1, 1).plusDays(id % 10_000))
+                .balance(id % 3 == 0 ? null : BigDecimal.valueOf(id, 2))
+                .build();
+    }
+
+    private List<String> constraints() throws SQLException {
+        List<String> constraints = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.CONSTRAINTS " +
+                     "WHERE TABLE_NAME = 'account'")) {
+            while (resultSet.next()) {
+                constraints.add(resultSet.getString(1));
+            }
+        }
+        return constraints;
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
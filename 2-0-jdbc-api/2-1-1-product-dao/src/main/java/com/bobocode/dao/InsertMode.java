@@ -0,0 +1,17 @@
+package com.bobocode.dao;
+
+/**
+ * {@link InsertMode} defines how {@link ProductDaoImpl#saveAll(java.util.Collection)} sends a chunk of products to
+ * the database
+ */
+public enum InsertMode {
+    /**
+     * One single-row {@code INSERT} statement per product, a chunk is sent with {@code addBatch}/{@code executeBatch}
+     */
+    BATCH,
+    /**
+     * One {@code INSERT ... VALUES (...), (...), ...} statement per chunk. The H2 client sends every row of a JDBC
+     * batch as a separate request, so with a remote H2 database this mode needs far fewer round-trips.
+     */
+    MULTI_ROW_VALUES
+}
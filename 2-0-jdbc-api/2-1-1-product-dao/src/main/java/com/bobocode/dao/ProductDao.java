@@ -3,7 +3,11 @@ package com.bobocode.dao;
 import com.bobocode.exception.DaoOperationException;
 import com.bobocode.model.Product;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * {@link ProductDao} is an Data Access Object pattern (DAO) that encapsulates all database access and manipulation logic.
@@ -18,6 +22,34 @@ public interface ProductDao {
      */
     void save(Product product);
 
+    /**
+     * Stores new products into the database in one transaction. Sets generated ids and creation time to the
+     * {@link Product} instances. When any product cannot be stored, none of them is stored.
+     *
+     * @param products new products
+     * @throws DaoOperationException with massage: "Error saving products"
+     */
+    void saveAll(Collection<Product> products);
+
+    /**
+     * Stores a product in one round-trip: a product without id is inserted, a product with id is updated, or
+     * inserted with this id when it is not stored yet. Sets generated id and creation time to the {@link Product}
+     * instance.
+     *
+     * @param product new or stored product
+     * @throws DaoOperationException with massage: "Error upserting product: {@link Product} instance"
+     */
+    void upsert(Product product);
+
+    /**
+     * Stores products in one transaction the same way as {@link ProductDao#upsert(Product)}, sending them in
+     * batches. When any product cannot be stored, none of them is stored.
+     *
+     * @param products new or stored products
+     * @throws DaoOperationException with massage: "Error upserting products"
+     */
+    void upsertAll(Collection<Product> products);
+
     /**
      * Retrieves and returns all products from the database
      *
@@ -25,6 +57,50 @@ public interface ProductDao {
      */
     List<Product> findAll();
 
+    /**
+     * Returns all products as a lazy stream. Products are fetched from a database cursor while the stream is
+     * consumed, so the memory use does not depend on the number of products. The stream holds a database connection
+     * until it is closed, so it must be closed (use try-with-resources).
+     *
+     * @return stream of all products
+     * @throws DaoOperationException with massage: "Error streaming products"
+     */
+    Stream<Product> streamAll();
+
+    /**
+     * Returns products of a given producer as a lazy stream. See {@link ProductDao#streamAll()}
+     *
+     * @param producer product producer
+     * @return stream of products of the producer
+     * @throws DaoOperationException with massage: "Error streaming products"
+     */
+    Stream<Product> streamAllByProducer(String producer);
+
+    /**
+     * Returns products ordered by id that go after a given id. Unlike an offset, the id is looked up in the primary
+     * key index, so any page is found as fast as the first one.
+     *
+     * @param afterId id of the last product of the previous page, or {@code null} for the first page
+     * @param limit   maximum number of products on the page
+     * @return page of products with the cursor of the next page
+     * @throws DaoOperationException with massage: "Error finding products page"
+     */
+    ProductPage findPage(Long afterId, int limit);
+
+    /**
+     * Returns products ordered by creation time and id that go after a given creation time and id. Products created
+     * at the same time are ordered by id, so none of them is skipped or repeated between pages. It needs the index
+     * from {@code products_pagination_indexes.sql}.
+     *
+     * @param afterCreationTime creation time of the last product of the previous page, or {@code null} for the first
+     *                          page
+     * @param afterId           id of the last product of the previous page
+     * @param limit             maximum number of products on the page
+     * @return page of products with the cursor of the next page
+     * @throws DaoOperationException with massage: "Error finding products page"
+     */
+    ProductPage findPageByCreationTime(LocalDateTime afterCreationTime, Long afterId, int limit);
+
     /**
      * Returns a product object by its id
      *
@@ -33,6 +109,16 @@ public interface ProductDao {
      */
     Product findOne(Long id);
 
+    /**
+     * Returns products by their ids. Unlike calling {@link ProductDao#findOne(Long)} for each id, it needs one query
+     * per chunk of ids. Ids that have no product do not fail the lookup, they are reported separately.
+     *
+     * @param ids product identifiers (primary keys)
+     * @return found products mapped by their ids, and the ids that were not found
+     * @throws DaoOperationException with massage: "Error finding products by ids"
+     */
+    ProductLookup findAllByIds(Collection<Long> ids);
+
     /**
      * Updates existing product.
      *
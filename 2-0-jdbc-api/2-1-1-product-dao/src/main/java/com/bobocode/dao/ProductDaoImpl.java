@@ -1,16 +1,96 @@
 package com.bobocode.dao;
 
+import com.bobocode.exception.DaoOperationException;
 import com.bobocode.model.Product;
 import com.bobocode.util.ExerciseNotCompletedException;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.streaming.StatementBinder;
+import com.bobocode.util.streaming.StreamingQuery;
+import com.bobocode.util.streaming.StreamingQueryException;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
 
 public class ProductDaoImpl implements ProductDao {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    /**
+     * PostgreSQL allows at most 32767 parameters per statement, a product takes 4 of them
+     */
+    static final int MAX_MULTI_ROW_CHUNK_SIZE = 8191;
+
+    private static final String INSERT_SQL = "INSERT INTO products (name, producer, price, expiration_date) VALUES ";
+    private static final String INSERT_VALUES_SQL = "(?, ?, ?, ?)";
+    private static final String[] GENERATED_COLUMNS = {"id", "creation_time"};
+    private static final String H2_UPSERT_SQL = "MERGE INTO products (id, name, producer, price, expiration_date) " +
+            "KEY (id) VALUES (?, ?, ?, ?, ?)";
+    private static final String POSTGRES_UPSERT_SQL = "INSERT INTO products (id, name, producer, price, " +
+            "expiration_date) VALUES (?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, " +
+            "producer = EXCLUDED.producer, price = EXCLUDED.price, expiration_date = EXCLUDED.expiration_date";
+    /**
+     * PostgreSQL does not advance the {@code id} sequence when a row is inserted with an explicit id, so it is moved
+     * past the largest upserted id. H2 advances the identity column by itself.
+     */
+    private static final String POSTGRES_ADVANCE_ID_SEQUENCE_SQL = "SELECT setval(pg_get_serial_sequence('products', " +
+            "'id'), GREATEST(?, nextval(pg_get_serial_sequence('products', 'id'))))";
+    private static final String SELECT_ALL_SQL = "SELECT id, name, producer, price, expiration_date, creation_time " +
+            "FROM products";
+    private static final String SELECT_BY_PRODUCER_SQL = SELECT_ALL_SQL + " WHERE producer = ?";
+    private static final String SELECT_FIRST_PAGE_SQL = SELECT_ALL_SQL + " ORDER BY id LIMIT ?";
+    private static final String SELECT_PAGE_SQL = SELECT_ALL_SQL + " WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_FIRST_PAGE_BY_CREATION_TIME_SQL = SELECT_ALL_SQL +
+            " ORDER BY creation_time, id LIMIT ?";
+    /**
+     * Equivalent of {@code (creation_time, id) > (?, ?)}, which H2 does not seek in the index. The first predicate is
+     * a range scan of the {@code (creation_time, id)} index, the second one skips the products of the previous pages
+     * created at the same time, so a page never scans more than the products that share the cursor's creation time.
+     */
+    private static final String SELECT_PAGE_BY_CREATION_TIME_SQL = SELECT_ALL_SQL +
+            " WHERE creation_time >= ? AND (creation_time > ? OR id > ?) ORDER BY creation_time, id LIMIT ?";
+    private static final String SELECT_BY_IDS_SQL = SELECT_ALL_SQL + " WHERE id IN (%s)";
+    private static final String POSTGRES_SELECT_BY_IDS_SQL = SELECT_ALL_SQL + " WHERE id = ANY(?)";
+
     private DataSource dataSource;
+    private final InsertMode insertMode;
+    private final int chunkSize;
+    private final StreamingQuery streamingQuery;
 
     public ProductDaoImpl(DataSource dataSource) {
+        this(dataSource, InsertMode.BATCH, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ProductDaoImpl(DataSource dataSource, InsertMode insertMode, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (insertMode == InsertMode.MULTI_ROW_VALUES && chunkSize > MAX_MULTI_ROW_CHUNK_SIZE) {
+            throw new IllegalArgumentException(String.format("Chunk size of multi-row insert cannot exceed %d",
+                    MAX_MULTI_ROW_CHUNK_SIZE));
+        }
         this.dataSource = dataSource;
+        this.insertMode = insertMode;
+        this.chunkSize = chunkSize;
+        this.streamingQuery = StreamingQuery.of(dataSource);
     }
 
     @Override
@@ -18,16 +98,371 @@ public class ProductDaoImpl implements ProductDao {
         throw new ExerciseNotCompletedException();// todo
     }
 
+    @Override
+    public void saveAll(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Product> productList = new ArrayList<>(products);
+        try (Connection connection = dataSource.getConnection()) {
+            setGeneratedKeys(productList, write(connection, productList, List.of()));
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error saving products", e);
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        try {
+            upsertProducts(List.of(product));
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error upserting product: %s", product), e);
+        }
+    }
+
+    @Override
+    public void upsertAll(Collection<Product> products) {
+        try {
+            upsertProducts(products);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error upserting products", e);
+        }
+    }
+
+    private void upsertProducts(Collection<Product> products) throws SQLException {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Product> newProducts = new ArrayList<>();
+        List<Product> storedProducts = new ArrayList<>();
+        products.forEach(product -> (product.getId() == null ? newProducts : storedProducts).add(product));
+        try (Connection connection = dataSource.getConnection()) {
+            List<GeneratedKey> generatedKeys = write(connection, newProducts, storedProducts);
+            setGeneratedKeys(newProducts, generatedKeys.subList(0, newProducts.size()));
+            setGeneratedKeys(storedProducts, generatedKeys.subList(newProducts.size(), generatedKeys.size()));
+        }
+    }
+
+    /**
+     * Inserts new products and upserts stored ones in one transaction
+     *
+     * @return generated keys of the new products followed by the keys of the stored products
+     */
+    private List<GeneratedKey> write(Connection connection, List<Product> newProducts, List<Product> storedProducts)
+            throws SQLException {
+        List<GeneratedKey> generatedKeys = new ArrayList<>(newProducts.size() + storedProducts.size());
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int from = 0; from < newProducts.size(); from += chunkSize) {
+                List<Product> chunk = newProducts.subList(from, Math.min(from + chunkSize, newProducts.size()));
+                if (insertMode == InsertMode.BATCH) {
+                    insertBatch(connection, chunk, generatedKeys);
+                } else {
+                    insertMultiRow(connection, chunk, generatedKeys);
+                }
+            }
+            if (!storedProducts.isEmpty()) {
+                boolean postgres = JdbcUtil.isPostgres(connection);
+                for (int from = 0; from < storedProducts.size(); from += chunkSize) {
+                    List<Product> chunk = storedProducts.subList(from,
+                            Math.min(from + chunkSize, storedProducts.size()));
+                    upsertBatch(connection, postgres, chunk, generatedKeys);
+                }
+                if (postgres) {
+                    advanceIdSequence(connection, storedProducts);
+                }
+            }
+            if (generatedKeys.size() != newProducts.size() + storedProducts.size()) {
+                throw new SQLException(String.format("Expected %d generated keys, but got %d",
+                        newProducts.size() + storedProducts.size(), generatedKeys.size()));
+            }
+            connection.commit();
+            return generatedKeys;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void setGeneratedKeys(List<Product> products, List<GeneratedKey> generatedKeys) {
+        for (int i = 0; i < products.size(); i++) { // products are changed only when the transaction is committed
+            products.get(i).setId(generatedKeys.get(i).id);
+            products.get(i).setCreationTime(generatedKeys.get(i).creationTime);
+        }
+    }
+
+    private void insertBatch(Connection connection, List<Product> chunk, List<GeneratedKey> generatedKeys)
+            throws SQLException {
+        try (PreparedStatement insertStatement = connection.prepareStatement(INSERT_SQL + INSERT_VALUES_SQL,
+                GENERATED_COLUMNS)) {
+            for (Product product : chunk) {
+                fillProductStatement(product, insertStatement, 0);
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+            fetchGeneratedKeys(insertStatement, generatedKeys);
+        }
+    }
+
+    private void insertMultiRow(Connection connection, List<Product> chunk, List<GeneratedKey> generatedKeys)
+            throws SQLException {
+        String sql = INSERT_SQL + String.join(", ", Collections.nCopies(chunk.size(), INSERT_VALUES_SQL));
+        try (PreparedStatement insertStatement = connection.prepareStatement(sql, GENERATED_COLUMNS)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                fillProductStatement(chunk.get(i), insertStatement, i * 4);
+            }
+            insertStatement.executeUpdate();
+            fetchGeneratedKeys(insertStatement, generatedKeys);
+        }
+    }
+
+    private void upsertBatch(Connection connection, boolean postgres, List<Product> chunk,
+                             List<GeneratedKey> generatedKeys) throws SQLException {
+        String sql = postgres ? POSTGRES_UPSERT_SQL : H2_UPSERT_SQL;
+        try (PreparedStatement upsertStatement = postgres ? connection.prepareStatement(sql, GENERATED_COLUMNS) :
+                connection.prepareStatement(sql)) {
+            for (Product product : chunk) {
+                upsertStatement.setLong(1, product.getId());
+                fillProductStatement(product, upsertStatement, 1);
+                upsertStatement.addBatch();
+            }
+            upsertStatement.executeBatch();
+            if (postgres) {
+                fetchGeneratedKeys(upsertStatement, generatedKeys);
+                return;
+            }
+        }
+        // H2 does not return generated keys of a MERGE batch, the creation time is read back with one query
+        Map<Long, Product> storedProducts = new HashMap<>(chunk.size() * 2);
+        findByPaddedInList(connection, chunk.stream().map(Product::getId).collect(toList()), storedProducts);
+        for (Product product : chunk) {
+            generatedKeys.add(new GeneratedKey(product.getId(), storedProducts.get(product.getId()).getCreationTime()));
+        }
+    }
+
+    private void advanceIdSequence(Connection connection, List<Product> storedProducts) throws SQLException {
+        long maxId = storedProducts.stream().mapToLong(Product::getId).max().orElseThrow();
+        try (PreparedStatement statement = connection.prepareStatement(POSTGRES_ADVANCE_ID_SEQUENCE_SQL)) {
+            statement.setLong(1, maxId);
+            statement.executeQuery().close();
+        }
+    }
+
+    private void fillProductStatement(Product product, PreparedStatement statement, int offset) throws SQLException {
+        statement.setString(offset + 1, product.getName());
+        statement.setString(offset + 2, product.getProducer());
+        statement.setBigDecimal(offset + 3, product.getPrice());
+        statement.setDate(offset + 4, product.getExpirationDate() == null ? null :
+                Date.valueOf(product.getExpirationDate()));
+    }
+
+    private void fetchGeneratedKeys(PreparedStatement insertStatement, List<GeneratedKey> generatedKeys)
+            throws SQLException {
+        try (ResultSet resultSet = insertStatement.getGeneratedKeys()) {
+            while (resultSet.next()) {
+                generatedKeys.add(new GeneratedKey(resultSet.getLong(1), resultSet.getTimestamp(2).toLocalDateTime()));
+            }
+        }
+    }
+
     @Override
     public List<Product> findAll() {
         throw new ExerciseNotCompletedException();// todo
     }
 
+    @Override
+    public Stream<Product> streamAll() {
+        return stream(SELECT_ALL_SQL, StatementBinder.NO_PARAMETERS);
+    }
+
+    @Override
+    public Stream<Product> streamAllByProducer(String producer) {
+        return stream(SELECT_BY_PRODUCER_SQL, statement -> statement.setString(1, producer));
+    }
+
+    private Stream<Product> stream(String sql, StatementBinder binder) {
+        Stream<Product> rows;
+        try {
+            rows = streamingQuery.stream(sql, binder, this::parseRow);
+        } catch (StreamingQueryException e) {
+            throw streamingError(e);
+        }
+        Iterator<Product> iterator = rows.iterator();
+        Iterator<Product> products = new Iterator<>() { // fetch errors keep the DaoOperationException contract
+            @Override
+            public boolean hasNext() {
+                try {
+                    return iterator.hasNext();
+                } catch (StreamingQueryException e) {
+                    throw streamingError(e);
+                }
+            }
+
+            @Override
+            public Product next() {
+                try {
+                    return iterator.next();
+                } catch (StreamingQueryException e) {
+                    throw streamingError(e);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(products, Spliterator.ORDERED), false)
+                .onClose(rows::close);
+    }
+
+    @Override
+    public ProductPage findPage(Long afterId, int limit) {
+        verifyLimit(limit);
+        if (afterId == null) {
+            return findPage(SELECT_FIRST_PAGE_SQL, statement -> statement.setInt(1, limit + 1), limit);
+        }
+        return findPage(SELECT_PAGE_SQL, statement -> {
+            statement.setLong(1, afterId);
+            statement.setInt(2, limit + 1);
+        }, limit);
+    }
+
+    @Override
+    public ProductPage findPageByCreationTime(LocalDateTime afterCreationTime, Long afterId, int limit) {
+        verifyLimit(limit);
+        if (afterCreationTime == null) {
+            return findPage(SELECT_FIRST_PAGE_BY_CREATION_TIME_SQL, statement -> statement.setInt(1, limit + 1), limit);
+        }
+        if (afterId == null) {
+            throw new DaoOperationException("Page cursor id cannot be null");
+        }
+        Timestamp creationTime = Timestamp.valueOf(afterCreationTime);
+        return findPage(SELECT_PAGE_BY_CREATION_TIME_SQL, statement -> {
+            statement.setTimestamp(1, creationTime);
+            statement.setTimestamp(2, creationTime);
+            statement.setLong(3, afterId);
+            statement.setInt(4, limit + 1);
+        }, limit);
+    }
+
+    private void verifyLimit(int limit) {
+        if (limit < 1) {
+            throw new DaoOperationException("Page limit must be positive");
+        }
+    }
+
+    /**
+     * Selects one product more than the limit to find out whether there is a next page without a count query
+     */
+    private ProductPage findPage(String sql, StatementBinder binder, int limit) {
+        List<Product> products = new ArrayList<>(limit + 1);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    products.add(parseRow(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error finding products page", e);
+        }
+        if (products.size() <= limit) {
+            return new ProductPage(products, null, null);
+        }
+        products.remove(limit);
+        Product last = products.get(limit - 1);
+        return new ProductPage(products, last.getId(), last.getCreationTime());
+    }
+
+    private static DaoOperationException streamingError(StreamingQueryException e) {
+        return new DaoOperationException("Error streaming products", e.getCause());
+    }
+
+    private Product parseRow(ResultSet resultSet) throws SQLException {
+        return Product.builder()
+                .id(resultSet.getLong("id"))
+                .name(resultSet.getString("name"))
+                .producer(resultSet.getString("producer"))
+                .price(resultSet.getBigDecimal("price"))
+                .expirationDate(resultSet.getDate("expiration_date").toLocalDate())
+                .creationTime(resultSet.getTimestamp("creation_time").toLocalDateTime())
+                .build();
+    }
+
     @Override
     public Product findOne(Long id) {
         throw new ExerciseNotCompletedException();// todo
     }
 
+    @Override
+    public ProductLookup findAllByIds(Collection<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new DaoOperationException("Product id cannot be null");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Product> products = new HashMap<>(distinctIds.size() * 2);
+        if (distinctIds.isEmpty()) {
+            return new ProductLookup(products, List.of());
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = JdbcUtil.isPostgres(connection);
+            for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+                if (postgres) {
+                    findByIdArray(connection, chunk, products);
+                } else {
+                    findByPaddedInList(connection, chunk, products);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error finding products by ids", e);
+        }
+        List<Long> missingIds = distinctIds.stream().filter(id -> !products.containsKey(id)).collect(toList());
+        return new ProductLookup(products, missingIds);
+    }
+
+    private void findByIdArray(Connection connection, List<Long> ids, Map<Long, Product> products)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(POSTGRES_SELECT_BY_IDS_SQL)) {
+            statement.setFetchSize(ids.size());
+            statement.setArray(1, connection.createArrayOf("int8", ids.toArray()));
+            collectById(statement, products);
+        }
+    }
+
+    /**
+     * Binds ids to an IN-list which size is rounded up to a power of two (but not more than the chunk size) by
+     * repeating the last id, so only a few statement shapes are parsed and cached whatever the number of ids is
+     */
+    private void findByPaddedInList(Connection connection, List<Long> ids, Map<Long, Product> products)
+            throws SQLException {
+        int size = paddedSize(ids.size(), chunkSize);
+        String sql = String.format(SELECT_BY_IDS_SQL, String.join(", ", Collections.nCopies(size, "?")));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(size); // the whole chunk is fetched in one round-trip
+            for (int i = 0; i < size; i++) {
+                statement.setLong(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+            }
+            collectById(statement, products);
+        }
+    }
+
+    static int paddedSize(int size, int chunkSize) {
+        if (size <= 1) {
+            return size;
+        }
+        return Math.min(Integer.highestOneBit(size - 1) << 1, chunkSize);
+    }
+
+    private void collectById(PreparedStatement statement, Map<Long, Product> products) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                Product product = parseRow(resultSet);
+                products.put(product.getId(), product);
+            }
+        }
+    }
+
     @Override
     public void update(Product product) {
         throw new ExerciseNotCompletedException();// todo
@@ -38,4 +473,13 @@ public class ProductDaoImpl implements ProductDao {
         throw new ExerciseNotCompletedException();// todo
     }
 
+    private static class GeneratedKey {
+        private final long id;
+        private final LocalDateTime creationTime;
+
+        GeneratedKey(long id, LocalDateTime creationTime) {
+            this.id = id;
+            this.creationTime = creationTime;
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ProductLookup} is a result of {@link ProductDao#findAllByIds(java.util.Collection)}: the products that were
+ * found, and the ids that have no product.
+ */
+@Value
+public class ProductLookup {
+    /**
+     * Found products mapped by their ids
+     */
+    Map<Long, Product> products;
+    /**
+     * Requested ids that have no product, in the order of the request
+     */
+    List<Long> missingIds;
+
+    public boolean isComplete() {
+        return missingIds.isEmpty();
+    }
+}
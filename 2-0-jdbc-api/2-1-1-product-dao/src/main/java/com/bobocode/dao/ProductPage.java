@@ -0,0 +1,28 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link ProductPage} is a page of products returned by keyset pagination methods of {@link ProductDao}. The cursor
+ * of the next page is the sort key of the last product on this page.
+ */
+@Value
+public class ProductPage {
+    List<Product> products;
+    /**
+     * Id of the last product on the page, or {@code null} when there is no next page
+     */
+    Long nextAfterId;
+    /**
+     * Creation time of the last product on the page, or {@code null} when there is no next page
+     */
+    LocalDateTime nextAfterCreationTime;
+
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+}
@@ -0,0 +1,2 @@
+-- Supports the keyset pagination of ProductDao.findPageByCreationTime(). Pages by id use the products_pk index.
+CREATE INDEX IF NOT EXISTS products_creation_time_id_idx ON products (creation_time, id);
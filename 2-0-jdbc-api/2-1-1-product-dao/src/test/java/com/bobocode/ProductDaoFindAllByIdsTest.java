@@ -0,0 +1,110 @@
+package com.bobocode;
+
+import com.bobocode.dao.InsertMode;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.ProductLookup;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+
+class ProductDaoFindAllByIdsTest {
+    private static final DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+            "jdbc:h2:mem:product_find_all_by_ids;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+
+    private final ProductDao productDao = new ProductDaoImpl(dataSource, InsertMode.BATCH, 8);
+    private List<Product> products;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+        }
+        products = ProductDaoSaveAllTest.products(30);
+        productDao.saveAll(products);
+    }
+
+    @Test
+    @DisplayName("findAllByIds() finds products of several chunks, including padded ones")
+    void findAllByIds() {
+        for (int count : new int[]{1, 3, 8, 13, 30}) {
+            List<Product> expected = products.subList(0, count);
+
+            ProductLookup lookup = productDao.findAllByIds(expected.stream().map(Product::getId)
+                    .collect(toList()));
+            Map<Long, Product> found = lookup.getProducts();
+
+            assertThat(lookup.isComplete()).isTrue();
+            assertThat(found).hasSize(count);
+            assertThat(found.values()).usingElementComparatorIgnoringFields("price")
+                    .containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(found).allSatisfy((id, product) -> assertThat(product.getId()).isEqualTo(id));
+        }
+    }
+
+    @Test
+    @DisplayName("findAllByIds() ignores duplicated ids")
+    void findAllByDuplicatedIds() {
+        Long id = products.get(5).getId();
+
+        assertThat(productDao.findAllByIds(Arrays.asList(id, id, id)).getProducts()).containsOnlyKeys(id);
+    }
+
+    @Test
+    @DisplayName("findAllByIds() returns an empty lookup for no ids")
+    void findAllByNoIds() {
+        ProductLookup lookup = productDao.findAllByIds(List.of());
+
+        assertThat(lookup.getProducts()).isEmpty();
+        assertThat(lookup.isComplete()).isTrue();
+    }
+
+    @Test
+    @DisplayName("findAllByIds() returns found products and reports missing ids")
+    void findAllByIdsWithMissingIds() {
+        List<Long> ids = List.of(products.get(0).getId(), -1L, products.get(1).getId(), -2L);
+
+        ProductLookup lookup = productDao.findAllByIds(ids);
+
+        assertThat(lookup.getProducts()).containsOnlyKeys(products.get(0).getId(), products.get(1).getId());
+        assertThat(lookup.getMissingIds()).containsExactly(-1L, -2L);
+        assertThat(lookup.isComplete()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findAllByIds() throws an exception when an ID is null")
+    void findAllByNullId() {
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> productDao.findAllByIds(Arrays.asList(products.get(0).getId(), null)))
+                .withMessage("Product id cannot be null");
+    }
+
+    @Test
+    @DisplayName("findAllByIds() handles SQLException using DaoOperationException")
+    void findAllByIdsErrorCase() throws SQLException {
+        DataSource failingDataSource = Mockito.spy(dataSource);
+        doThrow(new SQLException("Mock testing Exception")).when(failingDataSource).getConnection();
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> new ProductDaoImpl(failingDataSource).findAllByIds(List.of(1L)))
+                .withMessage("Error finding products by ids");
+    }
+}
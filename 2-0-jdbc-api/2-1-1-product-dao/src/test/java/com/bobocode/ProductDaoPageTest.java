@@ -0,0 +1,136 @@
+package com.bobocode;
+
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.ProductPage;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.util.FileReader;
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+
+class ProductDaoPageTest {
+    static final String PAGINATION_INDEXES_SQL_FILE = "products_pagination_indexes.sql";
+
+    private static final DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+            "jdbc:h2:mem:product_page;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+    private final ProductDao productDao = new ProductDaoImpl(dataSource);
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+            statement.execute(FileReader.readWholeFileFromResources(PAGINATION_INDEXES_SQL_FILE));
+        }
+    }
+
+    @Test
+    @DisplayName("findPage() returns all the products page by page ordered by id")
+    void findPage() {
+        List<Product> products = ProductDaoSaveAllTest.products(25);
+        productDao.saveAll(products);
+
+        List<ProductPage> pages = new ArrayList<>();
+        ProductPage page = productDao.findPage(null, 10);
+        pages.add(page);
+        while (page.hasNext()) {
+            page = productDao.findPage(page.getNextAfterId(), 10);
+            pages.add(page);
+        }
+
+        assertThat(pages.stream().map(p -> p.getProducts().size()).collect(toList())).containsExactly(10, 10, 5);
+        assertThat(pages.stream().flatMap(p -> p.getProducts().stream()).map(Product::getId).collect(toList()))
+                .containsExactlyElementsOf(products.stream().map(Product::getId).sorted().collect(toList()));
+        assertThat(pages.get(0).getNextAfterId()).isEqualTo(pages.get(0).getProducts().get(9).getId());
+        assertThat(page.getNextAfterId()).isNull();
+    }
+
+    @Test
+    @DisplayName("A page that ends exactly at the last product has no next page")
+    void findLastFullPage() {
+        productDao.saveAll(ProductDaoSaveAllTest.products(10));
+
+        ProductPage page = productDao.findPage(null, 10);
+
+        assertThat(page.getProducts()).hasSize(10);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findPageByCreationTime() orders products created at the same time by id")
+    void findPageByCreationTime() throws SQLException {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = 0; i < 20; i++) { // four products per each creation time, inserted in reverse time order
+                statement.execute(String.format("INSERT INTO products (name, producer, expiration_date, " +
+                        "creation_time) VALUES ('Product %d', 'Producer', DATE '2030-01-01', TIMESTAMP '%s')", i,
+                        Timestamp.valueOf(start.plusMinutes(4 - i / 4))));
+            }
+        }
+
+        List<Product> products = new ArrayList<>();
+        ProductPage page = productDao.findPageByCreationTime(null, null, 3);
+        products.addAll(page.getProducts());
+        while (page.hasNext()) {
+            page = productDao.findPageByCreationTime(page.getNextAfterCreationTime(), page.getNextAfterId(), 3);
+            products.addAll(page.getProducts());
+        }
+
+        assertThat(products).hasSize(20).doesNotHaveDuplicates()
+                .isSortedAccordingTo(Comparator.comparing(Product::getCreationTime).thenComparing(Product::getId));
+    }
+
+    @Test
+    @DisplayName("findPageByCreationTime() seeks the creation time index")
+    void findPageByCreationTimeUsesIndex() throws SQLException {
+        productDao.saveAll(ProductDaoSaveAllTest.products(1000));
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN SELECT * FROM products " +
+                     "WHERE creation_time >= TIMESTAMP '2020-01-01 00:00:00' " +
+                     "AND (creation_time > TIMESTAMP '2020-01-01 00:00:00' OR id > 10) " +
+                     "ORDER BY creation_time, id LIMIT 11")) {
+            plan.next();
+
+            assertThat(plan.getString(1)).contains("products_creation_time_id_idx").contains("index sorted");
+        }
+    }
+
+    @Test
+    @DisplayName("Page limit must be positive")
+    void findPageWithInvalidLimit() {
+        assertThatExceptionOfType(DaoOperationException.class).isThrownBy(() -> productDao.findPage(null, 0))
+                .withMessage("Page limit must be positive");
+    }
+
+    @Test
+    @DisplayName("findPage() handles SQLException using DaoOperationException")
+    void findPageErrorCase() throws SQLException {
+        DataSource failingDataSource = Mockito.spy(dataSource);
+        doThrow(new SQLException("Mock testing Exception")).when(failingDataSource).getConnection();
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> new ProductDaoImpl(failingDataSource).findPage(1L, 10))
+                .withMessage("Error finding products page");
+    }
+}
@@ -0,0 +1,129 @@
+package com.bobocode;
+
+import com.bobocode.dao.InsertMode;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ProductDaoSaveAllTest {
+    private static final DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+            "jdbc:h2:mem:product_save_all;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+
+    static final String CREATE_PRODUCTS_TABLE_SQL = "CREATE TABLE products (" +
+            "id SERIAL NOT NULL, " +
+            "name VARCHAR(255) NOT NULL, " +
+            "producer VARCHAR(255) NOT NULL, " +
+            "price DECIMAL(19, 4), " +
+            "expiration_date TIMESTAMP NOT NULL, " +
+            "creation_time TIMESTAMP NOT NULL DEFAULT now(), " +
+            "CONSTRAINT products_pk PRIMARY KEY (id))";
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute(CREATE_PRODUCTS_TABLE_SQL);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(InsertMode.class)
+    @DisplayName("saveAll() stores products in chunks and sets generated ids and creation time")
+    void saveAll(InsertMode insertMode) throws SQLException {
+        ProductDao productDao = new ProductDaoImpl(dataSource, insertMode, 7);
+        List<Product> products = products(25);
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+
+        productDao.saveAll(products);
+
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getId()).isNotNull();
+            assertThat(product.getCreationTime()).isAfter(before);
+        });
+        assertThat(products.stream().map(Product::getId).distinct().count()).isEqualTo(25);
+        assertThat(findNamesById()).isEqualTo(products.stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(InsertMode.class)
+    @DisplayName("saveAll() stores nothing when one of the products is invalid")
+    void saveAllRollsBack(InsertMode insertMode) throws SQLException {
+        ProductDao productDao = new ProductDaoImpl(dataSource, insertMode, 7);
+        List<Product> products = products(25);
+        products.get(20).setProducer(null);
+
+        assertThatExceptionOfType(DaoOperationException.class).isThrownBy(() -> productDao.saveAll(products))
+                .withMessage("Error saving products")
+                .withCauseInstanceOf(SQLException.class);
+        assertThat(findNamesById()).isEmpty();
+        assertThat(products).allSatisfy(product -> assertThat(product.getId()).isNull());
+    }
+
+    @Test
+    @DisplayName("saveAll() wraps a missing expiration date into DaoOperationException")
+    void saveAllWithoutExpirationDate() {
+        ProductDao productDao = new ProductDaoImpl(dataSource);
+        Product product = products(1).get(0);
+        product.setExpirationDate(null);
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> productDao.saveAll(List.of(product)))
+                .withMessage("Error saving products");
+    }
+
+    @Test
+    @DisplayName("Multi-row chunk cannot exceed the PostgreSQL parameter limit")
+    void multiRowChunkLimit() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new ProductDaoImpl(dataSource, InsertMode.MULTI_ROW_VALUES, 10_000));
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .name("Product " + i)
+                    .producer("Producer " + i % 10)
+                    .price(BigDecimal.valueOf(i % 100 + 1))
+                    .expirationDate(LocalDate.of(2030, 1, 1).plusDays(i % 365))
+                    .build());
+        }
+        return products;
+    }
+
+    private Map<Long, String> findNamesById() throws SQLException {
+        Map<Long, String> names = new HashMap<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, name FROM products")) {
+            while (resultSet.next()) {
+                names.put(resultSet.getLong(1), resultSet.getString(2));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bobocode;
+
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+
+class ProductDaoStreamTest {
+    private PooledDataSource dataSource;
+    private ProductDao productDao;
+
+    @BeforeEach
+    void init() throws SQLException {
+        DataSource target = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:product_stream;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+        try (Connection connection = target.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+        }
+        dataSource = JdbcUtil.createPooledDataSource(target, PoolConfig.builder().minSize(1).maxSize(1).build());
+        productDao = new ProductDaoImpl(dataSource);
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("streamAll() streams all the products")
+    void streamAll() {
+        List<Product> products = ProductDaoSaveAllTest.products(100);
+        productDao.saveAll(products);
+
+        try (Stream<Product> stream = productDao.streamAll()) {
+            List<Product> streamed = stream.collect(toList());
+
+            assertThat(streamed).containsExactlyInAnyOrderElementsOf(products);
+            assertThat(streamed).usingElementComparatorIgnoringFields("price")
+                    .containsExactlyInAnyOrderElementsOf(products);
+        }
+    }
+
+    @Test
+    @DisplayName("streamAllByProducer() streams products of the producer")
+    void streamAllByProducer() {
+        List<Product> products = ProductDaoSaveAllTest.products(100);
+        productDao.saveAll(products);
+
+        try (Stream<Product> stream = productDao.streamAllByProducer("Producer 3")) {
+            assertThat(stream.map(Product::getName).collect(toList())).hasSize(10)
+                    .allSatisfy(name -> assertThat(Integer.parseInt(name.substring(8)) % 10).isEqualTo(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Closing a partially read stream releases the connection")
+    void releasesConnectionOnClose() {
+        productDao.saveAll(ProductDaoSaveAllTest.products(100));
+
+        try (Stream<Product> stream = productDao.streamAll()) {
+            Iterator<Product> iterator = stream.iterator();
+            iterator.next();
+            assertThat(dataSource.getActiveConnections()).isEqualTo(1);
+        }
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+
+    @Test
+    @DisplayName("streamAll() handles SQLException using DaoOperationException")
+    void streamAllErrorCase() throws SQLException {
+        DataSource failingDataSource = Mockito.spy(dataSource);
+        doThrow(new SQLException("Mock testing Exception")).when(failingDataSource).getConnection();
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> new ProductDaoImpl(failingDataSource).streamAll())
+                .withMessage("Error streaming products");
+    }
+}
@@ -0,0 +1,160 @@
+package com.bobocode;
+
+import com.bobocode.dao.InsertMode;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+
+class ProductDaoUpsertTest {
+    private static final DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+            "jdbc:h2:mem:product_upsert;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+
+    private final ProductDao productDao = new ProductDaoImpl(dataSource, InsertMode.BATCH, 4);
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+        }
+    }
+
+    @Test
+    @DisplayName("upsert() inserts a product without id")
+    void upsertNewProduct() {
+        Product product = ProductDaoSaveAllTest.products(1).get(0);
+
+        productDao.upsert(product);
+
+        assertThat(product.getId()).isNotNull();
+        assertThat(product.getCreationTime()).isNotNull();
+        assertThat(productDao.findAllByIds(List.of(product.getId())).getProducts().get(product.getId()).getName())
+                .isEqualTo(product.getName());
+    }
+
+    @Test
+    @DisplayName("upsert() updates a stored product and keeps its creation time")
+    void upsertStoredProduct() {
+        Product product = ProductDaoSaveAllTest.products(1).get(0);
+        productDao.saveAll(List.of(product));
+        LocalDateTime creationTime = product.getCreationTime();
+        Product changed = Product.builder()
+                .id(product.getId())
+                .name("Updated name")
+                .producer("Updated producer")
+                .price(BigDecimal.valueOf(666))
+                .expirationDate(product.getExpirationDate().plusDays(1))
+                .build();
+
+        productDao.upsert(changed);
+
+        assertThat(changed.getCreationTime()).isEqualTo(creationTime);
+        Product stored = productDao.findAllByIds(List.of(product.getId())).getProducts().get(product.getId());
+        assertThat(stored).usingRecursiveComparison().ignoringFields("price").isEqualTo(changed);
+        assertThat(stored.getPrice()).isEqualByComparingTo("666");
+    }
+
+    @Test
+    @DisplayName("upsert() inserts a product with id that is not stored")
+    void upsertProductWithNotStoredId() {
+        Product product = ProductDaoSaveAllTest.products(1).get(0);
+        product.setId(1000L);
+
+        productDao.upsert(product);
+
+        assertThat(product.getId()).isEqualTo(1000L);
+        assertThat(product.getCreationTime()).isNotNull();
+        assertThat(productDao.findAllByIds(List.of(1000L)).getProducts()).containsOnlyKeys(1000L);
+    }
+
+    @Test
+    @DisplayName("A product saved after an upsert with a not stored id gets a greater id")
+    void saveAfterUpsertWithNotStoredId() {
+        Product upserted = ProductDaoSaveAllTest.products(1).get(0);
+        upserted.setId(1000L);
+        productDao.upsert(upserted);
+
+        Product saved = ProductDaoSaveAllTest.products(1).get(0);
+        productDao.saveAll(List.of(saved));
+
+        assertThat(saved.getId()).isGreaterThan(1000L);
+    }
+
+    @Test
+    @DisplayName("upsertAll() inserts new and updates stored products in several batches")
+    void upsertAll() {
+        List<Product> stored = ProductDaoSaveAllTest.products(10);
+        productDao.saveAll(stored);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Product product = stored.get(i);
+            products.add(Product.builder().id(product.getId()).name("Updated " + i).producer(product.getProducer())
+                    .price(product.getPrice()).expirationDate(product.getExpirationDate()).build());
+        }
+        List<Product> newProducts = ProductDaoSaveAllTest.products(7);
+        products.addAll(newProducts);
+
+        productDao.upsertAll(products);
+
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getId()).isNotNull();
+            assertThat(product.getCreationTime()).isNotNull();
+        });
+        Map<Long, Product> found = productDao.findAllByIds(products.stream().map(Product::getId).collect(toList()))
+                .getProducts();
+        assertThat(found).hasSize(17);
+        assertThat(products).allSatisfy(product -> assertThat(found.get(product.getId()).getName())
+                .isEqualTo(product.getName()));
+    }
+
+    @Test
+    @DisplayName("upsertAll() stores nothing when one of the products is invalid")
+    void upsertAllRollsBack() {
+        Product stored = ProductDaoSaveAllTest.products(1).get(0);
+        productDao.saveAll(List.of(stored));
+        Product updated = Product.builder().id(stored.getId()).name("Updated").producer(stored.getProducer())
+                .expirationDate(stored.getExpirationDate()).build();
+        Product invalid = ProductDaoSaveAllTest.products(1).get(0);
+        invalid.setProducer(null);
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> productDao.upsertAll(List.of(updated, invalid)))
+                .withMessage("Error upserting products");
+        assertThat(productDao.findAllByIds(List.of(stored.getId())).getProducts().get(stored.getId()).getName())
+                .isEqualTo(stored.getName());
+        assertThat(invalid.getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("upsert() handles SQLException using DaoOperationException")
+    void upsertErrorCase() throws SQLException {
+        DataSource failingDataSource = Mockito.spy(dataSource);
+        doThrow(new SQLException("Mock testing Exception")).when(failingDataSource).getConnection();
+        Product product = ProductDaoSaveAllTest.products(1).get(0);
+
+        assertThatExceptionOfType(DaoOperationException.class)
+                .isThrownBy(() -> new ProductDaoImpl(failingDataSource).upsert(product))
+                .withMessage(String.format("Error upserting product: %s", product));
+    }
+}
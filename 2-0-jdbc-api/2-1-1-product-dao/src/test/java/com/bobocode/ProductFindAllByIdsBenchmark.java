@@ -0,0 +1,123 @@
+package com.bobocode;
+
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PooledDataSource;
+import org.h2.tools.Server;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link ProductFindAllByIdsBenchmark} resolves 1 000 random products of a 100 000 products table in a loop of
+ * single-product queries, as callers of {@link com.bobocode.dao.ProductDao#findOne(Long)} do, in the same loop on
+ * one connection, and with
+ * {@link ProductDaoImpl#findAllByIds(java.util.Collection)}. The database is accessed through a local H2 TCP server,
+ * so every query is a network round-trip. Connections are pooled. Run it with {@code main()}.
+ */
+public class ProductFindAllByIdsBenchmark {
+    private static final int PRODUCTS = 100_000;
+    private static final int IDS = 1_000;
+    private static final int ROUNDS = 10;
+    private static final String SELECT_BY_ID_SQL = "SELECT id, name, producer, price, expiration_date, creation_time " +
+            "FROM products WHERE id = ?";
+
+    public static void main(String[] args) throws Exception {
+        Server server = Server.createTcpServer("-tcpPort", String.valueOf(findFreePort())).start();
+        PooledDataSource dataSource = JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource(
+                String.format("jdbc:h2:tcp://localhost:%d/mem:product_find_all_by_ids_benchmark;DB_CLOSE_DELAY=-1;" +
+                        "DATABASE_TO_UPPER=false;", server.getPort()), "sa", ""));
+        try {
+            run(dataSource);
+        } finally {
+            dataSource.close();
+            server.stop();
+        }
+    }
+
+    private static void run(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+            statement.execute("INSERT INTO products (name, producer, price, expiration_date) " +
+                    "SELECT 'Product ' || x, 'Producer ' || MOD(x, 10), MOD(x, 100) + 1, DATE '2030-01-01' " +
+                    "FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+        }
+        ProductDaoImpl productDao = new ProductDaoImpl(dataSource);
+        Random random = new Random(42);
+        for (int round = 1; round <= ROUNDS; round++) {
+            List<Long> ids = random.longs(IDS, 1, PRODUCTS + 1).boxed().distinct().collect(toList());
+
+            long start = System.nanoTime();
+            findOneByOne(dataSource, ids);
+            long loopMicros = elapsedMicros(start);
+
+            start = System.nanoTime();
+            findOneByOneOnConnection(dataSource, ids);
+            long connectionLoopMicros = elapsedMicros(start);
+
+            start = System.nanoTime();
+            int found = productDao.findAllByIds(ids).getProducts().size();
+            long multiGetMicros = elapsedMicros(start);
+
+            System.out.printf("round %d: %d ids, loop %,d us (%.1fx), loop on one connection %,d us (%.1fx), " +
+                            "findAllByIds %,d us%n", round, found, loopMicros, (double) loopMicros / multiGetMicros,
+                    connectionLoopMicros, (double) connectionLoopMicros / multiGetMicros, multiGetMicros);
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool for every product, as a {@code findOne()} implementation does
+     */
+    private static int findOneByOne(DataSource dataSource, List<Long> ids) throws SQLException {
+        int found = 0;
+        for (Long id : ids) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+                found += countRows(statement, id);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reuses one connection and one prepared statement, so the loop pays only for the query round-trips
+     */
+    private static int findOneByOneOnConnection(DataSource dataSource, List<Long> ids) throws SQLException {
+        int found = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+            for (Long id : ids) {
+                found += countRows(statement, id);
+            }
+        }
+        return found;
+    }
+
+    private static int countRows(PreparedStatement statement, Long id) throws SQLException {
+        statement.setLong(1, id);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? 1 : 0;
+        }
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long elapsedMicros(long start) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,101 @@
+package com.bobocode;
+
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.ProductPage;
+import com.bobocode.util.FileReader;
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link ProductPaginationBenchmark} measures the average time of reading page 1 and page 10 000 (20 products per
+ * page) of a 300 000 products table with keyset pagination of {@link ProductDao}, and page 10 000 with an
+ * {@code OFFSET} query. Every 10 products share a creation time, as products saved in one batch do, so pages by creation time go
+ * through ties.
+ * Run it with {@code main()}.
+ */
+public class ProductPaginationBenchmark {
+    private static final int PRODUCTS = 300_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGE_NUMBER = 10_000;
+    private static final int ITERATIONS = 500;
+
+    public static void main(String[] args) throws SQLException {
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:product_pagination_benchmark;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+            statement.execute(FileReader.readWholeFileFromResources(ProductDaoPageTest.PAGINATION_INDEXES_SQL_FILE));
+            statement.execute("INSERT INTO products (name, producer, price, expiration_date, creation_time) " +
+                    "SELECT 'Product ' || x, 'Producer ' || MOD(x, 10), MOD(x, 100) + 1, DATE '2030-01-01', " +
+                    "DATEADD('SECOND', x / 10, TIMESTAMP '2020-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+        }
+        ProductDao productDao = new ProductDaoImpl(dataSource);
+        long skipped = (long) (PAGE_NUMBER - 1) * PAGE_SIZE;
+        ProductPage previousById = productDao.findPage(skipped - PAGE_SIZE, PAGE_SIZE);
+        ProductPage previousByTime = findPreviousPageByCreationTime(dataSource, skipped);
+
+        for (int round = 1; round <= 3; round++) {
+            System.out.printf("round %d%n", round);
+            print("keyset by id, page 1", () -> productDao.findPage(null, PAGE_SIZE));
+            print("keyset by id, page " + PAGE_NUMBER, () -> productDao.findPage(previousById.getNextAfterId(),
+                    PAGE_SIZE));
+            print("keyset by creation time, page 1", () -> productDao.findPageByCreationTime(null, null, PAGE_SIZE));
+            print("keyset by creation time, page " + PAGE_NUMBER, () -> productDao.findPageByCreationTime(
+                    previousByTime.getNextAfterCreationTime(), previousByTime.getNextAfterId(), PAGE_SIZE));
+            print("offset, page " + PAGE_NUMBER, () -> findPageWithOffset(dataSource, skipped));
+        }
+    }
+
+    /**
+     * Builds the cursor of page 9 999 by creation time from its last product
+     */
+    private static ProductPage findPreviousPageByCreationTime(DataSource dataSource, long skipped) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT id, creation_time FROM products " +
+                     "ORDER BY creation_time, id LIMIT 1 OFFSET ?")) {
+            statement.setLong(1, skipped - 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                LocalDateTime creationTime = resultSet.getTimestamp(2).toLocalDateTime();
+                return new ProductPage(null, resultSet.getLong(1), creationTime);
+            }
+        }
+    }
+
+    private static int findPageWithOffset(DataSource dataSource, long skipped) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM products " +
+                     "ORDER BY creation_time, id LIMIT ? OFFSET ?")) {
+            statement.setInt(1, PAGE_SIZE);
+            statement.setLong(2, skipped);
+            int rows = 0;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows++;
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void print(String name, Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        long averageMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ITERATIONS;
+        System.out.printf("  %-40s %,8d us%n", name, averageMicros);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bobocode;
+
+import com.bobocode.dao.InsertMode;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import org.h2.tools.Server;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductSaveAllBenchmark} inserts 100 000 products into an in-memory H2 database one statement per product
+ * in auto-commit mode, and with {@link ProductDaoImpl#saveAll(java.util.Collection)} in both {@link InsertMode}s.
+ * The database is accessed through a local H2 TCP server, so every statement execution is a network round-trip as
+ * it is with a real database server. Every run starts with an empty table. Run it with {@code main()}.
+ */
+public class ProductSaveAllBenchmark {
+    private static final int PRODUCTS = 100_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Server server = Server.createTcpServer("-tcpPort", String.valueOf(findFreePort())).start();
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(String.format(
+                "jdbc:h2:tcp://localhost:%d/mem:product_save_all_benchmark;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;",
+                server.getPort()), "sa", "");
+        try {
+            run(dataSource);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void run(DataSource dataSource) throws SQLException {
+        for (int round = 1; round <= ROUNDS; round++) {
+            recreateTable(dataSource);
+            List<Product> products = ProductDaoSaveAllTest.products(PRODUCTS);
+            long start = System.nanoTime();
+            insertOneByOne(dataSource, products);
+            long singleMillis = elapsedMillis(start);
+
+            recreateTable(dataSource);
+            products = ProductDaoSaveAllTest.products(PRODUCTS);
+            start = System.nanoTime();
+            new ProductDaoImpl(dataSource).saveAll(products);
+            long batchMillis = elapsedMillis(start);
+
+            recreateTable(dataSource);
+            products = ProductDaoSaveAllTest.products(PRODUCTS);
+            start = System.nanoTime();
+            new ProductDaoImpl(dataSource, InsertMode.MULTI_ROW_VALUES, 500).saveAll(products);
+            long multiRowMillis = elapsedMillis(start);
+
+            System.out.printf("round %d: one by one %d ms, batch %d ms, multi-row values %d ms%n", round,
+                    singleMillis, batchMillis, multiRowMillis);
+        }
+    }
+
+    private static void insertOneByOne(DataSource dataSource, List<Product> products) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (Product product : products) {
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO products " +
+                        "(name, producer, price, expiration_date) VALUES (?, ?, ?, ?)", new String[]{"id"})) {
+                    insert.setString(1, product.getName());
+                    insert.setString(2, product.getProducer());
+                    insert.setBigDecimal(3, product.getPrice());
+                    insert.setDate(4, Date.valueOf(product.getExpirationDate()));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static void recreateTable(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute(ProductDaoSaveAllTest.CREATE_PRODUCTS_TABLE_SQL);
+        }
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,45 @@
+package com.bobocode;
+
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link ProductStreamBenchmark} streams a 5 000 000 products table with {@link ProductDao#streamAll()} and prints
+ * the number of products, the time and the heap that was used. The table is a view over {@code SYSTEM_RANGE}, so
+ * the rows are generated by the database while they are fetched instead of being stored in the heap first. Products
+ * do not fit a small heap, so streaming them with {@code -Xmx48m} shows that they are not collected in memory.
+ * Run it with {@code main()}.
+ */
+public class ProductStreamBenchmark {
+    private static final int PRODUCTS = 5_000_000;
+
+    public static void main(String[] args) throws SQLException {
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:product_stream_benchmark;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE VIEW products AS SELECT x AS id, 'Product ' || x AS name, " +
+                    "'Producer ' || MOD(x, 10) AS producer, CAST(MOD(x, 100) + 1 AS DECIMAL(19, 4)) AS price, " +
+                    "TIMESTAMP '2030-01-01 00:00:00' AS expiration_date, " +
+                    "TIMESTAMP '2020-01-01 00:00:00' AS creation_time " +
+                    "FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long start = System.nanoTime();
+        long count;
+        try (Stream<Product> products = new ProductDaoImpl(dataSource).streamAll()) {
+            count = products.count();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("Streamed %d products in %d ms, max heap %d MB, used heap %d MB%n", count, elapsedMillis,
+                runtime.maxMemory() / (1024 * 1024), (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+    }
+}
@@ -1,49 +1,43 @@
 package com.bobocode.util;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
 
 /**
- * {@link FileReader} provides an API that allow to read whole file into a {@link String} by file name.
+ * {@link FileReader} provides an API that allow to read whole file into a {@link String} by file name. Large SQL
+ * scripts should rather be executed with {@link com.bobocode.util.script.SqlScriptRunner}, that does not load the
+ * whole file.
  */
 public class FileReader {
 
     /**
-     * Returns a {@link String} that contains whole text from the file specified by name.
+     * Returns a {@link String} that contains whole text from the file specified by name. The file is read as a
+     * classpath resource stream, so it can be packaged into a JAR.
      *
      * @param fileName a name of a text file
      * @return string that holds whole file content
      */
     public static String readWholeFileFromResources(String fileName) {
-        Path filePath = createPathFromFileName(fileName);
-        try (Stream<String> fileLinesStream = openFileLinesStream(filePath)) {
-            return fileLinesStream.collect(joining("\n"));
+        try (BufferedReader reader = openResourceReader(fileName)) {
+            return reader.lines().collect(joining("\n"));
+        } catch (IOException | UncheckedIOException e) {
+            throw new FileReaderException("Cannot read file " + fileName, e);
         }
     }
 
-    private static Stream<String> openFileLinesStream(Path filePath) {
-        try {
-            return Files.lines(filePath);
-        } catch (IOException e) {
-            throw new FileReaderException("Cannot create stream of file lines!", e);
-        }
-    }
-
-    private static Path createPathFromFileName(String fileName) {
+    private static BufferedReader openResourceReader(String fileName) {
         Objects.requireNonNull(fileName);
-        URL fileUrl = FileReader.class.getClassLoader().getResource(fileName);
-        try {
-            return Paths.get(fileUrl.toURI());
-        } catch (URISyntaxException e) {
-            throw new FileReaderException("Invalid file URL",e);
+        InputStream inputStream = FileReader.class.getClassLoader().getResourceAsStream(fileName);
+        if (inputStream == null) {
+            throw new FileReaderException("File is not found: " + fileName);
         }
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,49 @@
+package com.bobocode.util;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * {@link H2FileOptions} holds MVStore settings of a file-backed H2 database created by
+ * {@link JdbcUtil#createFileH2DataSource(java.nio.file.Path, H2FileOptions)}. Settings that are not set keep H2
+ * defaults.
+ */
+@Getter
+@Builder
+public class H2FileOptions {
+    /**
+     * Size of the page cache in megabytes (H2 {@code CACHE_SIZE}). A larger cache keeps more of a big table in heap.
+     */
+    private final Integer cacheSizeMb;
+    /**
+     * Compresses MVStore pages with LZF (H2 {@code COMPRESS}). It trades CPU for disk space and I/O.
+     */
+    @Builder.Default
+    private final boolean compress = false;
+    /**
+     * Maximum delay between a commit and writing it to disk (H2 {@code WRITE_DELAY}). A longer delay speeds up
+     * many small transactions, but the last changes can be lost on a crash.
+     */
+    private final Duration writeDelay;
+
+    /**
+     * Formats the options as H2 url settings
+     *
+     * @return settings separated by {@code ;}, e.g. {@code CACHE_SIZE=65536;COMPRESS=TRUE;}
+     */
+    String toUrlSettings() {
+        StringBuilder settings = new StringBuilder();
+        if (cacheSizeMb != null) {
+            settings.append("CACHE_SIZE=").append(cacheSizeMb * 1024L).append(';');
+        }
+        if (compress) {
+            settings.append("COMPRESS=TRUE;");
+        }
+        if (writeDelay != null) {
+            settings.append("WRITE_DELAY=").append(writeDelay.toMillis()).append(';');
+        }
+        return settings.toString();
+    }
+}
@@ -1,9 +1,17 @@
 package com.bobocode.util;
 
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
 import org.h2.jdbcx.JdbcDataSource;
 import org.postgresql.ds.PGSimpleDataSource;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
 import java.util.Map;
 
 public class JdbcUtil {
@@ -29,6 +37,34 @@ public class JdbcUtil {
         return String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;DATABASE_TO_UPPER=false;", databaseName);
     }
 
+    /**
+     * Creates a data source of a file-backed H2 database with default {@link H2FileOptions}
+     *
+     * @param databasePath database file path without {@code .mv.db} extension
+     * @return H2 data source
+     */
+    public static DataSource createFileH2DataSource(Path databasePath) {
+        return createFileH2DataSource(databasePath, H2FileOptions.builder().build());
+    }
+
+    /**
+     * Creates a data source of a file-backed H2 database. Unlike an in-memory database, it can hold more data than
+     * the heap, only the page cache is kept in memory.
+     *
+     * @param databasePath database file path without {@code .mv.db} extension
+     * @param options      MVStore settings
+     * @return H2 data source
+     */
+    public static DataSource createFileH2DataSource(Path databasePath, H2FileOptions options) {
+        String url = formatH2FileDbUrl(databasePath, options);
+        return createInMemoryH2DataSource(url, DEFAULT_USERNAME, DEFAULT_PASSWORD);
+    }
+
+    static String formatH2FileDbUrl(Path databasePath, H2FileOptions options) {
+        return String.format("jdbc:h2:file:%s;DB_CLOSE_ON_EXIT=false;DATABASE_TO_UPPER=false;%s",
+                databasePath.toAbsolutePath(), options.toUrlSettings());
+    }
+
     public static DataSource createDefaultPostgresDataSource() {
         String url = formatPostgresDbUrl(DEFAULT_DATABASE_NAME);
         return createPostgresDataSource(url, DEFAULT_USERNAME, DEFAULT_PASSWORD);
@@ -46,6 +82,87 @@ public class JdbcUtil {
         return String.format("jdbc:postgresql://localhost:5432/%s", databaseName);
     }
 
+    /**
+     * Creates a connection pool with default {@link PoolConfig} on top of a given {@link DataSource}
+     *
+     * @param dataSource a target data source that opens physical connections
+     * @return pooled data source
+     */
+    public static PooledDataSource createPooledDataSource(DataSource dataSource) {
+        return createPooledDataSource(dataSource, PoolConfig.builder().build());
+    }
+
+    /**
+     * Creates a connection pool on top of a given {@link DataSource}
+     *
+     * @param dataSource a target data source that opens physical connections
+     * @param config     pool settings
+     * @return pooled data source
+     */
+    public static PooledDataSource createPooledDataSource(DataSource dataSource, PoolConfig config) {
+        return new PooledDataSource(dataSource, config);
+    }
+
+    /**
+     * Creates a connection pool for H2 or PostgreSQL database. The database is chosen by the url prefix.
+     *
+     * @param url      jdbc url of H2 or PostgreSQL database
+     * @param username database user
+     * @param pass     database password
+     * @param config   pool settings
+     * @return pooled data source
+     */
+    public static PooledDataSource createPooledDataSource(String url, String username, String pass, PoolConfig config) {
+        if (url.startsWith("jdbc:h2:")) {
+            return createPooledDataSource(createInMemoryH2DataSource(url, username, pass), config);
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            return createPooledDataSource(createPostgresDataSource(url, username, pass), config);
+        } else {
+            throw new IllegalArgumentException(String.format("Unsupported database url: %s", url));
+        }
+    }
+
+    /**
+     * Checks whether a connection is opened to PostgreSQL
+     *
+     * @param connection database connection
+     * @return {@code true} for PostgreSQL
+     * @throws SQLException if database metadata cannot be read
+     */
+    public static boolean isPostgres(Connection connection) throws SQLException {
+        return databaseProductName(connection).contains("postgres");
+    }
+
+    /**
+     * Checks whether a connection is opened to H2
+     *
+     * @param connection database connection
+     * @return {@code true} for H2
+     * @throws SQLException if database metadata cannot be read
+     */
+    public static boolean isH2(Connection connection) throws SQLException {
+        return databaseProductName(connection).equals("h2");
+    }
+
+    private static String databaseProductName(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the schema that unqualified table names of a H2 or PostgreSQL connection resolve to
+     *
+     * @param connection database connection
+     * @return current schema name
+     * @throws SQLException if the schema cannot be queried
+     */
+    public static String currentSchema(Connection connection) throws SQLException {
+        String sql = isPostgres(connection) ? "SELECT current_schema()" : "SELECT SCHEMA()";
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
     public static Map<String, String> getInMemoryDbPropertiesMap() {
         return Map.of(
                 "url", String.format("jdbc:h2:mem:%s", DEFAULT_DATABASE_NAME),
@@ -0,0 +1,54 @@
+package com.bobocode.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * {@link ThreadScopeStack} keeps the values of nested scopes opened by the current thread, the innermost one on top.
+ * A data source pushes a value when it opens a scope and returns {@link ThreadScopeStack#pop()} as the scope
+ * {@code close()} method, so the scope must be closed by the same thread. The thread-local state is removed when the
+ * outermost scope is closed.
+ *
+ * @param <T> type of the scope value
+ */
+public final class ThreadScopeStack<T> {
+    private final ThreadLocal<Deque<T>> scopes = new ThreadLocal<>();
+
+    /**
+     * Opens a scope for the current thread
+     *
+     * @param value scope value
+     */
+    public void push(T value) {
+        Deque<T> deque = scopes.get();
+        if (deque == null) {
+            deque = new ArrayDeque<>();
+            scopes.set(deque);
+        }
+        deque.push(value);
+    }
+
+    /**
+     * Closes the innermost scope of the current thread. Does nothing when the thread has no open scope.
+     */
+    public void pop() {
+        Deque<T> deque = scopes.get();
+        if (deque == null) {
+            return;
+        }
+        deque.pop();
+        if (deque.isEmpty()) {
+            scopes.remove();
+        }
+    }
+
+    /**
+     * Returns the value of the innermost scope of the current thread
+     *
+     * @return scope value, or {@code null} when the thread has no open scope
+     */
+    public T peek() {
+        Deque<T> deque = scopes.get();
+        return deque == null ? null : deque.peek();
+    }
+}
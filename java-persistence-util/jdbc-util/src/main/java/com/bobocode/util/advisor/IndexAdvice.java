@@ -0,0 +1,24 @@
+package com.bobocode.util.advisor;
+
+import lombok.Value;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * {@link IndexAdvice} is a result of {@link IndexAdvisor}, recommendations are ordered by estimated benefit
+ */
+@Value
+public class IndexAdvice {
+    List<IndexRecommendation> recommendations;
+
+    /**
+     * Joins DDL of all the recommendations into a script
+     *
+     * @return SQL script, or an empty string when there are no recommendations
+     */
+    public String toDdlScript() {
+        return recommendations.stream().map(recommendation -> recommendation.getDdl() + ";\n").collect(joining());
+    }
+}
@@ -0,0 +1,204 @@
+package com.bobocode.util.advisor;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.advisor.IndexRecommendation.Reason;
+import com.bobocode.util.metrics.StatementSnapshot;
+import lombok.Builder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link IndexAdvisor} suggests missing indexes of the current schema. It reads tables, indexes and foreign keys from
+ * {@link DatabaseMetaData} and flags
+ * <ul>
+ * <li>foreign keys that have no index starting with their columns, e.g. the second column of a composite primary key
+ * of a link table;</li>
+ * <li>captured queries that filter a table only by columns that do not lead any index.</li>
+ * </ul>
+ * The query log is a list of {@link StatementSnapshot}s, e.g. {@link com.bobocode.util.metrics.SqlMetrics#getStatements()}
+ * of an {@link com.bobocode.util.metrics.InstrumentedDataSource} that wraps DAOs during a test run.
+ * <p>
+ * The estimated benefit is based on row count estimates of the database (H2 {@code ROW_COUNT_ESTIMATE}, PostgreSQL
+ * {@code reltuples}), so it is only good for ranking recommendations. Note that H2 creates an index for every foreign
+ * key automatically, so unindexed foreign keys are found on PostgreSQL only.
+ */
+public class IndexAdvisor {
+    private static final int MAX_INDEX_NAME_LENGTH = 63;
+
+    private final DataSource dataSource;
+
+    @Builder
+    private IndexAdvisor(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source is required");
+    }
+
+    public static IndexAdvisor of(DataSource dataSource) {
+        return builder().dataSource(dataSource).build();
+    }
+
+    /**
+     * Checks foreign keys of the current schema
+     *
+     * @return index advice
+     * @throws IndexAdvisorException if the database metadata cannot be read
+     */
+    public IndexAdvice advise() {
+        return advise(List.of());
+    }
+
+    /**
+     * Checks foreign keys of the current schema and predicates of captured queries
+     *
+     * @param queryLog captured statements
+     * @return index advice
+     * @throws IndexAdvisorException if the database metadata cannot be read
+     */
+    public IndexAdvice advise(Collection<StatementSnapshot> queryLog) {
+        try (Connection connection = dataSource.getConnection()) {
+            return advise(readTables(connection), queryLog);
+        } catch (SQLException e) {
+            throw new IndexAdvisorException("Cannot read database metadata", e);
+        }
+    }
+
+    static IndexAdvice advise(Map<String, TableInfo> tables, Collection<StatementSnapshot> queryLog) {
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        for (TableInfo table : tables.values()) {
+            for (List<String> columns : table.getForeignKeys().values()) {
+                if (!table.hasIndexLeadingWith(columns)) {
+                    candidates.computeIfAbsent(key(table, columns), k -> new Candidate(table, columns))
+                            .add(Reason.UNINDEXED_FOREIGN_KEY, null, table.getEstimatedRows());
+                }
+            }
+        }
+        for (StatementSnapshot statement : queryLog) {
+            QueryPredicates.extract(statement.getSql(), tables).forEach((table, columns) -> {
+                if (columns.stream().noneMatch(table::isIndexLeadingColumn)) {
+                    candidates.computeIfAbsent(key(table, columns), k -> new Candidate(table, columns))
+                            .add(Reason.FULL_SCAN_PREDICATE, statement.getSql(),
+                                    table.getEstimatedRows() * statement.getExecutions());
+                }
+            });
+        }
+        List<IndexRecommendation> recommendations = candidates.values().stream()
+                .map(Candidate::toRecommendation)
+                .sorted(Comparator.comparingLong(IndexRecommendation::getEstimatedBenefit).reversed()
+                        .thenComparing(IndexRecommendation::getTable))
+                .collect(toList());
+        return new IndexAdvice(recommendations);
+    }
+
+    private static String key(TableInfo table, List<String> columns) {
+        return table.getName() + "(" + String.join(",", columns) + ")";
+    }
+
+    private Map<String, TableInfo> readTables(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        boolean postgres = JdbcUtil.isPostgres(connection);
+        String schema = JdbcUtil.currentSchema(connection);
+        Map<String, Long> estimatedRows = readEstimatedRows(connection, schema, postgres);
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+        List<String> tableNames = new ArrayList<>();
+        try (ResultSet resultSet = metaData.getTables(null, schema, "%", new String[]{"TABLE"})) {
+            while (resultSet.next()) {
+                tableNames.add(resultSet.getString("TABLE_NAME"));
+            }
+        }
+        for (String tableName : tableNames) {
+            TableInfo table = new TableInfo(tableName,
+                    estimatedRows.getOrDefault(TableInfo.normalize(tableName), 0L));
+            tables.put(table.getName(), table);
+        }
+        try (ResultSet resultSet = metaData.getColumns(null, schema, "%", "%")) {
+            while (resultSet.next()) {
+                TableInfo table = tables.get(TableInfo.normalize(resultSet.getString("TABLE_NAME")));
+                if (table != null) {
+                    table.addColumn(resultSet.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        for (String tableName : tableNames) {
+            TableInfo table = tables.get(TableInfo.normalize(tableName));
+            try (ResultSet resultSet = metaData.getIndexInfo(null, schema, tableName, false, true)) {
+                while (resultSet.next()) {
+                    if (resultSet.getShort("TYPE") != DatabaseMetaData.tableIndexStatistic) {
+                        table.addIndexColumn(resultSet.getString("INDEX_NAME"), resultSet.getString("COLUMN_NAME"));
+                    }
+                }
+            }
+            try (ResultSet resultSet = metaData.getImportedKeys(null, schema, tableName)) {
+                while (resultSet.next()) {
+                    table.addForeignKeyColumn(resultSet.getString("FK_NAME"), resultSet.getString("FKCOLUMN_NAME"));
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static Map<String, Long> readEstimatedRows(Connection connection, String schema, boolean postgres)
+            throws SQLException {
+        String sql = postgres
+                ? "SELECT c.relname, c.reltuples::bigint FROM pg_class c " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = ? AND c.relkind = 'r'"
+                : "SELECT TABLE_NAME, ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ?";
+        Map<String, Long> estimatedRows = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, schema);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    estimatedRows.put(TableInfo.normalize(resultSet.getString(1)), Math.max(resultSet.getLong(2), 0));
+                }
+            }
+        }
+        return estimatedRows;
+    }
+
+    private static class Candidate {
+        private final TableInfo table;
+        private final List<String> columns;
+        private final Set<Reason> reasons = EnumSet.noneOf(Reason.class);
+        private final List<String> queries = new ArrayList<>();
+        private long estimatedBenefit;
+
+        Candidate(TableInfo table, List<String> columns) {
+            this.table = table;
+            this.columns = List.copyOf(columns);
+        }
+
+        void add(Reason reason, String query, long benefit) {
+            reasons.add(reason);
+            if (query != null) {
+                queries.add(query);
+            }
+            estimatedBenefit += benefit;
+        }
+
+        IndexRecommendation toRecommendation() {
+            String indexName = "idx_" + table.getName() + "_" + String.join("_", columns);
+            if (indexName.length() > MAX_INDEX_NAME_LENGTH) {
+                indexName = indexName.substring(0, MAX_INDEX_NAME_LENGTH);
+            }
+            String ddl = String.format("CREATE INDEX %s ON %s (%s)", indexName, table.getName(),
+                    String.join(", ", columns));
+            return new IndexRecommendation(table.getName(), columns,
+                    Collections.unmodifiableSet(EnumSet.copyOf(reasons)), List.copyOf(queries), estimatedBenefit, ddl);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.bobocode.util.advisor;
+
+public class IndexAdvisorException extends RuntimeException {
+    public IndexAdvisorException(String message) {
+        super(message);
+    }
+
+    public IndexAdvisorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
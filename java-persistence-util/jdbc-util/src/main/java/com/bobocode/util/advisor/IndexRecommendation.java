@@ -0,0 +1,38 @@
+package com.bobocode.util.advisor;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link IndexRecommendation} is an index suggested by {@link IndexAdvisor} together with ready-to-apply DDL
+ */
+@Value
+public class IndexRecommendation {
+    public enum Reason {
+        /**
+         * A foreign key has no index starting with its columns, so a join from the referenced table or a delete of
+         * a referenced row scans the whole table
+         */
+        UNINDEXED_FOREIGN_KEY,
+        /**
+         * A captured query filters the table by columns that do not lead any index, so it scans the whole table
+         */
+        FULL_SCAN_PREDICATE
+    }
+
+    String table;
+    List<String> columns;
+    Set<Reason> reasons;
+    /**
+     * Captured query shapes that would use the index
+     */
+    List<String> queries;
+    /**
+     * Estimated number of row reads avoided: table rows for each captured execution of a full-scan query, plus table
+     * rows once for an unindexed foreign key (a single parent lookup)
+     */
+    long estimatedBenefit;
+    String ddl;
+}
@@ -0,0 +1,102 @@
+package com.bobocode.util.advisor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link QueryPredicates} extracts the columns compared with bind parameters in the {@code WHERE} clause of an SQL
+ * shape, grouped by table. It is a lightweight parser for the statements DAOs usually run: tables are taken from
+ * {@code FROM}, {@code JOIN} and {@code UPDATE} clauses with optional aliases, unqualified columns are resolved by
+ * table metadata. Columns that cannot be resolved unambiguously are skipped.
+ */
+class QueryPredicates {
+    private static final Pattern TABLE = Pattern.compile(
+            "(?i)\\b(?:FROM|JOIN|UPDATE)\\s+([A-Za-z_][\\w.]*)(?:\\s+(?:AS\\s+)?([A-Za-z_]\\w*))?");
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(?i)([A-Za-z_]\\w*(?:\\.[A-Za-z_]\\w*)?)\\s*(=|<=|>=|<|>|\\bLIKE\\b|\\bIN\\b|\\bBETWEEN\\b)\\s*\\(?\\s*\\?");
+    private static final Pattern WHERE = Pattern.compile("(?i)\\bWHERE\\b");
+    private static final Set<String> KEYWORDS = Set.of("where", "join", "inner", "left", "right", "full", "cross",
+            "natural", "outer", "on", "using", "set", "order", "group", "having", "limit", "offset", "fetch", "union",
+            "for", "window");
+
+    private QueryPredicates() {
+    }
+
+    /**
+     * Extracts predicate columns of a statement in the order they should appear in an index: equality columns
+     * ({@code =}, {@code IN}) in the order of appearance, followed by the first range column ({@code <}, {@code >},
+     * {@code BETWEEN}, {@code LIKE}), since an index cannot seek past a range.
+     *
+     * @param sql    SQL shape
+     * @param tables known tables by lower case name
+     * @return predicate columns by table
+     */
+    static Map<TableInfo, List<String>> extract(String sql, Map<String, TableInfo> tables) {
+        Matcher where = WHERE.matcher(sql);
+        if (!where.find()) {
+            return Map.of();
+        }
+        Map<String, TableInfo> aliases = resolveAliases(sql.substring(0, where.start()), tables);
+        if (aliases.isEmpty()) {
+            return Map.of();
+        }
+        Map<TableInfo, Set<String>> equalities = new LinkedHashMap<>();
+        Map<TableInfo, Set<String>> ranges = new LinkedHashMap<>();
+        Matcher predicate = PREDICATE.matcher(sql.substring(where.end()));
+        while (predicate.find()) {
+            String[] parts = predicate.group(1).toLowerCase(Locale.ROOT).split("\\.");
+            TableInfo table = parts.length == 2 ? aliases.get(parts[0]) : findOwner(parts[0], aliases);
+            String column = parts[parts.length - 1];
+            if (table != null && table.hasColumn(column)) {
+                String operator = predicate.group(2);
+                boolean equality = operator.equals("=") || operator.equalsIgnoreCase("IN");
+                (equality ? equalities : ranges).computeIfAbsent(table, t -> new LinkedHashSet<>()).add(column);
+            }
+        }
+        Map<TableInfo, List<String>> result = new LinkedHashMap<>();
+        equalities.forEach((table, columns) -> result.put(table, new ArrayList<>(columns)));
+        ranges.forEach((table, columns) -> {
+            List<String> tableColumns = result.computeIfAbsent(table, t -> new ArrayList<>());
+            columns.stream().filter(column -> !tableColumns.contains(column)).findFirst().ifPresent(tableColumns::add);
+        });
+        return result;
+    }
+
+    private static Map<String, TableInfo> resolveAliases(String sql, Map<String, TableInfo> tables) {
+        Map<String, TableInfo> aliases = new HashMap<>();
+        Matcher matcher = TABLE.matcher(sql);
+        while (matcher.find()) {
+            String name = matcher.group(1).toLowerCase(Locale.ROOT);
+            TableInfo table = tables.get(name.substring(name.lastIndexOf('.') + 1));
+            if (table != null) {
+                aliases.put(table.getName(), table);
+                String alias = matcher.group(2);
+                if (alias != null && !KEYWORDS.contains(alias.toLowerCase(Locale.ROOT))) {
+                    aliases.put(alias.toLowerCase(Locale.ROOT), table);
+                }
+            }
+        }
+        return aliases;
+    }
+
+    private static TableInfo findOwner(String column, Map<String, TableInfo> aliases) {
+        TableInfo owner = null;
+        for (TableInfo table : new LinkedHashSet<>(aliases.values())) {
+            if (table.hasColumn(column)) {
+                if (owner != null) {
+                    return null; // ambiguous column
+                }
+                owner = table;
+            }
+        }
+        return owner;
+    }
+}
@@ -0,0 +1,82 @@
+package com.bobocode.util.advisor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link TableInfo} holds the columns, indexes and foreign keys of a table that matter for index advice. All the names
+ * are lower case.
+ */
+class TableInfo {
+    private final String name;
+    private final long estimatedRows;
+    private final Set<String> columns = new LinkedHashSet<>();
+    private final Map<String, List<String>> indexes = new LinkedHashMap<>();
+    private final Map<String, List<String>> foreignKeys = new LinkedHashMap<>();
+
+    TableInfo(String name, long estimatedRows) {
+        this.name = normalize(name);
+        this.estimatedRows = estimatedRows;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    Map<String, List<String>> getForeignKeys() {
+        return foreignKeys;
+    }
+
+    void addColumn(String column) {
+        columns.add(normalize(column));
+    }
+
+    /**
+     * Adds a column to an index. Columns must be added in the order of their positions in the index.
+     */
+    void addIndexColumn(String index, String column) {
+        indexes.computeIfAbsent(normalize(index), i -> new ArrayList<>()).add(normalize(column));
+    }
+
+    /**
+     * Adds a column to a foreign key. Columns must be added in the order of their positions in the key.
+     */
+    void addForeignKeyColumn(String foreignKey, String column) {
+        foreignKeys.computeIfAbsent(normalize(foreignKey), k -> new ArrayList<>()).add(normalize(column));
+    }
+
+    boolean hasColumn(String column) {
+        return columns.contains(normalize(column));
+    }
+
+    /**
+     * Checks whether there is an index that starts with the given columns in any order, so it can serve a lookup by
+     * all of them
+     */
+    boolean hasIndexLeadingWith(List<String> leadingColumns) {
+        Set<String> expected = new LinkedHashSet<>(leadingColumns);
+        return indexes.values().stream()
+                .filter(index -> index.size() >= expected.size())
+                .anyMatch(index -> expected.equals(new LinkedHashSet<>(index.subList(0, expected.size()))));
+    }
+
+    /**
+     * Checks whether the column is the first column of any index
+     */
+    boolean isIndexLeadingColumn(String column) {
+        return hasIndexLeadingWith(List.of(normalize(column)));
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
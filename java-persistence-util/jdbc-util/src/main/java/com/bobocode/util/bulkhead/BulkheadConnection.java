@@ -0,0 +1,48 @@
+package com.bobocode.util.bulkhead;
+
+import com.bobocode.util.jdbc.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link BulkheadConnection} holds a permit of its {@link Compartment} and returns it when the connection is closed
+ */
+class BulkheadConnection extends DelegatingConnection {
+    private final Compartment compartment;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    BulkheadConnection(Connection delegate, Compartment compartment) {
+        super(delegate);
+        this.compartment = compartment;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                delegate.close();
+            } finally {
+                compartment.release();
+            }
+        }
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                delegate.abort(executor);
+            } finally {
+                compartment.release();
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed.get() || delegate.isClosed();
+    }
+}
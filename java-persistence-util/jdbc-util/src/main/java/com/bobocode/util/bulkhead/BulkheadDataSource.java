@@ -0,0 +1,118 @@
+package com.bobocode.util.bulkhead;
+
+import com.bobocode.util.ThreadScopeStack;
+import com.bobocode.util.jdbc.DelegatingDataSource;
+import lombok.Builder;
+import lombok.Singular;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link BulkheadDataSource} is a {@link DataSource} decorator that isolates classes of database work from each other.
+ * Every {@link WorkClass} has a compartment with a bounded number of permits, and a connection holds a permit until
+ * it is closed. When all the permits are taken, a request waits in a bounded queue up to the queue timeout; when the
+ * queue is full as well, the request is rejected immediately with {@link BulkheadRejectedException}. So a burst of
+ * batch jobs cannot take the connections that interactive requests need, and the excess fails fast instead of piling
+ * up.
+ * <p>
+ * Work is tagged with {@link BulkheadDataSource#workScope(WorkClass)} or by calling
+ * {@link BulkheadDataSource#getConnection(WorkClass)}. Untagged work is {@link WorkClass#INTERACTIVE}. A class without
+ * configured compartment gets {@link CompartmentConfig} defaults.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+    private final Map<WorkClass, Compartment> compartments = new EnumMap<>(WorkClass.class);
+    private final ThreadScopeStack<WorkClass> workScopes = new ThreadScopeStack<>();
+
+    @Builder
+    private BulkheadDataSource(DataSource targetDataSource, @Singular Map<WorkClass, CompartmentConfig> compartments) {
+        super(targetDataSource);
+        for (WorkClass workClass : WorkClass.values()) {
+            CompartmentConfig config = compartments.getOrDefault(workClass, CompartmentConfig.builder().build());
+            this.compartments.put(workClass, new Compartment(workClass, config));
+        }
+    }
+
+    /**
+     * Obtains a connection for the work class of the current {@link WorkScope}, or {@link WorkClass#INTERACTIVE}
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(currentWorkClass());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return admit(currentWorkClass(), () -> targetDataSource.getConnection(username, password));
+    }
+
+    /**
+     * Obtains a connection for a given work class
+     *
+     * @param workClass class of the work
+     * @return connection that holds a permit until it is closed
+     * @throws BulkheadRejectedException if the compartment of this class is full
+     * @throws SQLException              if the target data source fails
+     */
+    public Connection getConnection(WorkClass workClass) throws SQLException {
+        return admit(workClass, targetDataSource::getConnection);
+    }
+
+    private Connection admit(WorkClass workClass, ConnectionSupplier connectionSupplier) throws SQLException {
+        Compartment compartment = compartments.get(workClass);
+        compartment.acquire();
+        try {
+            return new BulkheadConnection(connectionSupplier.get(), compartment);
+        } catch (SQLException | RuntimeException e) {
+            compartment.release();
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Tags connections obtained by the current thread with a work class. Use it with try-with-resources.
+     *
+     * @param workClass class of the work
+     * @return scope that must be closed by the same thread
+     */
+    public WorkScope workScope(WorkClass workClass) {
+        workScopes.push(workClass);
+        return workScopes::pop;
+    }
+
+    private WorkClass currentWorkClass() {
+        WorkClass workClass = workScopes.peek();
+        return workClass == null ? WorkClass.INTERACTIVE : workClass;
+    }
+
+    /**
+     * Returns admission statistics of a work class
+     *
+     * @param workClass class of the work
+     * @return statistics snapshot
+     */
+    public CompartmentSnapshot snapshot(WorkClass workClass) {
+        return compartments.get(workClass).snapshot();
+    }
+
+    /**
+     * Returns admission statistics of all the work classes
+     *
+     * @return statistics snapshots
+     */
+    public List<CompartmentSnapshot> snapshot() {
+        return Arrays.stream(WorkClass.values()).map(this::snapshot).collect(toList());
+    }
+}
@@ -0,0 +1,20 @@
+package com.bobocode.util.bulkhead;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * {@link BulkheadRejectedException} is thrown by {@link BulkheadDataSource} when a compartment of a {@link WorkClass}
+ * cannot admit one more connection. It is transient: the same request can succeed later.
+ */
+public class BulkheadRejectedException extends SQLTransientConnectionException {
+    private final WorkClass workClass;
+
+    public BulkheadRejectedException(WorkClass workClass, String message) {
+        super(message);
+        this.workClass = workClass;
+    }
+
+    public WorkClass getWorkClass() {
+        return workClass;
+    }
+}
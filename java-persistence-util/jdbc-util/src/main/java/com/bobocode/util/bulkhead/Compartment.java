@@ -0,0 +1,93 @@
+package com.bobocode.util.bulkhead;
+
+import com.bobocode.util.metrics.LatencyHistogram;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Compartment} is a bounded permit pool with a bounded queue for one {@link WorkClass}
+ */
+class Compartment {
+    private final WorkClass workClass;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    Compartment(WorkClass workClass, CompartmentConfig config) {
+        if (config.getMaxConcurrent() < 1) {
+            throw new IllegalArgumentException("Max concurrency must be positive");
+        }
+        if (config.getMaxQueued() < 0) {
+            throw new IllegalArgumentException("Max queue size cannot be negative");
+        }
+        this.workClass = workClass;
+        this.maxConcurrent = config.getMaxConcurrent();
+        this.maxQueued = config.getMaxQueued();
+        this.queueTimeoutNanos = config.getQueueTimeout().toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    void acquire() throws SQLException {
+        if (tryAcquireWithoutWaiting()) {
+            admitted.increment();
+            queueWait.record(0);
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadRejectedException(workClass, String.format(
+                    "%s work is rejected: %d connections are in use and %d requests are queued",
+                    workClass, maxConcurrent, maxQueued));
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                timedOut.increment();
+                throw new BulkheadRejectedException(workClass, String.format(
+                        "%s work is rejected: no permit available after %d ms", workClass,
+                        TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos)));
+            }
+            admitted.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a bulkhead permit", e);
+        } finally {
+            queued.decrementAndGet();
+            queueWait.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Takes a free permit unless other requests are already queued for it. Unlike {@link Semaphore#tryAcquire()},
+     * a zero timeout respects the fairness of the semaphore, so a new request cannot overtake the queued ones.
+     */
+    private boolean tryAcquireWithoutWaiting() throws SQLException {
+        try {
+            return permits.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a bulkhead permit", e);
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    CompartmentSnapshot snapshot() {
+        return new CompartmentSnapshot(workClass, maxConcurrent, maxConcurrent - permits.availablePermits(),
+                queued.get(), admitted.sum(), rejected.sum(), timedOut.sum(), queueWait.snapshot());
+    }
+}
@@ -0,0 +1,29 @@
+package com.bobocode.util.bulkhead;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * {@link CompartmentConfig} holds admission settings of one {@link WorkClass} in a {@link BulkheadDataSource}
+ */
+@Getter
+@Builder
+public class CompartmentConfig {
+    /**
+     * Maximum number of connections that work of this class can hold at the same time
+     */
+    @Builder.Default
+    private final int maxConcurrent = 10;
+    /**
+     * Maximum number of threads that can wait for a permit. Requests above this limit are rejected immediately.
+     */
+    @Builder.Default
+    private final int maxQueued = 0;
+    /**
+     * Maximum time that a queued request waits for a permit
+     */
+    @Builder.Default
+    private final Duration queueTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,25 @@
+package com.bobocode.util.bulkhead;
+
+import com.bobocode.util.metrics.LatencySnapshot;
+import lombok.Value;
+
+/**
+ * {@link CompartmentSnapshot} is an immutable copy of admission statistics of one {@link WorkClass}
+ */
+@Value
+public class CompartmentSnapshot {
+    WorkClass workClass;
+    int maxConcurrent;
+    int active;
+    int queued;
+    long admitted;
+    /**
+     * Requests rejected immediately because the queue was full
+     */
+    long rejected;
+    /**
+     * Requests rejected after waiting in the queue for the whole timeout
+     */
+    long timedOut;
+    LatencySnapshot queueWait;
+}
@@ -0,0 +1,20 @@
+package com.bobocode.util.bulkhead;
+
+/**
+ * {@link WorkClass} tags database work for {@link BulkheadDataSource}. Every class has its own concurrency limit, so
+ * one kind of work cannot take all the connections.
+ */
+public enum WorkClass {
+    /**
+     * Short requests of users, e.g. DAO calls of a web request
+     */
+    INTERACTIVE,
+    /**
+     * Background jobs: bulk loads, purges, exports
+     */
+    BATCH,
+    /**
+     * Maintenance and administration: migrations, reports, manual fixes
+     */
+    ADMIN
+}
@@ -0,0 +1,10 @@
+package com.bobocode.util.bulkhead;
+
+/**
+ * {@link WorkScope} tags all the connections obtained by the current thread from a {@link BulkheadDataSource} with a
+ * {@link WorkClass}. Scopes can be nested, the innermost one wins.
+ */
+public interface WorkScope extends AutoCloseable {
+    @Override
+    void close();
+}
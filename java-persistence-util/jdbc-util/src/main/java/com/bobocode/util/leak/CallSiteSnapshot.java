@@ -0,0 +1,16 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.metrics.LatencySnapshot;
+import lombok.Value;
+
+/**
+ * {@link CallSiteSnapshot} is a hold-time summary of connections acquired at one call site
+ */
+@Value
+public class CallSiteSnapshot {
+    /**
+     * The first stack frame outside of JDBC and data source code, e.g. {@code com.bobocode.ProductDaoImpl.save(...)}
+     */
+    String callSite;
+    LatencySnapshot holdTime;
+}
@@ -0,0 +1,112 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.metrics.BoundedMetricsMap;
+import com.bobocode.util.metrics.LatencyHistogram;
+import com.bobocode.util.metrics.MBeanRegistration;
+
+import javax.management.ObjectName;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link ConnectionHoldMetrics} is a registry of statistics recorded by {@link LeakDetectingDataSource}: connection
+ * hold-time histograms per call site, the number of detected leaks and statements that were never closed explicitly.
+ * The number of call sites is bounded, new ones are accumulated under {@link ConnectionHoldMetrics#OTHER_CALL_SITES}.
+ */
+public class ConnectionHoldMetrics implements ConnectionHoldMetricsMXBean {
+    public static final String OTHER_CALL_SITES = "<other>";
+    public static final int DEFAULT_MAX_CALL_SITES = 500;
+    private static final String MBEAN_TYPE = "ConnectionHoldMetrics";
+
+    private final BoundedMetricsMap<LatencyHistogram> holdTimes;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder unclosedStatements = new LongAdder();
+
+    public ConnectionHoldMetrics() {
+        this(DEFAULT_MAX_CALL_SITES);
+    }
+
+    /**
+     * Creates a registry with a bounded number of call sites
+     *
+     * @param maxCallSites max number of call sites, including {@link ConnectionHoldMetrics#OTHER_CALL_SITES}
+     */
+    public ConnectionHoldMetrics(int maxCallSites) {
+        if (maxCallSites < 2) {
+            throw new IllegalArgumentException("Max number of call sites must be at least 2");
+        }
+        this.holdTimes = new BoundedMetricsMap<>(maxCallSites, OTHER_CALL_SITES, callSite -> new LatencyHistogram());
+    }
+
+    void connectionAcquired() {
+        activeConnections.incrementAndGet();
+    }
+
+    void connectionReleased(String callSite, long heldNanos, int openStatements) {
+        activeConnections.decrementAndGet();
+        holdTimes.get(callSite).record(heldNanos);
+        if (openStatements > 0) {
+            unclosedStatements.add(openStatements);
+        }
+    }
+
+    void leakDetected() {
+        leaksDetected.increment();
+    }
+
+    @Override
+    public List<CallSiteSnapshot> getCallSites() {
+        return holdTimes.entrySet().stream()
+                .map(entry -> new CallSiteSnapshot(entry.getKey(), entry.getValue().snapshot()))
+                .filter(callSite -> callSite.getHoldTime().getCount() > 0)
+                .sorted(Comparator.comparingLong((CallSiteSnapshot callSite) -> callSite.getHoldTime().getMaxNanos())
+                        .reversed())
+                .collect(toList());
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    @Override
+    public long getLeaksDetected() {
+        return leaksDetected.sum();
+    }
+
+    @Override
+    public long getUnclosedStatements() {
+        return unclosedStatements.sum();
+    }
+
+    @Override
+    public void reset() {
+        holdTimes.values().forEach(LatencyHistogram::reset);
+        leaksDetected.reset();
+        unclosedStatements.reset();
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server
+     *
+     * @param name a name that distinguishes this data source
+     * @return registered object name
+     */
+    public ObjectName registerMBean(String name) {
+        return MBeanRegistration.register(this, MBEAN_TYPE, name);
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server
+     *
+     * @param name a name that was used for registration
+     */
+    public void unregisterMBean(String name) {
+        MBeanRegistration.unregister(MBEAN_TYPE, name);
+    }
+}
@@ -0,0 +1,18 @@
+package com.bobocode.util.leak;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link ConnectionHoldMetrics}
+ */
+public interface ConnectionHoldMetricsMXBean {
+    List<CallSiteSnapshot> getCallSites();
+
+    int getActiveConnections();
+
+    long getLeaksDetected();
+
+    long getUnclosedStatements();
+
+    void reset();
+}
@@ -0,0 +1,18 @@
+package com.bobocode.util.leak;
+
+import lombok.Value;
+
+/**
+ * {@link HeldConnection} describes a connection that is currently borrowed from {@link LeakDetectingDataSource}
+ */
+@Value
+public class HeldConnection {
+    String callSite;
+    String threadName;
+    long heldNanos;
+    int openStatements;
+    /**
+     * Stack trace of the acquiring thread, or {@code null} if this acquisition was not sampled
+     */
+    StackTraceElement[] acquiredAt;
+}
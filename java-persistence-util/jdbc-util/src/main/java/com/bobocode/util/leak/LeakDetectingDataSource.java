@@ -0,0 +1,177 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.jdbc.DelegatingDataSource;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link LeakDetectingDataSource} is a {@link DataSource} decorator that tracks borrowed connections. A connection that
+ * is held longer than {@code leakThreshold} is reported once as a suspected leak, together with its call site, the
+ * number of statements that are still open and, if the acquisition was sampled, the stack trace of the acquiring thread.
+ * <p>
+ * The call site (the first stack frame outside of JDBC and data source classes) is resolved for every acquisition
+ * with a {@link StackWalker}, which is cheap. A full stack trace is expensive, so it is captured only for one of each
+ * {@code stackTraceSampling} acquisitions. When a connection is closed, its hold time is recorded into a histogram of
+ * its call site (see {@link ConnectionHoldMetrics}), and statements that were left open are counted.
+ */
+@Slf4j
+public class LeakDetectingDataSource extends DelegatingDataSource implements AutoCloseable {
+    public static final Duration DEFAULT_LEAK_THRESHOLD = Duration.ofSeconds(30);
+    public static final int DEFAULT_STACK_TRACE_SAMPLING = 16;
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final long leakThresholdNanos;
+    private final int stackTraceSampling;
+    private final ConnectionHoldMetrics metrics;
+    private final Set<TrackedConnection> heldConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final ScheduledExecutorService leakChecker;
+
+    /**
+     * Creates a leak detecting data source
+     *
+     * @param targetDataSource   data source to decorate
+     * @param leakThreshold      hold time after which a connection is reported as a suspected leak
+     * @param stackTraceSampling a full stack trace is captured for one of each N acquisitions, 0 disables it
+     * @param checkPeriod        how often held connections are checked, {@code null} disables background checks
+     * @param metrics            registry for hold-time statistics
+     */
+    @Builder
+    private LeakDetectingDataSource(DataSource targetDataSource, Duration leakThreshold, Integer stackTraceSampling,
+                                    Duration checkPeriod, ConnectionHoldMetrics metrics) {
+        super(targetDataSource);
+        this.leakThresholdNanos = (leakThreshold == null ? DEFAULT_LEAK_THRESHOLD : leakThreshold).toNanos();
+        this.stackTraceSampling = stackTraceSampling == null ? DEFAULT_STACK_TRACE_SAMPLING : stackTraceSampling;
+        if (this.stackTraceSampling < 0) {
+            throw new IllegalArgumentException("Stack trace sampling cannot be negative");
+        }
+        this.metrics = metrics == null ? new ConnectionHoldMetrics() : metrics;
+        if (checkPeriod != null) {
+            this.leakChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "leak-detecting-data-source-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = checkPeriod.toMillis();
+            leakChecker.scheduleWithFixedDelay(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.leakChecker = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(targetDataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(targetDataSource.getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        Throwable acquiredAt = isSampled() ? new Throwable("Connection acquired here") : null;
+        TrackedConnection trackedConnection = new TrackedConnection(connection, this, resolveCallSite(), acquiredAt);
+        heldConnections.add(trackedConnection);
+        metrics.connectionAcquired();
+        return trackedConnection;
+    }
+
+    private boolean isSampled() {
+        return stackTraceSampling > 0 && acquisitions.getAndIncrement() % stackTraceSampling == 0;
+    }
+
+    private static String resolveCallSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !isInfrastructure(frame.getDeclaringClass()))
+                .findFirst()
+                .map(frame -> frame.toStackTraceElement().toString())
+                .orElse("<unknown>"));
+    }
+
+    private static boolean isInfrastructure(Class<?> type) {
+        String name = type.getName();
+        return DataSource.class.isAssignableFrom(type) || Connection.class.isAssignableFrom(type)
+                || name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.");
+    }
+
+    void release(TrackedConnection connection) {
+        if (!heldConnections.remove(connection)) {
+            return;
+        }
+        long heldNanos = connection.getHeldNanos(System.nanoTime());
+        int openStatements = connection.getOpenStatements();
+        metrics.connectionReleased(connection.getCallSite(), heldNanos, openStatements);
+        if (openStatements > 0) {
+            log.debug("Connection acquired at {} was closed with {} open statements", connection.getCallSite(),
+                    openStatements);
+        }
+        if (connection.reported) {
+            log.info("Connection acquired at {} and reported as a leak was returned after {} ms",
+                    connection.getCallSite(), TimeUnit.NANOSECONDS.toMillis(heldNanos));
+        }
+    }
+
+    /**
+     * Checks all the held connections and reports those that exceeded the leak threshold. Every connection is logged
+     * only once. It runs periodically in background if {@code checkPeriod} is set, and can be called directly.
+     *
+     * @return all the connections that are currently held longer than the threshold
+     */
+    public List<HeldConnection> detectLeaks() {
+        long now = System.nanoTime();
+        List<TrackedConnection> leaks = heldConnections.stream()
+                .filter(connection -> connection.getHeldNanos(now) > leakThresholdNanos)
+                .collect(toList());
+        for (TrackedConnection leak : leaks) {
+            if (!leak.reported) {
+                leak.reported = true;
+                metrics.leakDetected();
+                log.warn("Possible connection leak: connection acquired at {} is held for {} ms with {} open statements",
+                        leak.getCallSite(), TimeUnit.NANOSECONDS.toMillis(leak.getHeldNanos(now)),
+                        leak.getOpenStatements(), leak.getAcquiredAt());
+            }
+        }
+        return leaks.stream().map(leak -> leak.snapshot(now)).collect(toList());
+    }
+
+    /**
+     * Returns all the connections that are currently borrowed from this data source
+     *
+     * @return held connections
+     */
+    public List<HeldConnection> getHeldConnections() {
+        long now = System.nanoTime();
+        return heldConnections.stream().map(connection -> connection.snapshot(now)).collect(toList());
+    }
+
+    public ConnectionHoldMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops background leak checks. Connections are not closed.
+     */
+    @Override
+    public void close() {
+        if (leakChecker != null) {
+            leakChecker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.jdbc.DelegatingCallableStatement;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link TrackedCallableStatement} decrements the open-statement count of its {@link TrackedConnection} when it is
+ * closed
+ */
+class TrackedCallableStatement extends DelegatingCallableStatement {
+    private final TrackedConnection connection;
+    private boolean closed;
+
+    TrackedCallableStatement(CallableStatement delegate, TrackedConnection connection) {
+        super(delegate, connection);
+        this.connection = connection;
+        connection.statementOpened();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            connection.statementClosed();
+        }
+        delegate.close();
+    }
+}
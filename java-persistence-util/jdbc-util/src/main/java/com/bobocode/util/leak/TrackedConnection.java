@@ -0,0 +1,160 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.jdbc.DelegatingConnection;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TrackedConnection} remembers where and when it was acquired and counts its open statements. Closing it
+ * reports the hold time to {@link LeakDetectingDataSource}.
+ */
+class TrackedConnection extends DelegatingConnection {
+    private final LeakDetectingDataSource dataSource;
+    private final String callSite;
+    private final String threadName;
+    private final Throwable acquiredAt;
+    private final long acquiredNanos;
+    private final AtomicInteger openStatements = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    volatile boolean reported;
+
+    TrackedConnection(Connection delegate, LeakDetectingDataSource dataSource, String callSite, Throwable acquiredAt) {
+        super(delegate);
+        this.dataSource = dataSource;
+        this.callSite = callSite;
+        this.acquiredAt = acquiredAt;
+        this.threadName = Thread.currentThread().getName();
+        this.acquiredNanos = System.nanoTime();
+    }
+
+    String getCallSite() {
+        return callSite;
+    }
+
+    Throwable getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    long getHeldNanos(long now) {
+        return now - acquiredNanos;
+    }
+
+    int getOpenStatements() {
+        return openStatements.get();
+    }
+
+    void statementOpened() {
+        openStatements.incrementAndGet();
+    }
+
+    void statementClosed() {
+        openStatements.decrementAndGet();
+    }
+
+    HeldConnection snapshot(long now) {
+        return new HeldConnection(callSite, threadName, getHeldNanos(now), openStatements.get(),
+                acquiredAt == null ? null : acquiredAt.getStackTrace());
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return new TrackedStatement(getDelegate().createStatement(), this);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new TrackedStatement(getDelegate().createStatement(resultSetType, resultSetConcurrency), this);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+            throws SQLException {
+        return new TrackedStatement(
+                getDelegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability), this);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return new TrackedPreparedStatement(getDelegate().prepareStatement(sql), this);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        return new TrackedPreparedStatement(getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency),
+                this);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                                              int resultSetHoldability) throws SQLException {
+        return new TrackedPreparedStatement(
+                getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), this);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return new TrackedPreparedStatement(getDelegate().prepareStatement(sql, autoGeneratedKeys), this);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return new TrackedPreparedStatement(getDelegate().prepareStatement(sql, columnIndexes), this);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return new TrackedPreparedStatement(getDelegate().prepareStatement(sql, columnNames), this);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return new TrackedCallableStatement(getDelegate().prepareCall(sql), this);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new TrackedCallableStatement(getDelegate().prepareCall(sql, resultSetType, resultSetConcurrency), this);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
+                                         int resultSetHoldability) throws SQLException {
+        return new TrackedCallableStatement(
+                getDelegate().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), this);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                delegate.close();
+            } finally {
+                dataSource.release(this);
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed.get() || delegate.isClosed();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                delegate.abort(executor);
+            } finally {
+                dataSource.release(this);
+            }
+        }
+    }
+}
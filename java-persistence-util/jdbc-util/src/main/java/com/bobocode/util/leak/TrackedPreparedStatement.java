@@ -0,0 +1,30 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.jdbc.DelegatingPreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link TrackedPreparedStatement} decrements the open-statement count of its {@link TrackedConnection} when it is
+ * closed
+ */
+class TrackedPreparedStatement extends DelegatingPreparedStatement {
+    private final TrackedConnection connection;
+    private boolean closed;
+
+    TrackedPreparedStatement(PreparedStatement delegate, TrackedConnection connection) {
+        super(delegate, connection);
+        this.connection = connection;
+        connection.statementOpened();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            connection.statementClosed();
+        }
+        delegate.close();
+    }
+}
@@ -0,0 +1,29 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.jdbc.DelegatingStatement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link TrackedStatement} decrements the open-statement count of its {@link TrackedConnection} when it is closed
+ */
+class TrackedStatement extends DelegatingStatement {
+    private final TrackedConnection connection;
+    private boolean closed;
+
+    TrackedStatement(Statement delegate, TrackedConnection connection) {
+        super(delegate, connection);
+        this.connection = connection;
+        connection.statementOpened();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            connection.statementClosed();
+        }
+        delegate.close();
+    }
+}
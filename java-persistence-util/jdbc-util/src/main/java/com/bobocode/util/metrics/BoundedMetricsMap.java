@@ -0,0 +1,61 @@
+package com.bobocode.util.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * {@link BoundedMetricsMap} is a concurrent map of metrics with a bounded number of keys. When the limit is reached,
+ * values for new keys are accumulated under a single overflow key, so the memory footprint of a registry stays fixed
+ * no matter how many distinct SQL shapes or call sites an application produces.
+ *
+ * @param <V> metrics type
+ */
+public class BoundedMetricsMap<V> {
+    private final int maxKeys;
+    private final String overflowKey;
+    private final Function<String, V> factory;
+    private final ConcurrentMap<String, V> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a bounded map
+     *
+     * @param maxKeys     max number of keys, including the overflow key
+     * @param overflowKey a key that accumulates values when the limit is reached
+     * @param factory     creates metrics for a new key
+     */
+    public BoundedMetricsMap(int maxKeys, String overflowKey, Function<String, V> factory) {
+        if (maxKeys < 2) {
+            throw new IllegalArgumentException("Max number of keys must be at least 2");
+        }
+        this.maxKeys = maxKeys;
+        this.overflowKey = overflowKey;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns metrics of a key, creating them if the limit is not reached yet
+     *
+     * @param key metrics key
+     * @return metrics of this key, or metrics of the overflow key
+     */
+    public V get(String key) {
+        V value = metrics.get(key);
+        if (value != null) {
+            return value;
+        }
+        String boundedKey = metrics.size() < maxKeys - 1 ? key : overflowKey;
+        return metrics.computeIfAbsent(boundedKey, factory);
+    }
+
+    public Collection<V> values() {
+        return metrics.values();
+    }
+
+    public Set<Map.Entry<String, V>> entrySet() {
+        return metrics.entrySet();
+    }
+}
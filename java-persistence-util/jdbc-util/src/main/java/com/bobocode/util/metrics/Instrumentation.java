@@ -0,0 +1,91 @@
+package com.bobocode.util.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link Instrumentation} is shared by all the connections and statements of an {@link InstrumentedDataSource}.
+ * It measures statement calls, records them into {@link SqlMetrics} and notifies listeners.
+ */
+@Slf4j
+class Instrumentation {
+    private final SqlMetrics metrics;
+    private final List<StatementExecutionListener> listeners = new CopyOnWriteArrayList<>();
+
+    Instrumentation(SqlMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @FunctionalInterface
+    interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    SqlMetrics getMetrics() {
+        return metrics;
+    }
+
+    void addListener(StatementExecutionListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(StatementExecutionListener listener) {
+        listeners.remove(listener);
+    }
+
+    <T> T measure(StatementMetrics statementMetrics, String sql, Supplier<List<Object>> parameters, SqlCall<T> call,
+                  ToLongFunction<T> affectedRows) throws SQLException {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (SQLException | RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            statementMetrics.recordError(elapsed);
+            notifyListeners(statementMetrics, sql, parameters, elapsed, 0, e);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        long rows = affectedRows.applyAsLong(result);
+        statementMetrics.recordExecution(elapsed, rows);
+        notifyListeners(statementMetrics, sql, parameters, elapsed, rows, null);
+        return result;
+    }
+
+    private void notifyListeners(StatementMetrics statementMetrics, String sql, Supplier<List<Object>> parameters,
+                                 long elapsed, long rows, Exception error) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        StatementExecution execution = new StatementExecution(sql, statementMetrics.getSql(), parameters.get(),
+                elapsed, rows, error);
+        for (StatementExecutionListener listener : listeners) {
+            try {
+                listener.onExecution(execution);
+            } catch (RuntimeException e) {
+                log.warn("Statement execution listener failed", e);
+            }
+        }
+    }
+
+    static long sum(int[] updateCounts) {
+        long sum = 0;
+        for (int count : updateCounts) {
+            sum += Math.max(0, count);
+        }
+        return sum;
+    }
+
+    static long sum(long[] updateCounts) {
+        long sum = 0;
+        for (long count : updateCounts) {
+            sum += Math.max(0, count);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.jdbc.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link InstrumentedConnection} wraps created statements, so their executions are recorded into {@link SqlMetrics}
+ */
+class InstrumentedConnection extends DelegatingConnection {
+    private final Instrumentation instrumentation;
+
+    InstrumentedConnection(Connection delegate, Instrumentation instrumentation) {
+        super(delegate);
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return new InstrumentedStatement(getDelegate().createStatement(), this, instrumentation);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new InstrumentedStatement(getDelegate().createStatement(resultSetType, resultSetConcurrency), this,
+                instrumentation);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+            throws SQLException {
+        return new InstrumentedStatement(
+                getDelegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability), this, instrumentation);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return instrument(getDelegate().prepareStatement(sql), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        return instrument(getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                                              int resultSetHoldability) throws SQLException {
+        return instrument(
+                getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return instrument(getDelegate().prepareStatement(sql, autoGeneratedKeys), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return instrument(getDelegate().prepareStatement(sql, columnIndexes), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return instrument(getDelegate().prepareStatement(sql, columnNames), sql);
+    }
+
+    private PreparedStatement instrument(PreparedStatement statement, String sql) {
+        return new InstrumentedPreparedStatement(statement, this, instrumentation, sql);
+    }
+}
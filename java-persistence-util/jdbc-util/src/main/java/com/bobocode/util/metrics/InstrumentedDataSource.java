@@ -0,0 +1,69 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.jdbc.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link InstrumentedDataSource} is a {@link DataSource} decorator that records statistics of every executed SQL
+ * statement (grouped by normalized SQL shape): execution count, rows returned or affected, and latency percentiles.
+ * It also records how long it takes to acquire a connection from the target data source. The statistics are available
+ * via {@link InstrumentedDataSource#snapshot()} and can be published to JMX using {@link SqlMetrics#registerMBean(String)}.
+ * Custom processing of executions (e.g. slow query logging) can be added using {@link StatementExecutionListener}.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private final Instrumentation instrumentation;
+
+    public InstrumentedDataSource(DataSource targetDataSource) {
+        this(targetDataSource, new SqlMetrics());
+    }
+
+    public InstrumentedDataSource(DataSource targetDataSource, SqlMetrics metrics) {
+        super(targetDataSource);
+        this.instrumentation = new Instrumentation(metrics);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = targetDataSource.getConnection();
+        instrumentation.getMetrics().recordConnectionAcquire(System.nanoTime() - start);
+        return new InstrumentedConnection(connection, instrumentation);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = targetDataSource.getConnection(username, password);
+        instrumentation.getMetrics().recordConnectionAcquire(System.nanoTime() - start);
+        return new InstrumentedConnection(connection, instrumentation);
+    }
+
+    public SqlMetrics getMetrics() {
+        return instrumentation.getMetrics();
+    }
+
+    /**
+     * Adds a listener that is notified after every statement execution
+     *
+     * @param listener execution listener
+     */
+    public void addListener(StatementExecutionListener listener) {
+        instrumentation.addListener(listener);
+    }
+
+    public void removeListener(StatementExecutionListener listener) {
+        instrumentation.removeListener(listener);
+    }
+
+    /**
+     * Returns a copy of the statistics recorded so far
+     *
+     * @return metrics snapshot
+     */
+    public SqlMetricsSnapshot snapshot() {
+        return instrumentation.getMetrics().snapshot();
+    }
+}
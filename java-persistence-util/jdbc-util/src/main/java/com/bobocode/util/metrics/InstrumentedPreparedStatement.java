@@ -0,0 +1,233 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.jdbc.DelegatingPreparedStatement;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link InstrumentedPreparedStatement} records every execution of a {@link PreparedStatement}. SQL shape is
+ * computed once, when the statement is prepared. Values of simple bind parameters are captured, so listeners can see
+ * them; streams and LOBs are not captured.
+ */
+class InstrumentedPreparedStatement extends DelegatingPreparedStatement {
+    private final Instrumentation instrumentation;
+    private final StatementMetrics metrics;
+    private final String sql;
+    private Object[] parameters = new Object[8];
+    private int parameterCount;
+
+    InstrumentedPreparedStatement(PreparedStatement delegate, Connection connection, Instrumentation instrumentation,
+                                  String sql) {
+        super(delegate, connection);
+        this.instrumentation = instrumentation;
+        this.sql = sql;
+        this.metrics = instrumentation.getMetrics().forShape(SqlShapes.normalize(sql));
+    }
+
+    private <T> T measure(Instrumentation.SqlCall<T> call, ToLongFunction<T> rows) throws SQLException {
+        return instrumentation.measure(metrics, sql, this::currentParameters, call, rows);
+    }
+
+    private List<Object> currentParameters() {
+        return new ArrayList<>(Arrays.asList(parameters).subList(0, parameterCount));
+    }
+
+    private void capture(int parameterIndex, Object value) {
+        if (parameterIndex < 1) {
+            return;
+        }
+        if (parameterIndex > parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(parameterIndex, parameters.length * 2));
+        }
+        parameters[parameterIndex - 1] = value;
+        parameterCount = Math.max(parameterCount, parameterIndex);
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        ResultSet resultSet = measure(() -> getDelegate().executeQuery(), rs -> -1);
+        return new InstrumentedResultSet(resultSet, this, metrics);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return measure(() -> getDelegate().executeUpdate(), Integer::longValue);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return measure(() -> getDelegate().executeLargeUpdate(), Long::longValue);
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return measure(() -> getDelegate().execute(), hasResultSet -> {
+            try {
+                return hasResultSet ? -1 : delegate.getUpdateCount();
+            } catch (SQLException e) {
+                return 0;
+            }
+        });
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet resultSet = getDelegate().getResultSet();
+        return resultSet == null ? null : new InstrumentedResultSet(resultSet, this, metrics);
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return measure(() -> getDelegate().executeBatch(), Instrumentation::sum);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return measure(() -> getDelegate().executeLargeBatch(), Instrumentation::sum);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        getDelegate().clearParameters();
+        Arrays.fill(parameters, null);
+        parameterCount = 0;
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        getDelegate().setNull(parameterIndex, sqlType);
+        capture(parameterIndex, null);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        getDelegate().setNull(parameterIndex, sqlType, typeName);
+        capture(parameterIndex, null);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        getDelegate().setBoolean(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        getDelegate().setByte(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        getDelegate().setShort(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        getDelegate().setInt(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        getDelegate().setLong(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        getDelegate().setFloat(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        getDelegate().setDouble(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        getDelegate().setBigDecimal(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        getDelegate().setString(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        getDelegate().setNString(parameterIndex, value);
+        capture(parameterIndex, value);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        getDelegate().setBytes(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        getDelegate().setDate(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        getDelegate().setTime(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        getDelegate().setTimestamp(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        getDelegate().setObject(parameterIndex, x);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        getDelegate().setObject(parameterIndex, x, targetSqlType);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        getDelegate().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        getDelegate().setObject(parameterIndex, x, targetSqlType);
+        capture(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        getDelegate().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        capture(parameterIndex, x);
+    }
+}
@@ -0,0 +1,46 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.jdbc.DelegatingResultSet;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link InstrumentedResultSet} counts rows returned by a query. The count is added to statement metrics when the
+ * result set is exhausted or closed.
+ */
+class InstrumentedResultSet extends DelegatingResultSet {
+    private final StatementMetrics metrics;
+    private long rows;
+    private boolean recorded;
+
+    InstrumentedResultSet(ResultSet delegate, Statement statement, StatementMetrics metrics) {
+        super(delegate, statement);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        boolean hasRow = getDelegate().next();
+        if (hasRow) {
+            rows++;
+        } else {
+            recordRows();
+        }
+        return hasRow;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        recordRows();
+        getDelegate().close();
+    }
+
+    private void recordRows() {
+        if (!recorded) {
+            recorded = true;
+            metrics.addRows(rows);
+        }
+    }
+}
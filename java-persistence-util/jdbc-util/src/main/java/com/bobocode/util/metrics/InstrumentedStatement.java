@@ -0,0 +1,126 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.jdbc.DelegatingStatement;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link InstrumentedStatement} records every SQL executed by a plain {@link Statement} under its normalized shape
+ */
+class InstrumentedStatement extends DelegatingStatement {
+    private final Instrumentation instrumentation;
+    private StatementMetrics lastMetrics;
+    private String batchSql;
+
+    InstrumentedStatement(Statement delegate, Connection connection, Instrumentation instrumentation) {
+        super(delegate, connection);
+        this.instrumentation = instrumentation;
+    }
+
+    private <T> T measure(String sql, Instrumentation.SqlCall<T> call, ToLongFunction<T> rows)
+            throws SQLException {
+        lastMetrics = instrumentation.getMetrics().forShape(SqlShapes.normalize(sql));
+        return instrumentation.measure(lastMetrics, sql, List::of, call, rows);
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        ResultSet resultSet = measure(sql, () -> getDelegate().executeQuery(sql), rs -> -1);
+        return new InstrumentedResultSet(resultSet, this, lastMetrics);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return measure(sql, () -> getDelegate().executeUpdate(sql), Integer::longValue);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return measure(sql, () -> getDelegate().executeUpdate(sql, autoGeneratedKeys), Integer::longValue);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return measure(sql, () -> getDelegate().executeUpdate(sql, columnIndexes), Integer::longValue);
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return measure(sql, () -> getDelegate().executeUpdate(sql, columnNames), Integer::longValue);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return measure(sql, () -> getDelegate().executeLargeUpdate(sql), Long::longValue);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return measure(sql, () -> getDelegate().execute(sql), this::updateCount);
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return measure(sql, () -> getDelegate().execute(sql, autoGeneratedKeys), this::updateCount);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return measure(sql, () -> getDelegate().execute(sql, columnIndexes), this::updateCount);
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return measure(sql, () -> getDelegate().execute(sql, columnNames), this::updateCount);
+    }
+
+    private long updateCount(boolean hasResultSet) {
+        try {
+            return hasResultSet ? -1 : delegate.getUpdateCount();
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet resultSet = getDelegate().getResultSet();
+        if (resultSet == null || lastMetrics == null) {
+            return resultSet;
+        }
+        return new InstrumentedResultSet(resultSet, this, lastMetrics);
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        getDelegate().addBatch(sql);
+        if (batchSql == null) {
+            batchSql = sql;
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        getDelegate().clearBatch();
+        batchSql = null;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        String sql = batchSql != null ? batchSql : "<empty batch>";
+        batchSql = null;
+        return measure(sql, () -> getDelegate().executeBatch(), Instrumentation::sum);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        String sql = batchSql != null ? batchSql : "<empty batch>";
+        batchSql = null;
+        return measure(sql, () -> getDelegate().executeLargeBatch(), Instrumentation::sum);
+    }
+}
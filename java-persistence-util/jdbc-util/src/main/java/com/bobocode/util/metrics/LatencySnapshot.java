@@ -0,0 +1,16 @@
+package com.bobocode.util.metrics;
+
+import lombok.Value;
+
+/**
+ * {@link LatencySnapshot} is an immutable summary of a {@link LatencyHistogram}. All the values are in nanoseconds.
+ */
+@Value
+public class LatencySnapshot {
+    long count;
+    long meanNanos;
+    long p50Nanos;
+    long p99Nanos;
+    long p999Nanos;
+    long maxNanos;
+}
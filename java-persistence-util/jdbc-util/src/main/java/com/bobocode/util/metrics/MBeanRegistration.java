@@ -0,0 +1,57 @@
+package com.bobocode.util.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * {@link MBeanRegistration} publishes metrics registries to the platform MBean server under the
+ * {@code com.bobocode.util:type=<type>,name=<name>} object name.
+ */
+public final class MBeanRegistration {
+    private static final String DOMAIN = "com.bobocode.util";
+
+    private MBeanRegistration() {
+    }
+
+    /**
+     * Registers an MBean in the platform MBean server
+     *
+     * @param mbean an object that implements an MXBean interface
+     * @param type  MBean type, e.g. {@code SqlMetrics}
+     * @param name  a name that distinguishes this data source
+     * @return registered object name
+     */
+    public static ObjectName register(Object mbean, String type, String name) {
+        try {
+            ObjectName objectName = createObjectName(type, name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Cannot register %s MBean %s", type, name), e);
+        }
+    }
+
+    /**
+     * Removes an MBean from the platform MBean server if it is registered
+     *
+     * @param type MBean type that was used for registration
+     * @param name a name that was used for registration
+     */
+    public static void unregister(String type, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = createObjectName(type, name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Cannot unregister %s MBean %s", type, name), e);
+        }
+    }
+
+    private static ObjectName createObjectName(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,97 @@
+package com.bobocode.util.metrics;
+
+import javax.management.ObjectName;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link SqlMetrics} is a registry of statistics recorded by {@link InstrumentedDataSource}. Statistics are kept per
+ * normalized SQL shape (see {@link SqlShapes}). The number of shapes is bounded: when the limit is reached, new shapes
+ * are accumulated under {@link SqlMetrics#OTHER_STATEMENTS}, so the memory footprint stays fixed.
+ */
+public class SqlMetrics implements SqlMetricsMXBean {
+    public static final String OTHER_STATEMENTS = "<other>";
+    public static final int DEFAULT_MAX_STATEMENTS = 500;
+    private static final String MBEAN_TYPE = "SqlMetrics";
+
+    private final BoundedMetricsMap<StatementMetrics> statements;
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+
+    public SqlMetrics() {
+        this(DEFAULT_MAX_STATEMENTS);
+    }
+
+    /**
+     * Creates a registry with a bounded number of SQL shapes
+     *
+     * @param maxStatements max number of shapes, including {@link SqlMetrics#OTHER_STATEMENTS}
+     */
+    public SqlMetrics(int maxStatements) {
+        if (maxStatements < 2) {
+            throw new IllegalArgumentException("Max number of statements must be at least 2");
+        }
+        this.statements = new BoundedMetricsMap<>(maxStatements, OTHER_STATEMENTS, StatementMetrics::new);
+    }
+
+    StatementMetrics forShape(String shape) {
+        return statements.get(shape);
+    }
+
+    void recordConnectionAcquire(long nanos) {
+        connectionAcquire.record(nanos);
+    }
+
+    /**
+     * Returns a copy of all the statistics
+     *
+     * @return metrics snapshot
+     */
+    public SqlMetricsSnapshot snapshot() {
+        return new SqlMetricsSnapshot(getStatements(), getConnectionAcquire());
+    }
+
+    @Override
+    public List<StatementSnapshot> getStatements() {
+        return statements.values().stream()
+                .map(StatementMetrics::snapshot)
+                .filter(statement -> statement.getExecutions() > 0)
+                .sorted(Comparator.comparingLong(SqlMetrics::totalNanos).reversed())
+                .collect(toList());
+    }
+
+    private static long totalNanos(StatementSnapshot statement) {
+        return statement.getLatency().getCount() * statement.getLatency().getMeanNanos();
+    }
+
+    @Override
+    public LatencySnapshot getConnectionAcquire() {
+        return connectionAcquire.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        statements.values().forEach(StatementMetrics::reset);
+        connectionAcquire.reset();
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server
+     *
+     * @param name a name that distinguishes this data source
+     * @return registered object name
+     */
+    public ObjectName registerMBean(String name) {
+        return MBeanRegistration.register(this, MBEAN_TYPE, name);
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server
+     *
+     * @param name a name that was used for registration
+     */
+    public void unregisterMBean(String name) {
+        MBeanRegistration.unregister(MBEAN_TYPE, name);
+    }
+}
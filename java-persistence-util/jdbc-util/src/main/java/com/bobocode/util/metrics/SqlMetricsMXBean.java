@@ -0,0 +1,14 @@
+package com.bobocode.util.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link SqlMetrics}
+ */
+public interface SqlMetricsMXBean {
+    List<StatementSnapshot> getStatements();
+
+    LatencySnapshot getConnectionAcquire();
+
+    void reset();
+}
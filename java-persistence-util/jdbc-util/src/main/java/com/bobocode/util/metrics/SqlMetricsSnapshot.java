@@ -0,0 +1,29 @@
+package com.bobocode.util.metrics;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link SqlMetricsSnapshot} is an immutable copy of {@link SqlMetrics}: per-statement statistics ordered by total
+ * execution time (the hottest statements first), and the connection acquire time.
+ */
+@Value
+public class SqlMetricsSnapshot {
+    List<StatementSnapshot> statements;
+    LatencySnapshot connectionAcquire;
+
+    /**
+     * Finds statistics by SQL. The given SQL is normalized the same way as recorded statements.
+     *
+     * @param sql SQL text or its normalized shape
+     * @return statement statistics
+     */
+    public Optional<StatementSnapshot> findStatement(String sql) {
+        String shape = SqlShapes.normalize(sql);
+        return statements.stream()
+                .filter(statement -> statement.getSql().equals(shape))
+                .findFirst();
+    }
+}
@@ -0,0 +1,97 @@
+package com.bobocode.util.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * {@link SqlShapes} normalizes SQL text into a shape that is the same for all the executions of a logical statement:
+ * literals are replaced with {@code ?}, comments are removed, whitespace is collapsed and {@code IN} lists of any
+ * length become {@code IN (?)}.
+ */
+public class SqlShapes {
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?: ?, ?\\?)*\\)");
+    private static final int MAX_SHAPE_LENGTH = 2048;
+
+    private SqlShapes() {
+    }
+
+    /**
+     * Returns a normalized shape of an SQL statement
+     *
+     * @param sql SQL text
+     * @return SQL shape
+     */
+    public static String normalize(String sql) {
+        StringBuilder shape = new StringBuilder(Math.min(sql.length(), MAX_SHAPE_LENGTH));
+        int length = sql.length();
+        int i = 0;
+        while (i < length && shape.length() < MAX_SHAPE_LENGTH) {
+            char current = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+            if (current == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                shape.append('?');
+            } else if (current == '"') {
+                int end = skipQuoted(sql, i, '"');
+                shape.append(sql, i, end);
+                i = end;
+            } else if (current == '-' && next == '-') {
+                i = skipLineComment(sql, i);
+                appendSpace(shape);
+            } else if (current == '/' && next == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                appendSpace(shape);
+            } else if (Character.isWhitespace(current)) {
+                appendSpace(shape);
+                i++;
+            } else if (Character.isDigit(current) && !isIdentifierPart(shape)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                shape.append('?');
+            } else {
+                shape.append(current);
+                i++;
+            }
+        }
+        String normalized = shape.toString().trim();
+        if (normalized.endsWith(";")) {
+            normalized = normalized.substring(0, normalized.length() - 1).trim();
+        }
+        return IN_LIST.matcher(normalized).replaceAll("IN (?)");
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    private static int skipLineComment(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    private static void appendSpace(StringBuilder shape) {
+        if (shape.length() > 0 && shape.charAt(shape.length() - 1) != ' ') {
+            shape.append(' ');
+        }
+    }
+
+    private static boolean isIdentifierPart(StringBuilder shape) {
+        if (shape.length() == 0) {
+            return false;
+        }
+        char previous = shape.charAt(shape.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+    }
+}
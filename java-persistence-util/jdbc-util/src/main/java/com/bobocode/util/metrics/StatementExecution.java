@@ -0,0 +1,34 @@
+package com.bobocode.util.metrics;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link StatementExecution} describes a single statement execution that is passed to
+ * {@link StatementExecutionListener}
+ */
+@Value
+public class StatementExecution {
+    /**
+     * SQL text as it was passed to the driver
+     */
+    String sql;
+    /**
+     * Normalized SQL shape (see {@link SqlShapes})
+     */
+    String shape;
+    /**
+     * Bind parameters of a prepared statement in the order of their indexes, or empty list for a plain statement
+     */
+    List<Object> parameters;
+    long elapsedNanos;
+    /**
+     * Number of affected rows, or {@code -1} for queries, since rows are not fetched yet
+     */
+    long rows;
+    /**
+     * An exception thrown by the driver, or {@code null} if execution succeeded
+     */
+    Exception error;
+}
@@ -0,0 +1,10 @@
+package com.bobocode.util.metrics;
+
+/**
+ * {@link StatementExecutionListener} is notified by {@link InstrumentedDataSource} after every statement execution.
+ * It is called synchronously on the executing thread, so it must be fast and should hand over any heavy work.
+ */
+@FunctionalInterface
+public interface StatementExecutionListener {
+    void onExecution(StatementExecution execution);
+}
@@ -0,0 +1,51 @@
+package com.bobocode.util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StatementMetrics} accumulates statistics of one SQL shape
+ */
+class StatementMetrics {
+    private final String sql;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    StatementMetrics(String sql) {
+        this.sql = sql;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    void recordExecution(long nanos, long affectedRows) {
+        executions.increment();
+        latency.record(nanos);
+        addRows(affectedRows);
+    }
+
+    void recordError(long nanos) {
+        executions.increment();
+        errors.increment();
+        latency.record(nanos);
+    }
+
+    void addRows(long count) {
+        if (count > 0) {
+            rows.add(count);
+        }
+    }
+
+    StatementSnapshot snapshot() {
+        return new StatementSnapshot(sql, executions.sum(), errors.sum(), rows.sum(), latency.snapshot());
+    }
+
+    void reset() {
+        executions.reset();
+        errors.reset();
+        rows.reset();
+        latency.reset();
+    }
+}
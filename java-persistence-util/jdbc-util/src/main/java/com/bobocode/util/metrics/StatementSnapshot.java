@@ -0,0 +1,18 @@
+package com.bobocode.util.metrics;
+
+import lombok.Value;
+
+/**
+ * {@link StatementSnapshot} holds statistics of all the statements that have the same normalized SQL shape
+ */
+@Value
+public class StatementSnapshot {
+    String sql;
+    long executions;
+    long errors;
+    /**
+     * Number of rows returned by queries and affected by updates
+     */
+    long rows;
+    LatencySnapshot latency;
+}
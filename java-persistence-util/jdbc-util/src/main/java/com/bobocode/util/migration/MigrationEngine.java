@@ -0,0 +1,316 @@
+package com.bobocode.util.migration;
+
+import com.bobocode.util.script.SqlScriptRunner;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link MigrationEngine} applies versioned SQL scripts from a classpath location ({@code db/migration} by default)
+ * and records them in a history table with their checksums. Scripts are named {@code V<version>__<description>.sql}
+ * and are applied in version order; other files in the location are ignored.
+ * <p>
+ * When the database is up to date, {@link MigrationEngine#migrate()} costs a single query to the history table.
+ * Otherwise the engine takes a lock (a row in a lock table), so when several nodes start at the same time only one
+ * of them applies the scripts and the others wait and find them applied. A lock that is held longer than
+ * {@code staleLockTimeout} is considered abandoned by a crashed node and is taken over, so while the scripts are applied
+ * the lock owner refreshes the lock periodically.
+ * <p>
+ * Every script runs on a single connection in one transaction together with its history record. On databases with
+ * transactional DDL (e.g. PostgreSQL) a failed script leaves neither its changes nor a history record behind. Databases
+ * that commit DDL implicitly (e.g. H2, MySQL) keep the DDL statements executed before the failure, and only the
+ * following DML and the history record are rolled back. Statements that cannot run inside a transaction block (e.g.
+ * PostgreSQL {@code CREATE INDEX CONCURRENTLY}) are not supported in scripts.
+ * <p>
+ * A script that was changed after it had been applied (its checksum does not match the history) fails the migration.
+ */
+@Slf4j
+public class MigrationEngine {
+    public static final String DEFAULT_LOCATION = "db/migration";
+    public static final String DEFAULT_HISTORY_TABLE = "schema_migration_history";
+    public static final Duration DEFAULT_LOCK_TIMEOUT = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_STALE_LOCK_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final long LOCK_RETRY_MILLIS = 50;
+    private static final int LOCK_ID = 1;
+
+    private final DataSource dataSource;
+    private final String location;
+    private final String historyTable;
+    private final String lockTable;
+    private final Duration lockTimeout;
+    private final Duration staleLockTimeout;
+    private final ClassLoader classLoader;
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean lockLost;
+
+    @Builder
+    private MigrationEngine(DataSource dataSource, String location, String historyTable, Duration lockTimeout,
+                            Duration staleLockTimeout, ClassLoader classLoader) {
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source is required");
+        this.location = location == null ? DEFAULT_LOCATION : location;
+        this.historyTable = historyTable == null ? DEFAULT_HISTORY_TABLE : historyTable;
+        if (!TABLE_NAME.matcher(this.historyTable).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid history table name: %s", historyTable));
+        }
+        this.lockTable = this.historyTable + "_lock";
+        this.lockTimeout = lockTimeout == null ? DEFAULT_LOCK_TIMEOUT : lockTimeout;
+        this.staleLockTimeout = staleLockTimeout == null ? DEFAULT_STALE_LOCK_TIMEOUT : staleLockTimeout;
+        this.classLoader = classLoader == null ? MigrationEngine.class.getClassLoader() : classLoader;
+    }
+
+    /**
+     * Creates an engine for {@code db/migration} location with default settings
+     *
+     * @param dataSource data source of the target database
+     * @return migration engine
+     */
+    public static MigrationEngine of(DataSource dataSource) {
+        return builder().dataSource(dataSource).build();
+    }
+
+    /**
+     * Applies all the scripts that are not applied yet
+     *
+     * @return migration result
+     * @throws MigrationException if a script fails, an applied script was changed, or the lock cannot be acquired
+     */
+    public MigrationResult migrate() {
+        long start = System.nanoTime();
+        List<MigrationScript> scripts = new MigrationScanner(classLoader).scan(location);
+        Map<MigrationVersion, Long> applied = readHistoryIfExists();
+        if (applied != null && findPending(scripts, applied).isEmpty()) {
+            return new MigrationResult(List.of(), applied.size(), System.nanoTime() - start);
+        }
+        try {
+            createTablesIfMissing();
+            acquireLock();
+            ScheduledExecutorService lockRefresher = startLockRefresher();
+            try {
+                applied = readHistory();
+                List<MigrationScript> pending = findPending(scripts, applied);
+                List<MigrationVersion> appliedNow = new ArrayList<>(pending.size());
+                for (MigrationScript script : pending) {
+                    checkLockHeld();
+                    apply(script);
+                    appliedNow.add(script.getVersion());
+                }
+                return new MigrationResult(appliedNow, applied.size(), System.nanoTime() - start);
+            } finally {
+                lockRefresher.shutdownNow();
+                releaseLock();
+            }
+        } catch (SQLException e) {
+            throw new MigrationException("Cannot migrate the database", e);
+        }
+    }
+
+    private List<MigrationScript> findPending(List<MigrationScript> scripts, Map<MigrationVersion, Long> applied) {
+        for (MigrationScript script : scripts) {
+            Long checksum = applied.get(script.getVersion());
+            if (checksum != null && checksum != script.getChecksum()) {
+                throw new MigrationException(String.format(
+                        "Migration %s was changed after it had been applied: checksum %d, applied checksum %d",
+                        script.getResourceName(), script.getChecksum(), checksum));
+            }
+        }
+        return scripts.stream().filter(script -> !applied.containsKey(script.getVersion())).collect(toList());
+    }
+
+    private Map<MigrationVersion, Long> readHistoryIfExists() {
+        try {
+            return readHistory();
+        } catch (SQLException e) {
+            log.debug("Migration history table {} is not available", historyTable, e);
+            return null;
+        }
+    }
+
+    private Map<MigrationVersion, Long> readHistory() throws SQLException {
+        Map<MigrationVersion, Long> applied = new HashMap<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM " + historyTable)) {
+            while (resultSet.next()) {
+                applied.put(MigrationVersion.parse(resultSet.getString("version")), resultSet.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void createTablesIfMissing() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(String.format("CREATE TABLE IF NOT EXISTS %s (" +
+                    "version VARCHAR(50) NOT NULL, " +
+                    "description VARCHAR(255) NOT NULL, " +
+                    "script VARCHAR(1000) NOT NULL, " +
+                    "checksum BIGINT NOT NULL, " +
+                    "installed_on TIMESTAMP NOT NULL, " +
+                    "execution_time_ms BIGINT NOT NULL, " +
+                    "CONSTRAINT %s_pk PRIMARY KEY (version))", historyTable, historyTable));
+            statement.execute(String.format("CREATE TABLE IF NOT EXISTS %s (" +
+                    "id INT NOT NULL, " +
+                    "locked_by VARCHAR(255) NOT NULL, " +
+                    "locked_at TIMESTAMP NOT NULL, " +
+                    "CONSTRAINT %s_pk PRIMARY KEY (id))", lockTable, lockTable));
+        } catch (SQLException e) {
+            // a concurrent node may have created the tables at the same moment
+            log.debug("Cannot create migration tables, checking whether they exist", e);
+            readHistory();
+        }
+    }
+
+    private void acquireLock() throws SQLException {
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        while (!tryLock()) {
+            if (System.nanoTime() > deadline) {
+                throw new MigrationException(String.format("Cannot acquire migration lock %s within %d ms", lockTable,
+                        lockTimeout.toMillis()));
+            }
+            removeStaleLock();
+            try {
+                TimeUnit.MILLISECONDS.sleep(LOCK_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MigrationException("Interrupted while waiting for migration lock", e);
+            }
+        }
+    }
+
+    private boolean tryLock() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(
+                String.format("INSERT INTO %s (id, locked_by, locked_at) VALUES (?, ?, ?)", lockTable))) {
+            statement.setInt(1, LOCK_ID);
+            statement.setString(2, owner);
+            statement.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                return false; // integrity constraint violation: the lock is held by another node
+            }
+            throw e;
+        }
+    }
+
+    private void removeStaleLock() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(
+                String.format("DELETE FROM %s WHERE id = ? AND locked_at < ?", lockTable))) {
+            statement.setInt(1, LOCK_ID);
+            statement.setTimestamp(2, new Timestamp(System.currentTimeMillis() - staleLockTimeout.toMillis()));
+            if (statement.executeUpdate() > 0) {
+                log.warn("Removed stale migration lock from {}", lockTable);
+            }
+        }
+    }
+
+    private ScheduledExecutorService startLockRefresher() {
+        lockLost = false;
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "migration-lock-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, staleLockTimeout.toMillis() / 3);
+        refresher.scheduleWithFixedDelay(this::refreshLock, period, period, TimeUnit.MILLISECONDS);
+        return refresher;
+    }
+
+    /**
+     * Moves {@code locked_at} forward, so other nodes do not consider a lock of a long migration stale
+     */
+    private void refreshLock() {
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(
+                String.format("UPDATE %s SET locked_at = ? WHERE id = ? AND locked_by = ?", lockTable))) {
+            statement.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            statement.setInt(2, LOCK_ID);
+            statement.setString(3, owner);
+            if (statement.executeUpdate() == 0) {
+                lockLost = true;
+                log.warn("Migration lock in {} was taken over by another node", lockTable);
+            }
+        } catch (SQLException e) {
+            log.warn("Cannot refresh migration lock in {}", lockTable, e);
+        }
+    }
+
+    private void checkLockHeld() {
+        if (lockLost) {
+            throw new MigrationException(String.format("Migration lock %s was taken over by another node", lockTable));
+        }
+    }
+
+    private void releaseLock() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(
+                String.format("DELETE FROM %s WHERE id = ? AND locked_by = ?", lockTable))) {
+            statement.setInt(1, LOCK_ID);
+            statement.setString(2, owner);
+            statement.executeUpdate();
+        }
+    }
+
+    private void apply(MigrationScript script) throws SQLException {
+        log.info("Applying migration {}", script.getResourceName());
+        long start = System.nanoTime();
+        InputStream inputStream = classLoader.getResourceAsStream(script.getResourceName());
+        if (inputStream == null) {
+            throw new MigrationException(String.format("Migration %s is not found", script.getResourceName()));
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                SqlScriptRunner.of(dataSource).run(connection, new BufferedReader(new InputStreamReader(inputStream,
+                        StandardCharsets.UTF_8)));
+                insertHistory(connection, script, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new MigrationException(String.format("Migration %s failed", script.getResourceName()), e);
+            } catch (RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void insertHistory(Connection connection, MigrationScript script, long elapsedMillis) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                String.format("INSERT INTO %s (version, description, script, checksum, installed_on, " +
+                        "execution_time_ms) VALUES (?, ?, ?, ?, ?, ?)", historyTable))) {
+            statement.setString(1, script.getVersion().toString());
+            statement.setString(2, script.getDescription());
+            statement.setString(3, script.getResourceName());
+            statement.setLong(4, script.getChecksum());
+            statement.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            statement.setLong(6, elapsedMillis);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.bobocode.util.migration;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link MigrationResult} describes a run of {@link MigrationEngine#migrate()}
+ */
+@Value
+public class MigrationResult {
+    /**
+     * Versions applied by this run, in the order of application
+     */
+    List<MigrationVersion> appliedVersions;
+    /**
+     * Number of versions that were already applied before this run
+     */
+    int previouslyApplied;
+    long elapsedNanos;
+
+    public boolean isUpToDate() {
+        return appliedVersions.isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+package com.bobocode.util.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+/**
+ * {@link MigrationScanner} finds versioned migration scripts in a classpath location, both in directories and JARs
+ */
+class MigrationScanner {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ClassLoader classLoader;
+
+    MigrationScanner(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Finds all versioned scripts in a location
+     *
+     * @param location classpath directory, e.g. {@code db/migration}
+     * @return scripts sorted by version
+     */
+    List<MigrationScript> scan(String location) {
+        Map<MigrationVersion, MigrationScript> scripts = new HashMap<>();
+        Map<MigrationVersion, URL> scriptUrls = new HashMap<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(location);
+            while (urls.hasMoreElements()) {
+                for (Map.Entry<String, URL> file : listFiles(urls.nextElement(), location).entrySet()) {
+                    String fileName = file.getKey();
+                    if (MigrationScript.isVersioned(fileName)) {
+                        add(scripts, scriptUrls, location + "/" + fileName, fileName, file.getValue());
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new MigrationException(String.format("Cannot scan migration location %s", location), e);
+        }
+        List<MigrationScript> sorted = new ArrayList<>(scripts.values());
+        sorted.sort((a, b) -> a.getVersion().compareTo(b.getVersion()));
+        return sorted;
+    }
+
+    /**
+     * Adds a script found at a URL. The same version found at another URL fails the scan even when the resource name
+     * is the same, e.g. one script copied into two classpath entries, because only one of them would be applied.
+     */
+    private static void add(Map<MigrationVersion, MigrationScript> scripts, Map<MigrationVersion, URL> scriptUrls,
+                            String resourceName, String fileName, URL url) throws IOException {
+        MigrationScript script = MigrationScript.of(fileName, resourceName, checksum(url));
+        URL duplicateUrl = scriptUrls.putIfAbsent(script.getVersion(), url);
+        if (duplicateUrl == null) {
+            scripts.put(script.getVersion(), script);
+        } else if (!duplicateUrl.toString().equals(url.toString())) {
+            throw new MigrationException(String.format("Found more than one migration with version %s: %s, %s",
+                    script.getVersion(), duplicateUrl, url));
+        }
+    }
+
+    private static Map<String, URL> listFiles(URL url, String location) throws IOException {
+        switch (url.getProtocol()) {
+            case "file":
+                return listDirectory(url);
+            case "jar":
+                return listJarEntries(url, location);
+            default:
+                throw new MigrationException(String.format("Unsupported migration location %s", url));
+        }
+    }
+
+    private static Map<String, URL> listDirectory(URL url) throws IOException {
+        Path directory;
+        try {
+            directory = Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new MigrationException(String.format("Invalid migration location %s", url), e);
+        }
+        Map<String, URL> files = new HashMap<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+            for (Path file : paths) {
+                if (Files.isRegularFile(file)) {
+                    files.put(file.getFileName().toString(), file.toUri().toURL());
+                }
+            }
+        }
+        return files;
+    }
+
+    private static Map<String, URL> listJarEntries(URL url, String location) throws IOException {
+        JarURLConnection connection = (JarURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        String prefix = location.endsWith("/") ? location : location + "/";
+        Map<String, URL> files = new HashMap<>();
+        try (JarFile jarFile = connection.getJarFile()) {
+            for (JarEntry entry : Collections.list(jarFile.entries())) {
+                String name = entry.getName();
+                if (!entry.isDirectory() && name.startsWith(prefix) && name.indexOf('/', prefix.length()) < 0) {
+                    URL entryUrl = new URL("jar:" + connection.getJarFileURL() + "!/" + name);
+                    files.put(name.substring(prefix.length()), entryUrl);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static long checksum(URL url) throws IOException {
+        CRC32 crc = new CRC32();
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        try (InputStream inputStream = connection.getInputStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
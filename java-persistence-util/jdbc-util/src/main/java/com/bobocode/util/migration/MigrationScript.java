@@ -0,0 +1,39 @@
+package com.bobocode.util.migration;
+
+import lombok.Value;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link MigrationScript} is a versioned SQL script found on the classpath. Its file name follows the pattern
+ * {@code V<version>__<description>.sql}, e.g. {@code V1_1__add_broker_index.sql}.
+ */
+@Value
+public class MigrationScript {
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+(?:[._]\\d+)*)__(\\w+)\\.sql");
+
+    MigrationVersion version;
+    String description;
+    /**
+     * Classpath resource name
+     */
+    String resourceName;
+    /**
+     * CRC32 checksum of the script content
+     */
+    long checksum;
+
+    static boolean isVersioned(String fileName) {
+        return FILE_NAME.matcher(fileName).matches();
+    }
+
+    static MigrationScript of(String fileName, String resourceName, long checksum) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(String.format("Not a versioned migration: %s", fileName));
+        }
+        return new MigrationScript(MigrationVersion.parse(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                resourceName, checksum);
+    }
+}
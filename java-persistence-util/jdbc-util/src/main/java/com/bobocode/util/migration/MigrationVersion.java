@@ -0,0 +1,54 @@
+package com.bobocode.util.migration;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * {@link MigrationVersion} is a version like {@code 1}, {@code 1.1} or {@code 2.0.3}. Versions are compared part by
+ * part numerically, so {@code 1.10} is greater than {@code 1.9}.
+ */
+@EqualsAndHashCode
+public class MigrationVersion implements Comparable<MigrationVersion> {
+    private final long[] parts;
+
+    private MigrationVersion(long[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * Parses a version, parts are separated by {@code .} or {@code _}
+     *
+     * @param version version text
+     * @return parsed version
+     */
+    public static MigrationVersion parse(String version) {
+        try {
+            long[] parts = Arrays.stream(version.split("[._]")).mapToLong(Long::parseLong).toArray();
+            if (parts.length == 0) {
+                throw new IllegalArgumentException(String.format("Invalid migration version: %s", version));
+            }
+            return new MigrationVersion(parts);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid migration version: %s", version), e);
+        }
+    }
+
+    @Override
+    public int compareTo(MigrationVersion other) {
+        for (int i = 0; i < Math.max(parts.length, other.parts.length); i++) {
+            long part = i < parts.length ? parts[i] : 0;
+            long otherPart = i < other.parts.length ? other.parts[i] : 0;
+            if (part != otherPart) {
+                return Long.compare(part, otherPart);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.stream(parts).mapToObj(Long::toString).collect(Collectors.joining("."));
+    }
+}
@@ -0,0 +1,11 @@
+package com.bobocode.util.pool;
+
+public class ConnectionPoolException extends RuntimeException {
+    public ConnectionPoolException(String message) {
+        super(message);
+    }
+
+    public ConnectionPoolException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bobocode.util.pool;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * {@link PoolConfig} holds the settings of {@link PooledDataSource}. Use {@link PoolConfig#builder()} to override
+ * default values.
+ */
+@Getter
+@Builder
+public class PoolConfig {
+    /**
+     * Number of physical connections that the pool opens on startup and keeps open even when they are idle
+     */
+    @Builder.Default
+    private final int minSize = 2;
+    /**
+     * Maximum number of physical connections (idle and in use)
+     */
+    @Builder.Default
+    private final int maxSize = 10;
+    /**
+     * Maximum time that {@link PooledDataSource#getConnection()} waits for a free connection
+     */
+    @Builder.Default
+    private final Duration connectionTimeout = Duration.ofSeconds(30);
+    /**
+     * Time after which an idle connection above {@link PoolConfig#minSize} is closed
+     */
+    @Builder.Default
+    private final Duration idleTimeout = Duration.ofMinutes(10);
+    /**
+     * Maximum time that a physical connection can live. It is closed when returned or found idle after that time.
+     */
+    @Builder.Default
+    private final Duration maxLifetime = Duration.ofMinutes(30);
+    /**
+     * Timeout of {@link java.sql.Connection#isValid(int)} check that is performed on borrow
+     */
+    @Builder.Default
+    private final Duration validationTimeout = Duration.ofSeconds(5);
+    /**
+     * A connection that was used more recently than this window is considered alive and is not validated on borrow
+     */
+    @Builder.Default
+    private final Duration validationBypassWindow = Duration.ofMillis(500);
+    /**
+     * Period of the background task that evicts idle and expired connections and refills the pool to its minimum size
+     */
+    @Builder.Default
+    private final Duration housekeepingPeriod = Duration.ofSeconds(30);
+    /**
+     * Maximum number of prepared statements cached per physical connection. Zero disables statement caching.
+     *
+     * @see com.bobocode.util.statement.StatementCachingDataSource
+     */
+    @Builder.Default
+    private final int statementCacheSize = 0;
+}
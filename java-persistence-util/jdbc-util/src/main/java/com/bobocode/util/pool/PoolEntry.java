@@ -0,0 +1,44 @@
+package com.bobocode.util.pool;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PoolEntry} holds a physical connection together with its pool bookkeeping. The state is switched using CAS, so
+ * a borrowing thread and the housekeeping task never take the same idle entry.
+ */
+class PoolEntry {
+    static final int IDLE = 0;
+    static final int IN_USE = 1;
+    static final int REMOVED = 2;
+
+    final Connection connection;
+    /**
+     * Catalog and schema of the connection when it was opened, restored when the connection returns to the pool
+     */
+    final String initialCatalog;
+    final String initialSchema;
+    final long createdAt;
+    volatile long lastAccessedAt;
+    private final AtomicInteger state = new AtomicInteger(IN_USE);
+
+    PoolEntry(Connection connection, String initialCatalog, String initialSchema, long now) {
+        this.connection = connection;
+        this.initialCatalog = initialCatalog;
+        this.initialSchema = initialSchema;
+        this.createdAt = now;
+        this.lastAccessedAt = now;
+    }
+
+    boolean compareAndSetState(int expected, int newState) {
+        return state.compareAndSet(expected, newState);
+    }
+
+    void setState(int newState) {
+        state.set(newState);
+    }
+
+    int getState() {
+        return state.get();
+    }
+}
@@ -0,0 +1,219 @@
+package com.bobocode.util.pool;
+
+import com.bobocode.util.jdbc.DelegatingConnection;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link PooledConnection} is a logical connection handed out by {@link PooledDataSource}. Closing it returns the
+ * physical connection back to the pool instead of closing it. The connection state that was changed by the caller
+ * (auto-commit, read-only, transaction isolation, catalog, schema) is reset before the physical connection is reused, and the
+ * statements that the caller left open are closed together with their result sets.
+ */
+class PooledConnection extends DelegatingConnection {
+    private static final int PRUNE_THRESHOLD = 64;
+
+    private final PoolEntry entry;
+    private final PooledDataSource pool;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Statement> openStatements = new ArrayList<>();
+    private Boolean originalAutoCommit;
+    private Boolean originalReadOnly;
+    private Integer originalTransactionIsolation;
+
+    PooledConnection(PoolEntry entry, PooledDataSource pool) {
+        super(entry.connection);
+        this.entry = entry;
+        this.pool = pool;
+    }
+
+    @Override
+    protected Connection getDelegate() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection is closed");
+        }
+        return delegate;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return track(getDelegate().createStatement());
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return track(getDelegate().createStatement(resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+            throws SQLException {
+        return track(getDelegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return track(getDelegate().prepareStatement(sql));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        return track(getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                                              int resultSetHoldability) throws SQLException {
+        return track(getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return track(getDelegate().prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return track(getDelegate().prepareStatement(sql, columnIndexes));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return track(getDelegate().prepareStatement(sql, columnNames));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return track(getDelegate().prepareCall(sql));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return track(getDelegate().prepareCall(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
+                                         int resultSetHoldability) throws SQLException {
+        return track(getDelegate().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    /**
+     * Remembers a statement so it can be closed when the connection returns to the pool. Statements that were
+     * already closed by the caller are dropped from time to time, so a long-lived connection does not hold them all.
+     */
+    private <T extends Statement> T track(T statement) throws SQLException {
+        if (openStatements.size() >= PRUNE_THRESHOLD) {
+            Iterator<Statement> iterator = openStatements.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isClosed()) {
+                    iterator.remove();
+                }
+            }
+        }
+        openStatements.add(statement);
+        return statement;
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (originalAutoCommit == null) {
+            originalAutoCommit = getDelegate().getAutoCommit();
+        }
+        getDelegate().setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        if (originalReadOnly == null) {
+            originalReadOnly = getDelegate().isReadOnly();
+        }
+        getDelegate().setReadOnly(readOnly);
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        if (originalTransactionIsolation == null) {
+            originalTransactionIsolation = getDelegate().getTransactionIsolation();
+        }
+        getDelegate().setTransactionIsolation(level);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            pool.release(entry, this);
+        }
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        if (closed.compareAndSet(false, true)) {
+            pool.retire(entry, true);
+        }
+    }
+
+    /**
+     * Closes the statements left open by the caller, rolls back an unfinished transaction and restores the state
+     * that was changed by the caller
+     *
+     * @throws SQLException if the physical connection is broken
+     */
+    void resetState() throws SQLException {
+        closeOpenStatements();
+        if (!delegate.getAutoCommit()) {
+            delegate.rollback();
+        }
+        if (originalAutoCommit != null) {
+            delegate.setAutoCommit(originalAutoCommit);
+        }
+        if (originalReadOnly != null) {
+            delegate.setReadOnly(originalReadOnly);
+        }
+        if (originalTransactionIsolation != null) {
+            delegate.setTransactionIsolation(originalTransactionIsolation);
+        }
+        // catalog and schema can be switched with plain SQL (SET SCHEMA), so they are compared with the driver state
+        if (entry.initialCatalog != null && !entry.initialCatalog.equals(delegate.getCatalog())) {
+            delegate.setCatalog(entry.initialCatalog);
+        }
+        if (entry.initialSchema != null && !entry.initialSchema.equals(delegate.getSchema())) {
+            delegate.setSchema(entry.initialSchema);
+        }
+        delegate.clearWarnings();
+    }
+
+    private void closeOpenStatements() throws SQLException {
+        SQLException error = null;
+        for (Statement statement : openStatements) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        openStatements.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.bobocode.util.pool;
+
+import com.bobocode.util.statement.StatementCachingDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * {@link PooledDataSource} is a {@link DataSource} that keeps a pool of physical connections opened by a target
+ * {@link DataSource} and reuses them, so {@link DataSource#getConnection()} does not pay a connection handshake each time.
+ * <p>
+ * The borrow path does not use {@code synchronized}: idle connections are stored in a lock-free deque, and the maximum
+ * pool size is enforced by a fair {@link Semaphore}, so waiting threads are parked instead of blocking a monitor.
+ * Idle connections are reused in LIFO order to keep the most recently used (warm) connections busy. A background task
+ * closes connections that are idle for too long (above {@link PoolConfig#getMinSize()}) or exceeded their max lifetime,
+ * and refills the pool up to its minimum size. Optionally, prepared statements are cached per physical connection
+ * (see {@link PoolConfig#getStatementCacheSize()}).
+ * <p>
+ * Initial connections are opened in parallel. Call {@link PooledDataSource#warmUp(Collection)} on startup to validate
+ * them and prepare hot statements before the first requests come; {@link PooledDataSource#isReady()} tells whether the
+ * warm-up succeeded.
+ */
+@Slf4j
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private final DataSource targetDataSource;
+    private final PoolConfig config;
+    private final Deque<PoolEntry> idleEntries = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private volatile boolean ready;
+
+    public PooledDataSource(DataSource targetDataSource, PoolConfig config) {
+        Objects.requireNonNull(targetDataSource);
+        this.config = Objects.requireNonNull(config);
+        verifyConfig(config);
+        this.targetDataSource = config.getStatementCacheSize() > 0
+                ? new StatementCachingDataSource(targetDataSource, config.getStatementCacheSize())
+                : targetDataSource;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        fillToMinSize();
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pooled-data-source-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.getHousekeepingPeriod().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::runHousekeeping, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private static void verifyConfig(PoolConfig config) {
+        if (config.getMaxSize() < 1) {
+            throw new IllegalArgumentException("Pool max size must be positive");
+        }
+        if (config.getMinSize() < 0 || config.getMinSize() > config.getMaxSize()) {
+            throw new IllegalArgumentException("Pool min size must be between 0 and max size");
+        }
+        if (config.getStatementCacheSize() < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative");
+        }
+    }
+
+    private void fillToMinSize() {
+        try {
+            openInitialConnections();
+        } catch (SQLException e) {
+            close();
+            throw new ConnectionPoolException("Cannot open initial pool connections", e);
+        }
+    }
+
+    private void openInitialConnections() throws SQLException {
+        int minSize = config.getMinSize();
+        if (minSize <= 1) {
+            addIdleConnectionsUpToMinSize();
+            return;
+        }
+        ExecutorService executor = newDaemonExecutor(minSize, "pooled-data-source-opener");
+        try {
+            List<Future<PoolEntry>> entries = new ArrayList<>(minSize);
+            for (int i = 0; i < minSize; i++) {
+                entries.add(executor.submit(this::openEntry));
+            }
+            SQLException failure = null;
+            for (Future<PoolEntry> future : entries) {
+                try {
+                    PoolEntry entry = future.get();
+                    entry.setState(PoolEntry.IDLE);
+                    idleEntries.offerLast(entry);
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof SQLException ? (SQLException) e.getCause()
+                            : new SQLException("Cannot open a connection", e.getCause());
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while opening initial connections", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newDaemonExecutor(int threads, String threadName) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Warms up the pool: borrows min size connections (at least one) at the same time, so every physical connection is
+     * used, validates them and prepares each of the hot statements on each of them. It makes sense with statement
+     * caching enabled (see {@link PoolConfig#getStatementCacheSize()}), otherwise prepared statements only warm up the
+     * driver and the database. Statements that fail to prepare are reported, but do not stop the warm-up.
+     *
+     * @param hotStatements SQL of the statements that are executed most often
+     * @return warm-up report
+     */
+    public WarmUpReport warmUp(Collection<String> hotStatements) {
+        long start = System.nanoTime();
+        int connections = Math.max(1, config.getMinSize());
+        CountDownLatch allBorrowed = new CountDownLatch(connections);
+        AtomicInteger validConnections = new AtomicInteger();
+        LongAdder preparedStatements = new LongAdder();
+        Set<String> failedStatements = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = newDaemonExecutor(connections, "pooled-data-source-warm-up");
+        List<Future<?>> tasks = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            tasks.add(executor.submit(() -> {
+                boolean borrowed = false;
+                try (Connection connection = getConnection()) {
+                    allBorrowed.countDown();
+                    borrowed = true;
+                    if (connection.isValid((int) Math.max(1, config.getValidationTimeout().toSeconds()))) {
+                        validConnections.incrementAndGet();
+                    }
+                    for (String sql : hotStatements) {
+                        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                            preparedStatements.increment();
+                        } catch (SQLException e) {
+                            log.warn("Cannot prepare hot statement during warm-up: {}", sql, e);
+                            failedStatements.add(sql);
+                        }
+                    }
+                    allBorrowed.await(config.getConnectionTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                } catch (SQLException e) {
+                    log.warn("Cannot borrow a connection during warm-up", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (!borrowed) {
+                        allBorrowed.countDown();
+                    }
+                }
+            }));
+        }
+        awaitAll(tasks);
+        executor.shutdown();
+        WarmUpReport report = new WarmUpReport(connections, validConnections.get(), preparedStatements.intValue(),
+                List.copyOf(failedStatements), System.nanoTime() - start);
+        ready = report.isReady();
+        log.info("Pool warm-up finished in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()),
+                report);
+        return report;
+    }
+
+    private static void awaitAll(List<Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.warn("Warm-up task failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the last {@link PooledDataSource#warmUp(Collection)} succeeded
+     *
+     * @return readiness flag
+     */
+    public boolean isReady() {
+        return ready && !closed;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool is closed");
+        }
+        acquirePermit();
+        try {
+            return new PooledConnection(takeEntry(), this);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        long timeoutMillis = config.getConnectionTimeout().toMillis();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                        "Connection is not available, request timed out after %d ms", timeoutMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private PoolEntry takeEntry() throws SQLException {
+        PoolEntry entry;
+        while ((entry = idleEntries.pollFirst()) != null) {
+            if (!entry.compareAndSetState(PoolEntry.IDLE, PoolEntry.IN_USE)) {
+                continue; // taken by the housekeeping task
+            }
+            long now = System.nanoTime();
+            if (isExpired(entry, now)) {
+                retire(entry, false);
+            } else if (needsValidation(entry, now) && !isValid(entry)) {
+                retire(entry, false);
+            } else {
+                entry.lastAccessedAt = now;
+                return entry;
+            }
+        }
+        return openEntry();
+    }
+
+    private PoolEntry openEntry() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            return newEntry();
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private PoolEntry newEntry() throws SQLException {
+        Connection connection = targetDataSource.getConnection();
+        try {
+            return new PoolEntry(connection, connection.getCatalog(), connection.getSchema(), System.nanoTime());
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    private boolean isExpired(PoolEntry entry, long now) {
+        return now - entry.createdAt > config.getMaxLifetime().toNanos();
+    }
+
+    private boolean needsValidation(PoolEntry entry, long now) {
+        return now - entry.lastAccessedAt > config.getValidationBypassWindow().toNanos();
+    }
+
+    private boolean isValid(PoolEntry entry) {
+        try {
+            return entry.connection.isValid((int) Math.max(1, config.getValidationTimeout().toSeconds()));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void release(PoolEntry entry, PooledConnection pooledConnection) {
+        try {
+            pooledConnection.resetState();
+        } catch (SQLException e) {
+            log.warn("Closing broken pooled connection", e);
+            retire(entry, true);
+            return;
+        }
+        long now = System.nanoTime();
+        if (closed || isExpired(entry, now)) {
+            retire(entry, true);
+        } else {
+            entry.lastAccessedAt = now;
+            entry.setState(PoolEntry.IDLE);
+            idleEntries.offerFirst(entry);
+            permits.release();
+        }
+    }
+
+    void retire(PoolEntry entry, boolean releasePermit) {
+        entry.setState(PoolEntry.REMOVED);
+        totalConnections.decrementAndGet();
+        closeQuietly(entry.connection);
+        if (releasePermit) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections that exceeded their idle timeout or max lifetime and opens new ones up to min size.
+     * It runs periodically in background, and can be called directly to force eviction.
+     */
+    void runHousekeeping() {
+        long now = System.nanoTime();
+        for (PoolEntry entry : idleEntries) {
+            boolean idleTooLong = now - entry.lastAccessedAt > config.getIdleTimeout().toNanos()
+                    && totalConnections.get() > config.getMinSize();
+            if ((idleTooLong || isExpired(entry, now)) && entry.compareAndSetState(PoolEntry.IDLE, PoolEntry.REMOVED)) {
+                idleEntries.remove(entry);
+                totalConnections.decrementAndGet();
+                closeQuietly(entry.connection);
+            }
+        }
+        try {
+            addIdleConnectionsUpToMinSize();
+        } catch (SQLException e) {
+            log.warn("Cannot refill the pool up to its min size", e);
+        }
+    }
+
+    private void addIdleConnectionsUpToMinSize() throws SQLException {
+        int total;
+        while (!closed && (total = totalConnections.get()) < config.getMinSize()) {
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                PoolEntry entry;
+                try {
+                    entry = newEntry();
+                } catch (SQLException | RuntimeException e) {
+                    totalConnections.decrementAndGet();
+                    throw e;
+                }
+                entry.setState(PoolEntry.IDLE);
+                idleEntries.offerLast(entry);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Cannot close physical connection", e);
+        }
+    }
+
+    /**
+     * Returns the number of physical connections that are currently open (idle and in use)
+     *
+     * @return total number of connections
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Returns the number of physical connections that are waiting in the pool
+     *
+     * @return number of idle connections
+     */
+    public int getIdleConnections() {
+        return idleEntries.size();
+    }
+
+    /**
+     * Returns the number of connections that are currently borrowed
+     *
+     * @return number of connections in use
+     */
+    public int getActiveConnections() {
+        return config.getMaxSize() - permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of threads that are waiting for a connection
+     *
+     * @return number of waiting threads
+     */
+    public int getPendingThreads() {
+        return permits.getQueueLength();
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes all the idle connections and stops background housekeeping. Connections that are currently in use are
+     * closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        PoolEntry entry;
+        while ((entry = idleEntries.pollFirst()) != null) {
+            if (entry.compareAndSetState(PoolEntry.IDLE, PoolEntry.REMOVED)) {
+                totalConnections.decrementAndGet();
+                closeQuietly(entry.connection);
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use credentials of the target DataSource");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targetDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targetDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targetDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targetDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targetDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,35 @@
+package com.bobocode.util.pool;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link WarmUpReport} is the result of {@link PooledDataSource#warmUp(java.util.Collection)}
+ */
+@Value
+public class WarmUpReport {
+    /**
+     * Number of connections that were borrowed at the same time and warmed up
+     */
+    int connections;
+    int validConnections;
+    /**
+     * Number of successfully prepared statements summed over all the connections
+     */
+    int preparedStatements;
+    /**
+     * Hot statements that could not be prepared
+     */
+    List<String> failedStatements;
+    long elapsedNanos;
+
+    /**
+     * Returns {@code true} if all the connections are valid and all the hot statements are prepared
+     *
+     * @return readiness flag
+     */
+    public boolean isReady() {
+        return validConnections == connections && failedStatements.isEmpty();
+    }
+}
@@ -0,0 +1,15 @@
+package com.bobocode.util.routing;
+
+/**
+ * A strategy that {@link ReadWriteRoutingDataSource} uses to choose a replica for a read-only connection
+ */
+public enum LoadBalancing {
+    /**
+     * Replicas are used one after another
+     */
+    ROUND_ROBIN,
+    /**
+     * A replica with the smallest number of open connections is used
+     */
+    LEAST_IN_FLIGHT
+}
@@ -0,0 +1,10 @@
+package com.bobocode.util.routing;
+
+/**
+ * {@link ReadScope} marks the current thread as read-only for a {@link ReadWriteRoutingDataSource}. All the
+ * connections obtained by this thread inside the scope are routed to replicas. Scopes can be nested.
+ */
+public interface ReadScope extends AutoCloseable {
+    @Override
+    void close();
+}
@@ -0,0 +1,251 @@
+package com.bobocode.util.routing;
+
+import com.bobocode.util.ThreadScopeStack;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * {@link ReadWriteRoutingDataSource} is a {@link DataSource} that sends read-only work to replica databases and all
+ * the other work to the primary database. A connection is read-only when {@link Connection#setReadOnly(boolean)} is
+ * called before it is used, or when it is obtained inside a {@link ReadWriteRoutingDataSource#readScope()}. The target
+ * connection is opened lazily, on the first statement.
+ * <p>
+ * Replicas are chosen by {@link LoadBalancing} strategy. When a replica cannot open a connection the next one is tried,
+ * and finally the primary. If {@code readYourWritesWindow} is set, reads of a thread that has used a writable
+ * connection within that window are sent to the primary, so the thread sees its own writes despite replication lag.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource implements DataSource {
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final LoadBalancing loadBalancing;
+    private final long readYourWritesWindowNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicIntegerArray inFlight;
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final ThreadLocal<Long> lastWriteTime = new ThreadLocal<>();
+    private final ThreadScopeStack<Boolean> readScopes = new ThreadScopeStack<>();
+
+    @Builder
+    private ReadWriteRoutingDataSource(DataSource primary, @Singular List<DataSource> replicas,
+                                       LoadBalancing loadBalancing, Duration readYourWritesWindow) {
+        this.primary = Objects.requireNonNull(primary, "Primary data source is required");
+        this.replicas = List.copyOf(replicas);
+        this.loadBalancing = loadBalancing == null ? LoadBalancing.ROUND_ROBIN : loadBalancing;
+        this.readYourWritesWindowNanos = readYourWritesWindow == null ? 0 : readYourWritesWindow.toNanos();
+        this.inFlight = new AtomicIntegerArray(this.replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() {
+        return new RoutingConnection(this, readScopes.peek() != null);
+    }
+
+    /**
+     * Opens a read scope for the current thread. Use it with try-with-resources.
+     *
+     * @return scope that must be closed by the same thread
+     */
+    public ReadScope readScope() {
+        readScopes.push(Boolean.TRUE);
+        return readScopes::pop;
+    }
+
+    Route route(boolean readOnly) {
+        if (!readOnly) {
+            return new PrimaryRoute(true);
+        }
+        if (replicas.isEmpty() || isWithinReadYourWritesWindow()) {
+            return new PrimaryRoute(false);
+        }
+        return new ReplicaRoute(chooseReplica());
+    }
+
+    private boolean isWithinReadYourWritesWindow() {
+        Long writeTime = lastWriteTime.get();
+        return writeTime != null && System.nanoTime() - writeTime < readYourWritesWindowNanos;
+    }
+
+    private void recordWrite() {
+        if (readYourWritesWindowNanos > 0) {
+            lastWriteTime.set(System.nanoTime());
+        }
+    }
+
+    private int chooseReplica() {
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        if (loadBalancing == LoadBalancing.ROUND_ROBIN) {
+            return start;
+        }
+        int chosen = start;
+        for (int i = 1; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (inFlight.get(candidate) < inFlight.get(chosen)) {
+                chosen = candidate;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Returns the number of open connections to a replica
+     *
+     * @param replicaIndex index of the replica in the order it was added to the builder
+     * @return number of open connections
+     */
+    public int getInFlightCount(int replicaIndex) {
+        return inFlight.get(replicaIndex);
+    }
+
+    /**
+     * Returns the number of read-only connections that were opened on replicas
+     *
+     * @return replica reads count
+     */
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * Returns the number of read-only connections that were opened on the primary because there was no replica, because
+     * of the read-your-writes window, or because no replica could open a connection
+     *
+     * @return primary reads count
+     */
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    interface Route {
+        Connection getConnection() throws SQLException;
+
+        void release();
+    }
+
+    private class PrimaryRoute implements Route {
+        private final boolean write;
+
+        PrimaryRoute(boolean write) {
+            this.write = write;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (write) {
+                recordWrite();
+            }
+            Connection connection = primary.getConnection();
+            if (!write) {
+                primaryReads.increment();
+            }
+            return connection;
+        }
+
+        @Override
+        public void release() {
+            if (write) {
+                recordWrite();
+            }
+        }
+    }
+
+    private class ReplicaRoute implements Route {
+        private int replicaIndex;
+
+        ReplicaRoute(int replicaIndex) {
+            this.replicaIndex = replicaIndex;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                int index = (replicaIndex + attempt) % replicas.size();
+                inFlight.incrementAndGet(index);
+                try {
+                    Connection connection = replicas.get(index).getConnection();
+                    replicaIndex = index;
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    inFlight.decrementAndGet(index);
+                    log.warn("Cannot open connection to replica #{}", index, e);
+                }
+            }
+            replicaIndex = -1;
+            Connection connection = primary.getConnection();
+            primaryReads.increment();
+            return connection;
+        }
+
+        @Override
+        public void release() {
+            if (replicaIndex >= 0) {
+                inFlight.decrementAndGet(replicaIndex);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Routing connections always use credentials of the target DataSources");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+        for (DataSource replica : replicas) {
+            replica.setLogWriter(out);
+        }
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+        for (DataSource replica : replicas) {
+            replica.setLoginTimeout(seconds);
+        }
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,137 @@
+package com.bobocode.util.routing;
+
+import com.bobocode.util.jdbc.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link RoutingConnection} opens a target connection lazily, on the first call that needs the database. Until then it
+ * only remembers read-only, auto-commit and transaction isolation settings, so {@link Connection#setReadOnly(boolean)}
+ * called right after {@link ReadWriteRoutingDataSource#getConnection()} decides whether a replica or the primary is used.
+ * A connection obtained inside a read scope starts read-only, and an explicit {@code setReadOnly(false)} still sends it
+ * to the primary.
+ */
+class RoutingConnection extends DelegatingConnection {
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private boolean readOnly;
+    private Boolean autoCommit;
+    private Integer transactionIsolation;
+    private ReadWriteRoutingDataSource.Route route;
+    private boolean closed;
+
+    RoutingConnection(ReadWriteRoutingDataSource routingDataSource, boolean readScope) {
+        this.routingDataSource = routingDataSource;
+        this.readOnly = readScope;
+    }
+
+    @Override
+    protected Connection getDelegate() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        if (delegate == null) {
+            route = routingDataSource.route(readOnly);
+            Connection connection = route.getConnection();
+            if (readOnly) {
+                connection.setReadOnly(true);
+            }
+            if (autoCommit != null) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (transactionIsolation != null) {
+                connection.setTransactionIsolation(transactionIsolation);
+            }
+            delegate = connection;
+        }
+        return delegate;
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        if (delegate == null) {
+            checkOpen();
+            this.readOnly = readOnly;
+        } else {
+            getDelegate().setReadOnly(readOnly);
+        }
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        if (delegate == null) {
+            checkOpen();
+            return readOnly;
+        }
+        return getDelegate().isReadOnly();
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (delegate == null) {
+            checkOpen();
+            this.autoCommit = autoCommit;
+        } else {
+            getDelegate().setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        if (delegate == null) {
+            checkOpen();
+            return autoCommit == null || autoCommit;
+        }
+        return getDelegate().getAutoCommit();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        if (delegate == null) {
+            checkOpen();
+            this.transactionIsolation = level;
+        } else {
+            getDelegate().setTransactionIsolation(level);
+        }
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        if (delegate != null) {
+            getDelegate().commit();
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        if (delegate != null) {
+            getDelegate().rollback();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (delegate != null) {
+            try {
+                delegate.close();
+            } finally {
+                route.release();
+            }
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+    }
+}
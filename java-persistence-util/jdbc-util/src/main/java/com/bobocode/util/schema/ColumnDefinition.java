@@ -0,0 +1,13 @@
+package com.bobocode.util.schema;
+
+import lombok.Value;
+
+/**
+ * {@link ColumnDefinition} is a declared table column: a name and its SQL definition, e.g.
+ * {@code VARCHAR(255) NOT NULL}
+ */
+@Value(staticConstructor = "of")
+public class ColumnDefinition {
+    String name;
+    String definition;
+}
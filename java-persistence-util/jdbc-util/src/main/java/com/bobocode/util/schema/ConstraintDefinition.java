@@ -0,0 +1,38 @@
+package com.bobocode.util.schema;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * {@link ConstraintDefinition} is a declared named table constraint. Constraints are matched with the database by
+ * name, so every declared constraint must be named explicitly.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ConstraintDefinition {
+    String name;
+    boolean foreignKey;
+    /**
+     * SQL definition that follows {@code CONSTRAINT <name>}, e.g. {@code PRIMARY KEY (id)}
+     */
+    String definition;
+
+    public static ConstraintDefinition primaryKey(String name, String... columns) {
+        return new ConstraintDefinition(name, false, String.format("PRIMARY KEY (%s)", String.join(", ", columns)));
+    }
+
+    public static ConstraintDefinition unique(String name, String... columns) {
+        return new ConstraintDefinition(name, false, String.format("UNIQUE (%s)", String.join(", ", columns)));
+    }
+
+    public static ConstraintDefinition check(String name, String expression) {
+        return new ConstraintDefinition(name, false, String.format("CHECK (%s)", expression));
+    }
+
+    public static ConstraintDefinition foreignKey(String name, String column, String referencedTable,
+                                                  String referencedColumn) {
+        return new ConstraintDefinition(name, true,
+                String.format("FOREIGN KEY (%s) REFERENCES %s (%s)", column, referencedTable, referencedColumn));
+    }
+}
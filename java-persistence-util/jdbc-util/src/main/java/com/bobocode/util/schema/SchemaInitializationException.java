@@ -0,0 +1,11 @@
+package com.bobocode.util.schema;
+
+public class SchemaInitializationException extends RuntimeException {
+    public SchemaInitializationException(String message) {
+        super(message);
+    }
+
+    public SchemaInitializationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bobocode.util.schema;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link SchemaInitializationResult} describes a run of {@link SchemaInitializer#initialize()}
+ */
+@Value
+public class SchemaInitializationResult {
+    /**
+     * DDL statements issued by this run, in the order of execution
+     */
+    List<String> executedStatements;
+    long elapsedNanos;
+
+    public boolean isUpToDate() {
+        return executedStatements.isEmpty();
+    }
+}
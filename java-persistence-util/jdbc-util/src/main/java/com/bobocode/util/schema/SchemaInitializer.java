@@ -0,0 +1,136 @@
+package com.bobocode.util.schema;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * {@link SchemaInitializer} brings a database to a declared schema idempotently. It reads a metadata snapshot of the
+ * current schema once, diffs it against the declared tables and issues only the missing DDL: {@code CREATE TABLE}
+ * for a missing table, {@code ALTER TABLE ... ADD COLUMN} for a missing column and
+ * {@code ALTER TABLE ... ADD CONSTRAINT} for a missing constraint. On an already provisioned database it runs no DDL
+ * at all, so startup does not depend on the size of the schema.
+ * <p>
+ * Foreign keys are added after all the tables are created, so tables can be declared in any order. Existing columns
+ * and constraints are matched by name only, their definitions are not compared.
+ * <p>
+ * The DDL runs in one transaction, but it is atomic only on databases with transactional DDL, such as PostgreSQL.
+ * H2, MySQL and Oracle commit every DDL statement implicitly, so when a statement fails the ones executed before it
+ * stay in the database. Since the DDL is computed from the current schema, running the initializer again after fixing
+ * the cause continues from the failed statement.
+ */
+@Slf4j
+public class SchemaInitializer {
+    private final DataSource dataSource;
+    private final List<TableDefinition> tables;
+
+    @Builder
+    private SchemaInitializer(DataSource dataSource, @Singular List<TableDefinition> tables) {
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source is required");
+        this.tables = tables;
+    }
+
+    /**
+     * Computes the DDL that is missing in the database without executing it
+     *
+     * @return missing DDL statements in the order of execution
+     * @throws SchemaInitializationException if the database metadata cannot be read
+     */
+    public List<String> plan() {
+        try (Connection connection = dataSource.getConnection()) {
+            return diff(SchemaSnapshot.read(connection));
+        } catch (SQLException e) {
+            throw new SchemaInitializationException("Cannot read database metadata", e);
+        }
+    }
+
+    /**
+     * Executes the DDL that is missing in the database in a single transaction. If a statement fails, the transaction
+     * is rolled back, which undoes the previous statements only on databases with transactional DDL.
+     *
+     * @return initialization result
+     * @throws SchemaInitializationException if the database metadata cannot be read or a statement fails
+     */
+    public SchemaInitializationResult initialize() {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            List<String> statements = diff(SchemaSnapshot.read(connection));
+            if (!statements.isEmpty()) {
+                execute(connection, statements);
+            }
+            return new SchemaInitializationResult(statements, System.nanoTime() - start);
+        } catch (SQLException e) {
+            throw new SchemaInitializationException("Cannot initialize the schema", e);
+        }
+    }
+
+    private List<String> diff(SchemaSnapshot snapshot) {
+        List<String> statements = new ArrayList<>();
+        List<String> foreignKeys = new ArrayList<>();
+        for (TableDefinition table : tables) {
+            boolean exists = snapshot.hasTable(table.getName());
+            if (!exists) {
+                statements.add(createTable(table));
+            }
+            for (ColumnDefinition column : table.getColumns()) {
+                if (exists && !snapshot.hasColumn(table.getName(), column.getName())) {
+                    statements.add(String.format("ALTER TABLE %s ADD COLUMN %s %s", table.getName(),
+                            column.getName(), column.getDefinition()));
+                }
+            }
+            for (ConstraintDefinition constraint : table.getConstraints()) {
+                if (constraint.isForeignKey() && !snapshot.hasConstraint(table.getName(), constraint.getName())) {
+                    foreignKeys.add(addConstraint(table, constraint));
+                } else if (exists && !snapshot.hasConstraint(table.getName(), constraint.getName())) {
+                    statements.add(addConstraint(table, constraint));
+                }
+            }
+        }
+        statements.addAll(foreignKeys);
+        return statements;
+    }
+
+    private String createTable(TableDefinition table) {
+        List<String> elements = table.getColumns().stream()
+                .map(column -> column.getName() + " " + column.getDefinition())
+                .collect(Collectors.toCollection(ArrayList::new));
+        table.getConstraints().stream()
+                .filter(constraint -> !constraint.isForeignKey())
+                .forEach(constraint -> elements.add(
+                        String.format("CONSTRAINT %s %s", constraint.getName(), constraint.getDefinition())));
+        return String.format("CREATE TABLE %s (%s)", table.getName(), String.join(", ", elements));
+    }
+
+    private String addConstraint(TableDefinition table, ConstraintDefinition constraint) {
+        return String.format("ALTER TABLE %s ADD CONSTRAINT %s %s", table.getName(), constraint.getName(),
+                constraint.getDefinition());
+    }
+
+    private void execute(Connection connection, List<String> statements) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                log.info("Executing {}", sql);
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw new SchemaInitializationException(String.format("Cannot execute %s", sql), e);
+                }
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
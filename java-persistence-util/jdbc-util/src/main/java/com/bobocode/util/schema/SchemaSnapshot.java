@@ -0,0 +1,76 @@
+package com.bobocode.util.schema;
+
+import com.bobocode.util.JdbcUtil;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link SchemaSnapshot} holds table, column and constraint names of the current schema. It is read with a constant
+ * number of schema-wide metadata queries, regardless of how many tables are declared or present. Names are compared
+ * case-insensitively, since PostgreSQL folds unquoted identifiers to lower case and H2 to upper case by default.
+ */
+class SchemaSnapshot {
+    private static final String H2_CONSTRAINTS_QUERY = "SELECT TABLE_NAME, CONSTRAINT_NAME " +
+            "FROM INFORMATION_SCHEMA.CONSTRAINTS WHERE TABLE_SCHEMA = ?";
+    private static final String POSTGRES_CONSTRAINTS_QUERY = "SELECT table_name, constraint_name " +
+            "FROM information_schema.table_constraints WHERE table_schema = ?";
+
+    private final Map<String, Set<String>> columns = new HashMap<>();
+    private final Map<String, Set<String>> constraints = new HashMap<>();
+
+    static SchemaSnapshot read(Connection connection) throws SQLException {
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        DatabaseMetaData metaData = connection.getMetaData();
+        boolean postgres = JdbcUtil.isPostgres(connection);
+        String schema = JdbcUtil.currentSchema(connection);
+        try (ResultSet tables = metaData.getTables(null, schema, "%", new String[]{"TABLE"})) {
+            while (tables.next()) {
+                snapshot.columns.put(normalize(tables.getString("TABLE_NAME")), new HashSet<>());
+            }
+        }
+        try (ResultSet tableColumns = metaData.getColumns(null, schema, "%", "%")) {
+            while (tableColumns.next()) {
+                Set<String> names = snapshot.columns.get(normalize(tableColumns.getString("TABLE_NAME")));
+                if (names != null) { // views are not tracked
+                    names.add(normalize(tableColumns.getString("COLUMN_NAME")));
+                }
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                postgres ? POSTGRES_CONSTRAINTS_QUERY : H2_CONSTRAINTS_QUERY)) {
+            statement.setString(1, schema);
+            try (ResultSet tableConstraints = statement.executeQuery()) {
+                while (tableConstraints.next()) {
+                    snapshot.constraints.computeIfAbsent(normalize(tableConstraints.getString(1)), t -> new HashSet<>())
+                            .add(normalize(tableConstraints.getString(2)));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    boolean hasTable(String table) {
+        return columns.containsKey(normalize(table));
+    }
+
+    boolean hasColumn(String table, String column) {
+        return columns.getOrDefault(normalize(table), Set.of()).contains(normalize(column));
+    }
+
+    boolean hasConstraint(String table, String constraint) {
+        return constraints.getOrDefault(normalize(table), Set.of()).contains(normalize(constraint));
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bobocode.util.schema;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link TableDefinition} is a declared table with its columns and named constraints
+ */
+@Value
+@Builder
+public class TableDefinition {
+    String name;
+    @Singular
+    List<ColumnDefinition> columns;
+    @Singular
+    List<ConstraintDefinition> constraints;
+}
@@ -0,0 +1,27 @@
+package com.bobocode.util.script;
+
+import com.bobocode.util.metrics.LatencySnapshot;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link ScriptReport} summarizes a script run by {@link SqlScriptRunner}
+ */
+@Value
+public class ScriptReport {
+    long statements;
+    /**
+     * Number of JDBC batches that executed consecutive DML statements
+     */
+    long batches;
+    long elapsedNanos;
+    /**
+     * Distribution of execution times of single statements and batches
+     */
+    LatencySnapshot executionTime;
+    /**
+     * The slowest executions, the slowest first
+     */
+    List<StatementTiming> slowest;
+}
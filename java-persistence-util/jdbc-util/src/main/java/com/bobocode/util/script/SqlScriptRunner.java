@@ -0,0 +1,229 @@
+package com.bobocode.util.script;
+
+import com.bobocode.util.FileReaderException;
+import com.bobocode.util.metrics.LatencyHistogram;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SqlScriptRunner} executes SQL scripts statement by statement, as they are parsed by
+ * {@link SqlStatementReader}, so a script of any size runs in constant memory. Classpath resources are read as streams,
+ * so scripts packaged into a JAR work as well.
+ * <p>
+ * With {@code batchSize} greater than one, consecutive DML statements ({@code INSERT}, {@code UPDATE}, {@code DELETE},
+ * {@code MERGE}) are sent in JDBC batches of up to that size. Execution time of every statement (or batch) is recorded,
+ * and the slowest ones are kept for the {@link ScriptReport}.
+ */
+@Slf4j
+public class SqlScriptRunner {
+    public static final int DEFAULT_SLOWEST_STATEMENTS = 10;
+    private static final int MAX_REPORTED_SQL_LENGTH = 200;
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final int slowestStatements;
+
+    @Builder
+    private SqlScriptRunner(DataSource dataSource, Integer batchSize, Integer slowestStatements) {
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source is required");
+        this.batchSize = batchSize == null ? 0 : batchSize;
+        this.slowestStatements = slowestStatements == null ? DEFAULT_SLOWEST_STATEMENTS : slowestStatements;
+    }
+
+    /**
+     * Creates a runner that executes every statement separately
+     *
+     * @param dataSource data source of the target database
+     * @return script runner
+     */
+    public static SqlScriptRunner of(DataSource dataSource) {
+        return builder().dataSource(dataSource).build();
+    }
+
+    /**
+     * Executes an SQL script from the classpath
+     *
+     * @param resourceName classpath resource name, e.g. {@code db/migration/table_initialization.sql}
+     * @return execution report
+     * @throws SQLException        if a statement fails, the message contains the statement line number
+     * @throws FileReaderException if the script is not found or cannot be read
+     */
+    public ScriptReport runResource(String resourceName) throws SQLException {
+        Objects.requireNonNull(resourceName);
+        InputStream inputStream = SqlScriptRunner.class.getClassLoader().getResourceAsStream(resourceName);
+        if (inputStream == null) {
+            throw new FileReaderException(String.format("SQL script %s is not found", resourceName));
+        }
+        return run(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Executes an SQL script on a single connection. The reader is closed when the script is over.
+     *
+     * @param script SQL script reader
+     * @return execution report
+     * @throws SQLException        if a statement fails, the message contains the statement line number
+     * @throws FileReaderException if the script cannot be read
+     */
+    public ScriptReport run(Reader script) throws SQLException {
+        try (Reader reader = script; Connection connection = dataSource.getConnection()) {
+            return run(connection, reader);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read SQL script", e);
+        }
+    }
+
+    /**
+     * Executes an SQL script on a connection that is owned by the caller, so the script can be a part of the caller's
+     * transaction. Neither the connection nor its auto-commit mode are changed. The reader is closed when the script
+     * is over.
+     *
+     * @param connection connection to execute the script on
+     * @param script     SQL script reader
+     * @return execution report
+     * @throws SQLException        if a statement fails, the message contains the statement line number
+     * @throws FileReaderException if the script cannot be read
+     */
+    public ScriptReport run(Connection connection, Reader script) throws SQLException {
+        long start = System.nanoTime();
+        Execution execution = new Execution();
+        try (SqlStatementReader reader = new SqlStatementReader(script);
+             Statement statement = connection.createStatement()) {
+            String sql;
+            while ((sql = reader.nextStatement()) != null) {
+                int lineNumber = reader.getStatementLineNumber();
+                if (batchSize > 1 && isDml(sql)) {
+                    execution.addBatch(statement, sql, lineNumber);
+                } else {
+                    execution.flushBatch(statement);
+                    execution.execute(statement, sql, lineNumber);
+                }
+            }
+            execution.flushBatch(statement);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read SQL script", e);
+        }
+        ScriptReport report = execution.report(System.nanoTime() - start);
+        log.debug("Executed {} SQL statements in {} ms", report.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()));
+        return report;
+    }
+
+    private static boolean isDml(String sql) {
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        switch (sql.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+            case "MERGE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String shorten(String sql) {
+        return sql.length() <= MAX_REPORTED_SQL_LENGTH ? sql : sql.substring(0, MAX_REPORTED_SQL_LENGTH) + "...";
+    }
+
+    /**
+     * State of a single script run
+     */
+    private class Execution {
+        private final LatencyHistogram executionTime = new LatencyHistogram();
+        private final PriorityQueue<StatementTiming> slowest =
+                new PriorityQueue<>(Comparator.comparingLong(StatementTiming::getElapsedNanos));
+        private long statements;
+        private long batches;
+        private int batched;
+        private int batchLineNumber;
+        private String batchFirstSql;
+
+        void execute(Statement statement, String sql, int lineNumber) throws SQLException {
+            long start = System.nanoTime();
+            try {
+                statement.execute(sql);
+            } catch (SQLException e) {
+                throw new SQLException(String.format("Cannot execute SQL statement at line %d: %s", lineNumber,
+                        shorten(sql)), e.getSQLState(), e);
+            }
+            record(new StatementTiming(lineNumber, shorten(sql), 1, System.nanoTime() - start));
+        }
+
+        void addBatch(Statement statement, String sql, int lineNumber) throws SQLException {
+            if (batched == 0) {
+                batchLineNumber = lineNumber;
+                batchFirstSql = sql;
+            }
+            statement.addBatch(sql);
+            if (++batched == batchSize) {
+                flushBatch(statement);
+            }
+        }
+
+        void flushBatch(Statement statement) throws SQLException {
+            if (batched == 0) {
+                return;
+            }
+            int size = batched;
+            batched = 0;
+            long start = System.nanoTime();
+            try {
+                statement.executeBatch();
+            } catch (SQLException e) {
+                SQLException error = new SQLException(String.format(
+                        "Cannot execute a batch of %d SQL statements starting at line %d", size, batchLineNumber),
+                        e.getSQLState(), e);
+                try {
+                    statement.clearBatch();
+                } catch (SQLException clearError) {
+                    error.addSuppressed(clearError);
+                }
+                throw error;
+            }
+            statement.clearBatch();
+            batches++;
+            record(new StatementTiming(batchLineNumber, shorten(batchFirstSql), size, System.nanoTime() - start));
+        }
+
+        private void record(StatementTiming timing) {
+            statements += timing.getStatements();
+            executionTime.record(timing.getElapsedNanos());
+            if (slowestStatements > 0) {
+                slowest.offer(timing);
+                if (slowest.size() > slowestStatements) {
+                    slowest.poll();
+                }
+            }
+            log.trace("Executed SQL at line {} in {} us", timing.getLineNumber(),
+                    TimeUnit.NANOSECONDS.toMicros(timing.getElapsedNanos()));
+        }
+
+        ScriptReport report(long elapsedNanos) {
+            List<StatementTiming> slowestFirst = new ArrayList<>(slowest);
+            slowestFirst.sort(Comparator.comparingLong(StatementTiming::getElapsedNanos).reversed());
+            return new ScriptReport(statements, batches, elapsedNanos, executionTime.snapshot(), slowestFirst);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.bobocode.util.script;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * {@link SqlStatementReader} splits an SQL script into statements incrementally, reading it from a {@link Reader} in
+ * small chunks. Statements are separated by {@code ;}. Separators inside string literals, quoted identifiers, comments
+ * and dollar-quoted bodies ({@code $$ ... $$} or {@code $tag$ ... $tag$}) are ignored. Comments are removed.
+ * Memory use depends on the longest statement, not on the script size.
+ */
+public class SqlStatementReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int pushedBack = -1;
+    private int lineNumber = 1;
+    private int statementLineNumber;
+
+    public SqlStatementReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next statement
+     *
+     * @return statement text without the trailing separator, or {@code null} when the script is over
+     * @throws IOException if the script cannot be read
+     */
+    public String nextStatement() throws IOException {
+        StringBuilder statement = new StringBuilder();
+        int current;
+        while ((current = read()) != -1) {
+            char c = (char) current;
+            if (statement.length() == 0 && Character.isWhitespace(c)) {
+                continue;
+            }
+            boolean started = statement.length() > 0;
+            int line = lineNumber;
+            if (c == ';') {
+                String text = statement.toString().trim();
+                if (!text.isEmpty()) {
+                    return text;
+                }
+                statement.setLength(0);
+            } else if (c == '\'' || c == '"') {
+                statement.append(c);
+                readQuoted(statement, c);
+            } else if (c == '-' && peek() == '-') {
+                skipLineComment();
+                appendSeparator(statement);
+            } else if (c == '/' && peek() == '*') {
+                read();
+                skipBlockComment();
+                appendSeparator(statement);
+            } else if (c == '$' && !endsWithIdentifierPart(statement)) {
+                statement.append(c);
+                readDollarQuoted(statement);
+            } else {
+                statement.append(c);
+            }
+            if (!started && statement.length() > 0) {
+                statementLineNumber = line;
+            }
+        }
+        String text = statement.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * Returns the line number where the last returned statement starts
+     *
+     * @return line number starting from 1
+     */
+    public int getStatementLineNumber() {
+        return statementLineNumber;
+    }
+
+    private void readQuoted(StringBuilder statement, char quote) throws IOException {
+        int current;
+        while ((current = read()) != -1) {
+            statement.append((char) current);
+            if (current == quote) {
+                return; // a doubled quote is read as the end and the start of a quoted part
+            }
+        }
+    }
+
+    private void skipLineComment() throws IOException {
+        int current;
+        while ((current = read()) != -1 && current != '\n') {
+            // skip
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        int depth = 1;
+        int previous = 0;
+        int current;
+        while ((current = read()) != -1) {
+            if (previous == '*' && current == '/') {
+                if (--depth == 0) {
+                    return;
+                }
+                current = 0;
+            } else if (previous == '/' && current == '*') {
+                depth++;
+                current = 0;
+            }
+            previous = current;
+        }
+    }
+
+    /**
+     * Reads a dollar-quoted body after the opening {@code $}. If the text is not an opening tag (e.g. a {@code $1}
+     * parameter), it is appended as is.
+     */
+    private void readDollarQuoted(StringBuilder statement) throws IOException {
+        StringBuilder tag = new StringBuilder("$");
+        int current;
+        while ((current = read()) != -1 && isTagPart((char) current, tag.length() == 1)) {
+            tag.append((char) current);
+        }
+        if (current != '$') {
+            statement.append(tag, 1, tag.length());
+            unread(current);
+            return;
+        }
+        tag.append('$');
+        statement.append(tag, 1, tag.length());
+        int bodyStart = statement.length();
+        while ((current = read()) != -1) {
+            statement.append((char) current);
+            if (current == '$' && statement.length() - bodyStart >= tag.length() && endsWith(statement, tag)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isTagPart(char c, boolean first) {
+        return c == '_' || Character.isLetter(c) || (!first && Character.isDigit(c));
+    }
+
+    private static boolean endsWithIdentifierPart(StringBuilder statement) {
+        if (statement.length() == 0) {
+            return false;
+        }
+        char last = statement.charAt(statement.length() - 1);
+        return last == '_' || Character.isLetterOrDigit(last);
+    }
+
+    private static boolean endsWith(StringBuilder text, CharSequence suffix) {
+        int offset = text.length() - suffix.length();
+        for (int i = 0; i < suffix.length(); i++) {
+            if (text.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendSeparator(StringBuilder statement) {
+        if (statement.length() > 0 && !Character.isWhitespace(statement.charAt(statement.length() - 1))) {
+            statement.append(' ');
+        }
+    }
+
+    private int peek() throws IOException {
+        int next = read();
+        unread(next);
+        return next;
+    }
+
+    private void unread(int c) {
+        if (c != -1) {
+            pushedBack = c;
+            if (c == '\n') {
+                lineNumber--;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushedBack != -1) {
+            c = pushedBack;
+            pushedBack = -1;
+        } else {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, BUFFER_SIZE);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            c = buffer[position++];
+        }
+        if (c == '\n') {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
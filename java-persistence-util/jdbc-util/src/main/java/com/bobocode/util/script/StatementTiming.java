@@ -0,0 +1,20 @@
+package com.bobocode.util.script;
+
+import lombok.Value;
+
+/**
+ * {@link StatementTiming} is the execution time of a script statement, or of a batch of consecutive DML statements
+ */
+@Value
+public class StatementTiming {
+    /**
+     * Line number where the statement (or the first statement of a batch) starts
+     */
+    int lineNumber;
+    /**
+     * Statement text, shortened if it is long
+     */
+    String sql;
+    int statements;
+    long elapsedNanos;
+}
@@ -0,0 +1,32 @@
+package com.bobocode.util.slowlog;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * {@link SlowQuery} is a snapshot of everything {@link SlowQueryLog} knows about one SQL shape
+ */
+@Value
+public class SlowQuery {
+    String shape;
+    /**
+     * SQL text of the most recent slow execution
+     */
+    String sql;
+    /**
+     * Bind parameters of the most recent slow execution
+     */
+    List<Object> parameters;
+    long slowExecutions;
+    long maxNanos;
+    long lastNanos;
+    /**
+     * Execution plan captured for this shape, or {@code null} if it is not captured (yet)
+     */
+    String plan;
+    /**
+     * {@code true} if the captured plan reads a whole table
+     */
+    boolean fullScan;
+}
@@ -0,0 +1,302 @@
+package com.bobocode.util.slowlog;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.metrics.SqlShapes;
+import com.bobocode.util.metrics.StatementExecution;
+import com.bobocode.util.metrics.StatementExecutionListener;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link SlowQueryLog} logs statements that run longer than a threshold. It is a {@link StatementExecutionListener},
+ * so it is attached to {@link com.bobocode.util.metrics.InstrumentedDataSource#addListener(StatementExecutionListener)}.
+ * <p>
+ * Slow statements are grouped by SQL shape and kept in a bounded ring: when there are more than {@code capacity}
+ * shapes, the oldest one is evicted. A shape is logged when it becomes slow the first time, and then at most once per
+ * {@code logInterval} with the number of suppressed executions, so a hot slow query does not flood the logs.
+ * <p>
+ * For every new shape the execution plan is captured once, with the bind parameters of the slow execution. EXPLAIN
+ * runs asynchronously on a separate connection of {@code explainDataSource}, which should be the raw (not instrumented)
+ * data source. H2 and PostgreSQL syntax is supported. A plan that reads a whole table is logged as a full scan.
+ */
+@Slf4j
+public class SlowQueryLog implements StatementExecutionListener, AutoCloseable {
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(200);
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final Duration DEFAULT_LOG_INTERVAL = Duration.ofMinutes(1);
+
+    private final DataSource explainDataSource;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final long logIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, SlowShape> slowShapes;
+    private final ThreadPoolExecutor explainExecutor;
+    private volatile Dialect dialect;
+
+    @Builder
+    private SlowQueryLog(DataSource explainDataSource, Duration threshold, Integer capacity, Duration logInterval) {
+        this.explainDataSource = explainDataSource;
+        this.thresholdNanos = (threshold == null ? DEFAULT_THRESHOLD : threshold).toNanos();
+        this.capacity = capacity == null ? DEFAULT_CAPACITY : capacity;
+        if (this.capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.logIntervalNanos = (logInterval == null ? DEFAULT_LOG_INTERVAL : logInterval).toNanos();
+        this.slowShapes = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SlowShape> eldest) {
+                return size() > SlowQueryLog.this.capacity;
+            }
+        };
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.capacity), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void onExecution(StatementExecution execution) {
+        if (execution.getElapsedNanos() < thresholdNanos) {
+            return;
+        }
+        long now = System.nanoTime();
+        SlowShape slowShape;
+        boolean newShape;
+        long suppressed = -1;
+        lock.lock();
+        try {
+            slowShape = slowShapes.get(execution.getShape());
+            newShape = slowShape == null;
+            if (newShape) {
+                slowShape = new SlowShape(execution.getShape());
+                slowShapes.put(execution.getShape(), slowShape);
+            }
+            slowShape.record(execution);
+            if (newShape || now - slowShape.lastLoggedAt >= logIntervalNanos) {
+                suppressed = slowShape.suppressed;
+                slowShape.suppressed = 0;
+                slowShape.lastLoggedAt = now;
+            } else {
+                slowShape.suppressed++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (suppressed >= 0) {
+            log.warn("Slow SQL took {} ms ({} more slow executions since last report): {} parameters {}",
+                    TimeUnit.NANOSECONDS.toMillis(execution.getElapsedNanos()), suppressed, execution.getSql(),
+                    execution.getParameters());
+        }
+        if (newShape && explainDataSource != null && isExplainable(execution.getSql())) {
+            SlowShape explained = slowShape;
+            explainExecutor.execute(() -> explain(explained, execution));
+        }
+    }
+
+    private void explain(SlowShape slowShape, StatementExecution execution) {
+        try (Connection connection = explainDataSource.getConnection()) {
+            Dialect currentDialect = resolveDialect(connection);
+            try (PreparedStatement statement = connection.prepareStatement(currentDialect.explainPrefix
+                    + execution.getSql())) {
+                bindParameters(statement, execution.getParameters());
+                String plan = readPlan(statement);
+                boolean fullScan = currentDialect.isFullScan(plan);
+                slowShape.setPlan(plan, fullScan);
+                if (fullScan) {
+                    log.warn("Slow SQL reads a whole table: {}\n{}", execution.getShape(), plan);
+                } else {
+                    log.info("Plan of slow SQL {}\n{}", execution.getShape(), plan);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Cannot explain slow SQL {}", execution.getShape(), e);
+            slowShape.setPlan("EXPLAIN failed: " + e.getMessage(), false);
+        }
+    }
+
+    private Dialect resolveDialect(Connection connection) throws SQLException {
+        Dialect current = dialect;
+        if (current == null) {
+            current = Dialect.of(connection);
+            dialect = current;
+        }
+        return current;
+    }
+
+    private static void bindParameters(PreparedStatement statement, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+            if (parameter == null) {
+                statement.setNull(i + 1, Types.NULL);
+            } else {
+                statement.setObject(i + 1, parameter);
+            }
+        }
+    }
+
+    private static String readPlan(PreparedStatement statement) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                if (plan.length() > 0) {
+                    plan.append('\n');
+                }
+                plan.append(resultSet.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+
+    private static boolean isExplainable(String sql) {
+        String trimmed = sql.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        switch (trimmed.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT":
+            case "WITH":
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+            case "MERGE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns slow queries that are currently in the ring, the slowest first
+     *
+     * @return slow query snapshots
+     */
+    public List<SlowQuery> getSlowQueries() {
+        lock.lock();
+        try {
+            return slowShapes.values().stream()
+                    .map(SlowShape::snapshot)
+                    .sorted(Comparator.comparingLong(SlowQuery::getMaxNanos).reversed())
+                    .collect(toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds a slow query by SQL text or shape
+     *
+     * @param sql SQL text
+     * @return slow query snapshot if the shape of this SQL is in the ring
+     */
+    public Optional<SlowQuery> findSlowQuery(String sql) {
+        String shape = SqlShapes.normalize(sql);
+        lock.lock();
+        try {
+            return Optional.ofNullable(slowShapes.get(shape)).map(SlowShape::snapshot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            slowShapes.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        explainExecutor.shutdownNow();
+    }
+
+    private enum Dialect {
+        H2("EXPLAIN ", "tableScan"),
+        POSTGRES("EXPLAIN (FORMAT TEXT) ", "Seq Scan"),
+        GENERIC("EXPLAIN ", null);
+
+        private final String explainPrefix;
+        private final String fullScanMarker;
+
+        Dialect(String explainPrefix, String fullScanMarker) {
+            this.explainPrefix = explainPrefix;
+            this.fullScanMarker = fullScanMarker;
+        }
+
+        static Dialect of(Connection connection) throws SQLException {
+            if (JdbcUtil.isH2(connection)) {
+                return H2;
+            } else if (JdbcUtil.isPostgres(connection)) {
+                return POSTGRES;
+            }
+            return GENERIC;
+        }
+
+        boolean isFullScan(String plan) {
+            return fullScanMarker != null && plan.contains(fullScanMarker);
+        }
+    }
+
+    private static class SlowShape {
+        private final String shape;
+        private String sql;
+        private List<Object> parameters;
+        private long slowExecutions;
+        private long maxNanos;
+        private long lastNanos;
+        private long lastLoggedAt;
+        private long suppressed;
+        private volatile String plan;
+        private volatile boolean fullScan;
+
+        SlowShape(String shape) {
+            this.shape = shape;
+        }
+
+        void record(StatementExecution execution) {
+            sql = execution.getSql();
+            parameters = execution.getParameters();
+            slowExecutions++;
+            lastNanos = execution.getElapsedNanos();
+            maxNanos = Math.max(maxNanos, lastNanos);
+        }
+
+        void setPlan(String plan, boolean fullScan) {
+            this.fullScan = fullScan;
+            this.plan = plan;
+        }
+
+        SlowQuery snapshot() {
+            return new SlowQuery(shape, sql, Collections.unmodifiableList(new ArrayList<>(parameters)), slowExecutions, maxNanos,
+                    lastNanos, plan, fullScan);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.bobocode.util.statement;
+
+import com.bobocode.util.jdbc.DelegatingPreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link CachedPreparedStatement} is a logical statement handed out by {@link StatementCachingConnection}. Closing it
+ * closes its last result set, clears parameters and batch, restores the settings changed by the caller (max rows,
+ * fetch size, query timeout, etc.) to the driver defaults, and puts the physical statement back to the cache.
+ */
+class CachedPreparedStatement extends DelegatingPreparedStatement {
+    private final StatementKey key;
+    private final StatementCachingConnection connection;
+    private final int defaultMaxRows;
+    private final int defaultFetchSize;
+    private final int defaultQueryTimeout;
+    private final int defaultFetchDirection;
+    private final int defaultMaxFieldSize;
+    private boolean closed;
+    private boolean poolable = true;
+    private boolean settingsChanged;
+    private ResultSet lastResultSet;
+
+    CachedPreparedStatement(PreparedStatement delegate, StatementKey key, StatementCachingConnection connection)
+            throws SQLException {
+        super(delegate, connection);
+        this.key = key;
+        this.connection = connection;
+        this.defaultMaxRows = delegate.getMaxRows();
+        this.defaultFetchSize = delegate.getFetchSize();
+        this.defaultQueryTimeout = delegate.getQueryTimeout();
+        this.defaultFetchDirection = delegate.getFetchDirection();
+        this.defaultMaxFieldSize = delegate.getMaxFieldSize();
+    }
+
+    @Override
+    protected PreparedStatement getDelegate() throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+        return super.getDelegate();
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        lastResultSet = getDelegate().executeQuery();
+        return lastResultSet;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        boolean hasResultSet = getDelegate().execute();
+        lastResultSet = hasResultSet ? delegate.getResultSet() : null;
+        return hasResultSet;
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        getDelegate().setMaxRows(max);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        getDelegate().setLargeMaxRows(max);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        getDelegate().setFetchSize(rows);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        getDelegate().setQueryTimeout(seconds);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        getDelegate().setFetchDirection(direction);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        getDelegate().setMaxFieldSize(max);
+        settingsChanged = true;
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        getDelegate();
+        this.poolable = poolable;
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        getDelegate();
+        return poolable;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || delegate.isClosed();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            connection.returnToCache(this);
+        }
+    }
+
+    StatementKey getKey() {
+        return key;
+    }
+
+    boolean isReusable() {
+        return poolable;
+    }
+
+    void reopen() {
+        closed = false;
+    }
+
+    void resetForReuse() throws SQLException {
+        if (lastResultSet != null) {
+            lastResultSet.close();
+            lastResultSet = null;
+        }
+        delegate.clearWarnings();
+        PreparedStatement preparedStatement = (PreparedStatement) delegate;
+        preparedStatement.clearParameters();
+        preparedStatement.clearBatch();
+        if (settingsChanged) {
+            delegate.setMaxRows(defaultMaxRows);
+            delegate.setFetchSize(defaultFetchSize);
+            delegate.setQueryTimeout(defaultQueryTimeout);
+            delegate.setFetchDirection(defaultFetchDirection);
+            delegate.setMaxFieldSize(defaultMaxFieldSize);
+            settingsChanged = false;
+        }
+    }
+
+    void closePhysically() {
+        closed = true;
+        try {
+            delegate.close();
+        } catch (SQLException ignored) {
+            // the statement is discarded anyway
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bobocode.util.statement;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StatementCacheStats} counts cache hits, misses and evictions of all the connections created by
+ * a {@link StatementCachingDataSource}
+ */
+public class StatementCacheStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns a share of {@code prepareStatement()} calls that were served from the cache
+     *
+     * @return hit ratio from 0 to 1
+     */
+    public double getHitRatio() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatementCacheStats(hits=%d, misses=%d, evictions=%d)", getHits(), getMisses(), getEvictions());
+    }
+}
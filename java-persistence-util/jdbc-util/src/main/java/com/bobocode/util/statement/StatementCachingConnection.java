@@ -0,0 +1,126 @@
+package com.bobocode.util.statement;
+
+import com.bobocode.util.jdbc.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StatementCachingConnection} keeps a bounded LRU cache of prepared statements of one physical connection.
+ * A statement is taken out of the cache by {@code prepareStatement()}, and returned back when it is closed, so two
+ * statements with the same SQL can be open at the same time. When the cache exceeds its size the least recently used
+ * statement is closed. As well as a connection itself, it is not thread-safe.
+ */
+class StatementCachingConnection extends DelegatingConnection {
+    private final StatementCacheStats stats;
+    private final Map<StatementKey, CachedPreparedStatement> cache;
+
+    StatementCachingConnection(Connection delegate, int cacheSize, StatementCacheStats stats) {
+        super(delegate);
+        this.stats = stats;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedPreparedStatement> eldest) {
+                if (size() > cacheSize) {
+                    eldest.getValue().closePhysically();
+                    stats.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return prepare(StatementKey.of(sql), () -> delegate.prepareStatement(sql));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return prepare(StatementKey.of(sql, resultSetType, resultSetConcurrency, -1),
+                () -> delegate.prepareStatement(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                                              int resultSetHoldability) throws SQLException {
+        return prepare(StatementKey.of(sql, resultSetType, resultSetConcurrency, resultSetHoldability),
+                () -> delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return prepare(StatementKey.withGeneratedKeys(sql, autoGeneratedKeys),
+                () -> delegate.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return prepare(StatementKey.withGeneratedKeys(sql, columnIndexes),
+                () -> delegate.prepareStatement(sql, columnIndexes));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return prepare(StatementKey.withGeneratedKeys(sql, columnNames),
+                () -> delegate.prepareStatement(sql, columnNames));
+    }
+
+    private PreparedStatement prepare(StatementKey key, StatementPreparer preparer) throws SQLException {
+        getDelegate();
+        CachedPreparedStatement cachedStatement = cache.remove(key);
+        if (cachedStatement != null) {
+            stats.recordHit();
+            cachedStatement.reopen();
+            return cachedStatement;
+        }
+        stats.recordMiss();
+        return new CachedPreparedStatement(preparer.prepare(), key, this);
+    }
+
+    void returnToCache(CachedPreparedStatement statement) throws SQLException {
+        if (!statement.isReusable() || delegate.isClosed()) {
+            statement.closePhysically();
+            return;
+        }
+        try {
+            statement.resetForReuse();
+        } catch (SQLException e) {
+            statement.closePhysically();
+            throw e;
+        }
+        CachedPreparedStatement previous = cache.put(statement.getKey(), statement);
+        if (previous != null) {
+            previous.closePhysically();
+            stats.recordEviction();
+        }
+    }
+
+    /**
+     * Returns the number of statements that are currently cached for this connection
+     *
+     * @return cache size
+     */
+    int getCachedStatementCount() {
+        return cache.size();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        List<CachedPreparedStatement> cachedStatements = new ArrayList<>(cache.values());
+        cache.clear();
+        cachedStatements.forEach(CachedPreparedStatement::closePhysically);
+        delegate.close();
+    }
+
+    @FunctionalInterface
+    private interface StatementPreparer {
+        PreparedStatement prepare() throws SQLException;
+    }
+}
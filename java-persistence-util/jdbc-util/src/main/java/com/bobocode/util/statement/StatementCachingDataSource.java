@@ -0,0 +1,53 @@
+package com.bobocode.util.statement;
+
+import com.bobocode.util.jdbc.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link StatementCachingDataSource} is a {@link DataSource} decorator that caches prepared statements per physical
+ * connection, so the same SQL is not parsed by the database on every {@code prepareStatement()} call. It is transparent
+ * for the code that prepares statements and closes them using try-with-resources: closing a statement returns it back
+ * to the cache.
+ * <p>
+ * The cache lives as long as a physical connection, so in order to be useful with a connection pool the caching data
+ * source should be placed <b>under</b> the pool (see {@link com.bobocode.util.pool.PoolConfig#getStatementCacheSize()}).
+ */
+public class StatementCachingDataSource extends DelegatingDataSource {
+    private final int cacheSize;
+    private final StatementCacheStats stats = new StatementCacheStats();
+
+    /**
+     * Creates a caching data source
+     *
+     * @param targetDataSource a data source that opens physical connections
+     * @param cacheSize        max number of cached statements per connection
+     */
+    public StatementCachingDataSource(DataSource targetDataSource, int cacheSize) {
+        super(targetDataSource);
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Statement cache size must be positive");
+        }
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new StatementCachingConnection(targetDataSource.getConnection(), cacheSize, stats);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new StatementCachingConnection(targetDataSource.getConnection(username, password), cacheSize, stats);
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public StatementCacheStats getStats() {
+        return stats;
+    }
+}
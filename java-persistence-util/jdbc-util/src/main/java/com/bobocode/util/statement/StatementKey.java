@@ -0,0 +1,56 @@
+package com.bobocode.util.statement;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * {@link StatementKey} identifies a cached {@link java.sql.PreparedStatement}: SQL text together with all the options
+ * that were passed to {@link java.sql.Connection#prepareStatement(String)} overloads. Unspecified options are {@code -1}
+ * or {@code null}.
+ */
+@EqualsAndHashCode
+@ToString
+class StatementKey {
+    private final String sql;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    private final int resultSetHoldability;
+    private final int autoGeneratedKeys;
+    private final int[] columnIndexes;
+    private final String[] columnNames;
+
+    private StatementKey(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability,
+                         int autoGeneratedKeys, int[] columnIndexes, String[] columnNames) {
+        this.sql = sql;
+        this.resultSetType = resultSetType;
+        this.resultSetConcurrency = resultSetConcurrency;
+        this.resultSetHoldability = resultSetHoldability;
+        this.autoGeneratedKeys = autoGeneratedKeys;
+        this.columnIndexes = columnIndexes;
+        this.columnNames = columnNames;
+    }
+
+    static StatementKey of(String sql) {
+        return new StatementKey(sql, -1, -1, -1, -1, null, null);
+    }
+
+    static StatementKey of(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
+        return new StatementKey(sql, resultSetType, resultSetConcurrency, resultSetHoldability, -1, null, null);
+    }
+
+    static StatementKey withGeneratedKeys(String sql, int autoGeneratedKeys) {
+        return new StatementKey(sql, -1, -1, -1, autoGeneratedKeys, null, null);
+    }
+
+    static StatementKey withGeneratedKeys(String sql, int[] columnIndexes) {
+        return new StatementKey(sql, -1, -1, -1, -1, columnIndexes.clone(), null);
+    }
+
+    static StatementKey withGeneratedKeys(String sql, String[] columnNames) {
+        return new StatementKey(sql, -1, -1, -1, -1, null, columnNames.clone());
+    }
+
+    String getSql() {
+        return sql;
+    }
+}
@@ -0,0 +1,12 @@
+package com.bobocode.util.streaming;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} maps the current row of a {@link ResultSet} to an object. It must not move the cursor.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,37 @@
+package com.bobocode.util.streaming;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowWidthEstimator} estimates how much heap a row of a {@link ResultSet} takes in the driver's fetch buffer.
+ * It is approximate: it counts the payload of column values and a fixed overhead per value.
+ */
+class RowWidthEstimator {
+    private static final int VALUE_OVERHEAD = 16;
+
+    private RowWidthEstimator() {
+    }
+
+    static long estimate(ResultSet resultSet, int columnCount) throws SQLException {
+        long width = VALUE_OVERHEAD;
+        for (int column = 1; column <= columnCount; column++) {
+            width += VALUE_OVERHEAD + payload(resultSet.getObject(column));
+        }
+        return width;
+    }
+
+    private static long payload(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof CharSequence) {
+            return 2L * ((CharSequence) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if (value instanceof BigDecimal) {
+            return 8 + ((BigDecimal) value).unscaledValue().bitLength() / 8;
+        }
+        return 8;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bobocode.util.streaming;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link StatementBinder} sets parameters of a {@link PreparedStatement} before it is executed
+ */
+@FunctionalInterface
+public interface StatementBinder {
+    StatementBinder NO_PARAMETERS = statement -> {
+    };
+
+    void bind(PreparedStatement statement) throws SQLException;
+}
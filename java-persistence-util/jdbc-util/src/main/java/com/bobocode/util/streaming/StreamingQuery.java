@@ -0,0 +1,251 @@
+package com.bobocode.util.streaming;
+
+import com.bobocode.util.JdbcUtil;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.engine.Session;
+import org.h2.engine.SessionInterface;
+import org.h2.jdbc.JdbcConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link StreamingQuery} runs a query and returns its rows as a lazily populated {@link Stream} over a forward-only
+ * cursor, so a large result is never loaded into memory at once. Each stream uses its own connection. The stream
+ * must be closed (use try-with-resources); closing releases the result set, the statement and the connection.
+ * Resources are also released as soon as the last row is read.
+ * <p>
+ * The driver is configured for real streaming: PostgreSQL fetches rows in batches only inside a transaction, so
+ * auto-commit is switched off for the stream's lifetime; embedded H2 materializes results unless lazy query execution
+ * is on, so it is switched on when it is off. The connection settings are restored on close.
+ * <p>
+ * The fetch size adapts to the data: the width of the first row of each batch is estimated, and the next batch size is
+ * chosen so that a batch takes about {@code batchMemoryBudget} bytes, within {@code minFetchSize..maxFetchSize}.
+ */
+@Slf4j
+public class StreamingQuery {
+    public static final long DEFAULT_BATCH_MEMORY_BUDGET = 4 * 1024 * 1024;
+    public static final int DEFAULT_INITIAL_FETCH_SIZE = 100;
+    public static final int DEFAULT_MIN_FETCH_SIZE = 10;
+    public static final int DEFAULT_MAX_FETCH_SIZE = 10_000;
+
+    private final DataSource dataSource;
+    private final long batchMemoryBudget;
+    private final int initialFetchSize;
+    private final int minFetchSize;
+    private final int maxFetchSize;
+
+    @Builder
+    private StreamingQuery(DataSource dataSource, Long batchMemoryBudget, Integer initialFetchSize,
+                           Integer minFetchSize, Integer maxFetchSize) {
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source is required");
+        this.batchMemoryBudget = batchMemoryBudget == null ? DEFAULT_BATCH_MEMORY_BUDGET : batchMemoryBudget;
+        this.minFetchSize = minFetchSize == null ? DEFAULT_MIN_FETCH_SIZE : minFetchSize;
+        this.maxFetchSize = maxFetchSize == null ? DEFAULT_MAX_FETCH_SIZE : maxFetchSize;
+        this.initialFetchSize = initialFetchSize == null ? DEFAULT_INITIAL_FETCH_SIZE : initialFetchSize;
+        if (this.batchMemoryBudget <= 0 || this.minFetchSize < 1 || this.maxFetchSize < this.minFetchSize) {
+            throw new IllegalArgumentException("Invalid streaming query settings");
+        }
+    }
+
+    /**
+     * Creates a streaming query with default settings
+     *
+     * @param dataSource data source that provides a connection for each stream
+     * @return streaming query
+     */
+    public static StreamingQuery of(DataSource dataSource) {
+        return builder().dataSource(dataSource).build();
+    }
+
+    public <T> Stream<T> stream(String sql, RowMapper<T> rowMapper) {
+        return stream(sql, StatementBinder.NO_PARAMETERS, rowMapper);
+    }
+
+    /**
+     * Executes a query and returns a lazy stream of mapped rows
+     *
+     * @param sql       query
+     * @param binder    sets query parameters
+     * @param rowMapper maps a row
+     * @return stream that must be closed
+     * @throws StreamingQueryException if the query cannot be executed, or a row cannot be fetched later
+     */
+    public <T> Stream<T> stream(String sql, StatementBinder binder, RowMapper<T> rowMapper) {
+        Cursor<T> cursor = new Cursor<>(sql, rowMapper);
+        try {
+            cursor.open(binder);
+        } catch (SQLException | RuntimeException e) {
+            cursor.close();
+            throw new StreamingQueryException(String.format("Cannot execute streaming query: %s", sql), e);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    int adaptFetchSize(long rowWidth) {
+        long fetchSize = batchMemoryBudget / Math.max(1, rowWidth);
+        return (int) Math.max(minFetchSize, Math.min(maxFetchSize, fetchSize));
+    }
+
+    private class Cursor<T> implements Iterator<T> {
+        private final String sql;
+        private final RowMapper<T> rowMapper;
+        private Connection connection;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+        private boolean originalAutoCommit = true;
+        private boolean lazyExecutionEnabled;
+        private int columnCount;
+        private int fetchSize;
+        private int rowsInBatch;
+        private boolean hasNextRow;
+        private boolean advanced;
+        private boolean closed;
+
+        Cursor(String sql, RowMapper<T> rowMapper) {
+            this.sql = sql;
+            this.rowMapper = rowMapper;
+        }
+
+        void open(StatementBinder binder) throws SQLException {
+            connection = dataSource.getConnection();
+            originalAutoCommit = connection.getAutoCommit();
+            if (JdbcUtil.isPostgres(connection) && originalAutoCommit) {
+                connection.setAutoCommit(false);
+            } else if (JdbcUtil.isH2(connection) && !isLazyExecution()) {
+                setLazyExecution(true);
+                lazyExecutionEnabled = true;
+            }
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            fetchSize = initialFetchSize;
+            statement.setFetchSize(fetchSize);
+            binder.bind(statement);
+            resultSet = statement.executeQuery();
+            columnCount = resultSet.getMetaData().getColumnCount();
+        }
+
+        /**
+         * Reads the lazy execution flag of an embedded H2 session. The flag of a remote session cannot be read, so it
+         * is reported as off and the stream switches it on and off again.
+         */
+        private boolean isLazyExecution() throws SQLException {
+            if (connection.isWrapperFor(JdbcConnection.class)) {
+                SessionInterface session = connection.unwrap(JdbcConnection.class).getSession();
+                return session instanceof Session && ((Session) session).isLazyQueryExecution();
+            }
+            return false;
+        }
+
+        private void setLazyExecution(boolean lazy) throws SQLException {
+            try (Statement setting = connection.createStatement()) {
+                setting.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? 1 : 0));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!advanced) {
+                advance();
+            }
+            return hasNextRow;
+        }
+
+        private void advance() {
+            if (closed) {
+                hasNextRow = false;
+                advanced = true;
+                return;
+            }
+            try {
+                hasNextRow = resultSet.next();
+                advanced = true;
+                if (!hasNextRow) {
+                    close();
+                    return;
+                }
+                if (rowsInBatch == 0) {
+                    adapt();
+                }
+                if (++rowsInBatch >= fetchSize) {
+                    rowsInBatch = 0;
+                }
+            } catch (SQLException e) {
+                close();
+                throw new StreamingQueryException(String.format("Cannot fetch a row of streaming query: %s", sql), e);
+            }
+        }
+
+        private void adapt() throws SQLException {
+            int adapted = adaptFetchSize(RowWidthEstimator.estimate(resultSet, columnCount));
+            if (adapted != fetchSize) {
+                fetchSize = adapted;
+                resultSet.setFetchSize(fetchSize);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            try {
+                return rowMapper.mapRow(resultSet);
+            } catch (SQLException e) {
+                close();
+                throw new StreamingQueryException(String.format("Cannot map a row of streaming query: %s", sql), e);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+            if (connection != null) {
+                try {
+                    restoreConnectionSettings();
+                } catch (SQLException e) {
+                    log.warn("Cannot restore connection settings after streaming query: {}", sql, e);
+                }
+                closeQuietly(connection);
+            }
+        }
+
+        private void closeQuietly(AutoCloseable resource) {
+            if (resource == null) {
+                return;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.warn("Cannot release resources of streaming query: {}", sql, e);
+            }
+        }
+
+        private void restoreConnectionSettings() throws SQLException {
+            if (lazyExecutionEnabled) {
+                setLazyExecution(false);
+            }
+            if (connection.getAutoCommit() != originalAutoCommit) {
+                connection.rollback();
+                connection.setAutoCommit(originalAutoCommit);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.bobocode.util.streaming;
+
+public class StreamingQueryException extends RuntimeException {
+    public StreamingQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,144 @@
+package com.bobocode.util.template;
+
+import com.bobocode.util.JdbcUtil;
+import org.h2.store.fs.FileUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * {@link H2TemplateDatabase} builds schema and seed data once and creates new in-memory H2 databases from a snapshot.
+ * <p>
+ * The template is built in H2 in-memory file system ({@code memFS}), defragmented and closed, and its MVStore file is kept
+ * as a byte array. A new database is created by writing the snapshot to a new {@code memFS} file, so its cost depends
+ * on the snapshot size only, not on the number of DDL and INSERT statements that built it. The databases live in memory
+ * until {@link H2TemplateDatabase#dropDatabase(String)} is called.
+ * <pre>{@code
+ * H2TemplateDatabase template = H2TemplateDatabase.create("wall_street",
+ *         dataSource -> new WallStreetDbInitializer(dataSource).init());
+ * DataSource dataSource = template.createDatabase("wall_street_test");
+ * }</pre>
+ */
+public class H2TemplateDatabase {
+    private static final Pattern DATABASE_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+    private static final String DB_USERNAME = "sa";
+    private static final String DB_PASSWORD = "";
+
+    private final String name;
+    private final byte[] snapshot;
+
+    private H2TemplateDatabase(String name, byte[] snapshot) {
+        this.name = name;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Builds a template database and takes its snapshot
+     *
+     * @param name        template name
+     * @param initializer creates schema and seed data
+     * @return template that can create databases
+     */
+    public static H2TemplateDatabase create(String name, TemplateInitializer initializer) {
+        verifyName(name);
+        String templateName = "template_" + name;
+        String url = formatMemFsDbUrl(templateName, false);
+        try {
+            initializer.init(JdbcUtil.createInMemoryH2DataSource(url, DB_USERNAME, DB_PASSWORD));
+            try (Connection connection = JdbcUtil.createInMemoryH2DataSource(url, DB_USERNAME, DB_PASSWORD)
+                    .getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN DEFRAG");
+            }
+            return new H2TemplateDatabase(name, readFile(dbFile(templateName)));
+        } catch (SQLException | IOException e) {
+            throw new TemplateDatabaseException(String.format("Cannot build template database %s", name), e);
+        } finally {
+            FileUtils.tryDelete(dbFile(templateName));
+        }
+    }
+
+    /**
+     * Creates a new named in-memory database from the snapshot
+     *
+     * @param databaseName name of the new database
+     * @return data source of the new database
+     */
+    public DataSource createDatabase(String databaseName) {
+        verifyName(databaseName);
+        String file = dbFile(databaseName);
+        if (FileUtils.exists(file)) {
+            throw new TemplateDatabaseException(String.format("Database %s already exists", databaseName));
+        }
+        try (OutputStream out = FileUtils.newOutputStream(file, false)) {
+            out.write(snapshot);
+        } catch (IOException e) {
+            FileUtils.tryDelete(file);
+            throw new TemplateDatabaseException(String.format("Cannot create database %s from template %s",
+                    databaseName, name), e);
+        }
+        return JdbcUtil.createInMemoryH2DataSource(formatMemFsDbUrl(databaseName, true), DB_USERNAME, DB_PASSWORD);
+    }
+
+    /**
+     * Closes a database created by this template and frees its memory
+     *
+     * @param databaseName name of the database
+     */
+    public void dropDatabase(String databaseName) {
+        verifyName(databaseName);
+        String file = dbFile(databaseName);
+        if (!FileUtils.exists(file)) {
+            return;
+        }
+        try (Connection connection = JdbcUtil.createInMemoryH2DataSource(formatMemFsDbUrl(databaseName, true),
+                DB_USERNAME, DB_PASSWORD).getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            throw new TemplateDatabaseException(String.format("Cannot close database %s", databaseName), e);
+        }
+        FileUtils.delete(file);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the size of the snapshot, that is copied for every new database
+     *
+     * @return snapshot size in bytes
+     */
+    public int getSnapshotSize() {
+        return snapshot.length;
+    }
+
+    private static byte[] readFile(String file) throws IOException {
+        try (InputStream in = FileUtils.newInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) FileUtils.size(file));
+            in.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void verifyName(String name) {
+        if (name == null || !DATABASE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid database name: %s", name));
+        }
+    }
+
+    private static String dbFile(String databaseName) {
+        return "memFS:" + databaseName + ".mv.db";
+    }
+
+    private static String formatMemFsDbUrl(String databaseName, boolean keepOpen) {
+        return String.format("jdbc:h2:memFS:%s;%sDATABASE_TO_UPPER=false;", databaseName,
+                keepOpen ? "DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;" : "");
+    }
+}
@@ -0,0 +1,11 @@
+package com.bobocode.util.template;
+
+public class TemplateDatabaseException extends RuntimeException {
+    public TemplateDatabaseException(String message) {
+        super(message);
+    }
+
+    public TemplateDatabaseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.bobocode.util.template;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * {@link TemplateInitializer} creates schema and seed data of a template database, e.g.
+ * {@code dataSource -> new WallStreetDbInitializer(dataSource).init()}
+ */
+@FunctionalInterface
+public interface TemplateInitializer {
+    void init(DataSource dataSource) throws SQLException;
+}
@@ -0,0 +1,26 @@
+package com.bobocode.util.tenant;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ProvisioningReport} describes a run of {@link TenantProvisioner#provision(java.util.Collection)}
+ */
+@Value
+public class ProvisioningReport {
+    /**
+     * Tenants which schemas were created and initialized
+     */
+    List<String> provisioned;
+    /**
+     * Tenants that failed, with their errors
+     */
+    Map<String, Exception> failures;
+    long elapsedNanos;
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+}
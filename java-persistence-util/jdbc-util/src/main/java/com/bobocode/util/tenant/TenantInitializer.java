@@ -0,0 +1,13 @@
+package com.bobocode.util.tenant;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * {@link TenantInitializer} creates the tables of one tenant. The data source it gets is bound to the tenant schema,
+ * so existing initializers can be plugged in as is, e.g. {@code ds -> new UserProfileDbInitializer(ds).init()}.
+ */
+@FunctionalInterface
+public interface TenantInitializer {
+    void initialize(DataSource tenantDataSource) throws SQLException;
+}
@@ -0,0 +1,102 @@
+package com.bobocode.util.tenant;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TenantProvisioner} creates a schema per tenant and runs a {@link TenantInitializer} in it. Tenants are
+ * provisioned concurrently by a fixed number of threads, so the number of connections used at the same time is
+ * bounded by {@code parallelism} (it should not exceed the size of the connection pool). A failure of one tenant does
+ * not stop the others, it is reported in {@link ProvisioningReport}.
+ */
+@Slf4j
+public class TenantProvisioner {
+    private final TenantRoutingDataSource routingDataSource;
+    private final TenantInitializer initializer;
+    private final int parallelism;
+
+    @Builder
+    private TenantProvisioner(DataSource dataSource, TenantInitializer initializer, Integer parallelism) {
+        Objects.requireNonNull(dataSource, "Data source is required");
+        this.routingDataSource = dataSource instanceof TenantRoutingDataSource
+                ? (TenantRoutingDataSource) dataSource : TenantRoutingDataSource.of(dataSource);
+        this.initializer = Objects.requireNonNull(initializer, "Initializer is required");
+        this.parallelism = parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+        if (this.parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+    }
+
+    /**
+     * Creates and initializes the schemas of the tenants
+     *
+     * @param tenants tenant schema names
+     * @return provisioning report
+     */
+    public ProvisioningReport provision(Collection<String> tenants) {
+        long start = System.nanoTime();
+        tenants.forEach(TenantRoutingDataSource::validate);
+        Map<String, Future<?>> tasks = new LinkedHashMap<>();
+        ExecutorService executor = newDaemonExecutor(Math.min(parallelism, Math.max(tenants.size(), 1)));
+        try {
+            for (String tenant : tenants) {
+                tasks.put(tenant, executor.submit(() -> {
+                    provision(tenant);
+                    return null;
+                }));
+            }
+            List<String> provisioned = new ArrayList<>(tasks.size());
+            Map<String, Exception> failures = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<?>> task : tasks.entrySet()) {
+                try {
+                    task.getValue().get();
+                    provisioned.add(task.getKey());
+                } catch (ExecutionException e) {
+                    log.warn("Cannot provision tenant {}", task.getKey(), e.getCause());
+                    failures.put(task.getKey(), e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.put(task.getKey(), e);
+                }
+            }
+            return new ProvisioningReport(Collections.unmodifiableList(provisioned),
+                    Collections.unmodifiableMap(failures), System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void provision(String tenant) throws SQLException {
+        try (Connection connection = routingDataSource.getTargetDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + tenant);
+        }
+        initializer.initialize(routingDataSource.forTenant(tenant));
+    }
+
+    private static ExecutorService newDaemonExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tenant-provisioner-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.bobocode.util.tenant;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.ThreadScopeStack;
+import com.bobocode.util.jdbc.DelegatingConnection;
+import com.bobocode.util.jdbc.DelegatingDataSource;
+import lombok.Builder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * {@link TenantRoutingDataSource} serves a database with one schema per tenant. It borrows connections from the
+ * target data source (usually a pool) and switches them to the schema of the tenant bound by
+ * {@link TenantRoutingDataSource#tenantScope(String)}, or to {@code defaultSchema} outside of a scope.
+ * <p>
+ * The schema that is set on every physical connection is cached, so a connection that is borrowed again by the same
+ * tenant costs no round-trip. The cache relies on the schema being changed only through this data source.
+ * H2 ({@code SET SCHEMA}) and PostgreSQL ({@code SET search_path}) are supported.
+ */
+public class TenantRoutingDataSource extends DelegatingDataSource {
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final String defaultSchema;
+    private final ThreadScopeStack<String> tenantScopes = new ThreadScopeStack<>();
+    private final Map<Connection, String> currentSchemas = Collections.synchronizedMap(new WeakHashMap<>());
+    private final LongAdder schemaSwitches = new LongAdder();
+    private volatile Boolean postgres;
+
+    @Builder
+    private TenantRoutingDataSource(DataSource targetDataSource, String defaultSchema) {
+        super(targetDataSource);
+        this.defaultSchema = defaultSchema == null ? null : validate(defaultSchema);
+    }
+
+    public static TenantRoutingDataSource of(DataSource targetDataSource) {
+        return builder().targetDataSource(targetDataSource).build();
+    }
+
+    /**
+     * Obtains a connection that uses the schema of the current tenant
+     *
+     * @throws SQLException if no tenant is bound and there is no default schema
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        String schema = currentSchema();
+        return route(targetDataSource.getConnection(), schema);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        String schema = currentSchema();
+        return route(targetDataSource.getConnection(username, password), schema);
+    }
+
+    /**
+     * Binds a tenant to the current thread. Use it with try-with-resources.
+     *
+     * @param tenant tenant schema name
+     * @return scope that unbinds the tenant when closed
+     */
+    public TenantScope tenantScope(String tenant) {
+        String schema = validate(tenant);
+        tenantScopes.push(schema);
+        return tenantScopes::pop;
+    }
+
+    /**
+     * Returns a data source that always uses the schema of the given tenant, regardless of the current scope
+     *
+     * @param tenant tenant schema name
+     * @return tenant data source
+     */
+    public DataSource forTenant(String tenant) {
+        String schema = validate(tenant);
+        return new DelegatingDataSource(targetDataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return route(targetDataSource.getConnection(), schema);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return route(targetDataSource.getConnection(username, password), schema);
+            }
+        };
+    }
+
+    /**
+     * Returns the number of schema switches, that is round-trips spent on routing
+     */
+    public long getSchemaSwitches() {
+        return schemaSwitches.sum();
+    }
+
+    private String currentSchema() throws SQLException {
+        String schema = tenantScopes.peek();
+        if (schema != null) {
+            return schema;
+        }
+        if (defaultSchema == null) {
+            throw new SQLException("No tenant is bound to the current thread and there is no default schema");
+        }
+        return defaultSchema;
+    }
+
+    private Connection route(Connection connection, String schema) throws SQLException {
+        Connection physicalConnection = connection instanceof DelegatingConnection
+                ? ((DelegatingConnection) connection).getInnermostDelegate() : connection;
+        if (physicalConnection != null && schema.equals(currentSchemas.get(physicalConnection))) {
+            return connection;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(isPostgres(connection) ? "SET search_path TO " + schema : "SET SCHEMA " + schema);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        schemaSwitches.increment();
+        if (physicalConnection != null) {
+            currentSchemas.put(physicalConnection, schema);
+        }
+        return connection;
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        Boolean current = postgres;
+        if (current == null) {
+            current = JdbcUtil.isPostgres(connection);
+            postgres = current;
+        }
+        return current;
+    }
+
+    static String validate(String schema) {
+        if (schema == null || !SCHEMA_NAME.matcher(schema).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid tenant schema name: %s", schema));
+        }
+        return schema;
+    }
+}
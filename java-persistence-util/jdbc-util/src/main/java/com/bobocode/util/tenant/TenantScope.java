@@ -0,0 +1,10 @@
+package com.bobocode.util.tenant;
+
+/**
+ * {@link TenantScope} binds a tenant to the current thread for a {@link TenantRoutingDataSource}. All the connections
+ * obtained by this thread inside the scope use the tenant schema. Scopes can be nested, the innermost one wins.
+ */
+public interface TenantScope extends AutoCloseable {
+    @Override
+    void close();
+}
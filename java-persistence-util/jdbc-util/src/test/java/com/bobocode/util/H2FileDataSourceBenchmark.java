@@ -0,0 +1,107 @@
+package com.bobocode.util;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link H2FileDataSourceBenchmark} compares in-memory and file-backed H2 on the {@code account} table: batched inserts
+ * of N rows and a full scan with an aggregate. Run it with {@code main()}, the optional argument is the number of rows
+ * (10 000 000 by default). In-memory mode needs a heap that fits all the rows (about 1 GB per 3 million rows), so with
+ * a small heap it fails with {@link OutOfMemoryError}, while file mode keeps only the page cache in memory.
+ */
+public class H2FileDataSourceBenchmark {
+    private static final int BATCH_SIZE = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directory = Files.createTempDirectory("h2-file-benchmark");
+
+        run("file", JdbcUtil.createFileH2DataSource(directory.resolve("default"), H2FileOptions.builder().build()),
+                rows);
+        run("file, 256 MB cache, 2 s write delay", JdbcUtil.createFileH2DataSource(directory.resolve("tuned"),
+                H2FileOptions.builder().cacheSizeMb(256).writeDelay(Duration.ofSeconds(2)).build()), rows);
+        run("file, compressed", JdbcUtil.createFileH2DataSource(directory.resolve("compressed"),
+                H2FileOptions.builder().cacheSizeMb(256).compress(true).build()), rows);
+        run("in-memory", JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:file_benchmark;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", "sa", ""), rows);
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static void run(String mode, DataSource dataSource, int rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            createAccountTable(connection);
+            long start = System.nanoTime();
+            insertAccounts(connection, rows);
+            long insertNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BigDecimal totalBalance = scanAccounts(connection);
+            long scanNanos = System.nanoTime() - start;
+
+            System.out.printf("%-40s insert %,.0f rows/s, scan %,d ms (total balance %s)%n", mode,
+                    rows / (insertNanos / 1e9), TimeUnit.NANOSECONDS.toMillis(scanNanos), totalBalance);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE account");
+            }
+        }
+    }
+
+    private static void createAccountTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE account (id BIGINT, email VARCHAR(255) NOT NULL, " +
+                    "first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, gender VARCHAR(255) NOT NULL, " +
+                    "birthday DATE NOT NULL, balance DECIMAL(19, 4), creation_time TIMESTAMP NOT NULL DEFAULT now(), " +
+                    "CONSTRAINT account_pk PRIMARY KEY (id))");
+        }
+    }
+
+    private static void insertAccounts(Connection connection, int rows) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO account " +
+                "(id, email, first_name, last_name, gender, birthday, balance) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "user" + i + "@mail.com");
+                insert.setString(3, "First" + i);
+                insert.setString(4, "Last" + i);
+                insert.setString(5, i % 2 == 0 ? "FEMALE" : "MALE");
+                insert.setDate(6, Date.valueOf(LocalDate.of(1990, 1, 1).plusDays(i % 10_000)));
+                insert.setBigDecimal(7, BigDecimal.valueOf(i % 100_000, 2));
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static BigDecimal scanAccounts(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT sum(balance) FROM account WHERE gender = 'MALE'")) {
+            resultSet.next();
+            return resultSet.getBigDecimal(1);
+        }
+    }
+}
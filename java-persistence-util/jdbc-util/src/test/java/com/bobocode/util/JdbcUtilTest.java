@@ -0,0 +1,62 @@
+package com.bobocode.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdbcUtilTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("File H2 options are formatted as url settings")
+    void formatsFileH2Url() {
+        H2FileOptions options = H2FileOptions.builder()
+                .cacheSizeMb(64)
+                .compress(true)
+                .writeDelay(Duration.ofMillis(1000))
+                .build();
+
+        String url = JdbcUtil.formatH2FileDbUrl(tempDir.resolve("accounts"), options);
+
+        assertThat(url).startsWith("jdbc:h2:file:" + tempDir.resolve("accounts").toAbsolutePath() + ";")
+                .contains(";CACHE_SIZE=65536;", ";COMPRESS=TRUE;", ";WRITE_DELAY=1000;", ";DATABASE_TO_UPPER=false;");
+    }
+
+    @Test
+    @DisplayName("Default file H2 options keep H2 defaults")
+    void defaultOptionsAddNoSettings() {
+        assertThat(H2FileOptions.builder().build().toUrlSettings()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("File H2 database keeps data after it is closed")
+    void fileDatabaseKeepsData() throws SQLException {
+        Path databasePath = tempDir.resolve("accounts");
+        DataSource dataSource = JdbcUtil.createFileH2DataSource(databasePath,
+                H2FileOptions.builder().cacheSizeMb(4).compress(true).build());
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE account (id BIGINT PRIMARY KEY, email VARCHAR(255))");
+            statement.execute("INSERT INTO account VALUES (1, 'john@mail.com')");
+        }
+
+        assertThat(Files.exists(tempDir.resolve("accounts.mv.db"))).isTrue();
+        try (Connection connection = JdbcUtil.createFileH2DataSource(databasePath).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT email FROM account WHERE id = 1")) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getString("email")).isEqualTo("john@mail.com");
+        }
+    }
+}
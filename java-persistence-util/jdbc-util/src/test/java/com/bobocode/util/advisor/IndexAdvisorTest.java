@@ -0,0 +1,126 @@
+package com.bobocode.util.advisor;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.advisor.IndexRecommendation.Reason;
+import com.bobocode.util.metrics.InstrumentedDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexAdvisorTest {
+    private DataSource rawDataSource;
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        rawDataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:index_advisor_test;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false", "sa", "");
+        dataSource = new InstrumentedDataSource(rawDataSource);
+        try (Connection connection = rawDataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE broker (id BIGINT, username VARCHAR(255) NOT NULL, " +
+                    "first_name VARCHAR(255), last_name VARCHAR(255), " +
+                    "CONSTRAINT PK_broker PRIMARY KEY (id), CONSTRAINT UQ_broker_username UNIQUE (username))");
+            statement.execute("CREATE TABLE sales_group (id BIGINT, name VARCHAR(255) NOT NULL, " +
+                    "transaction_type VARCHAR(255), max_transaction_amount INT, " +
+                    "CONSTRAINT PK_sales_group PRIMARY KEY (id))");
+            statement.execute("CREATE TABLE broker_sales_group (broker_id BIGINT, sales_group_id BIGINT, " +
+                    "CONSTRAINT PK_broker_sales_group PRIMARY KEY (broker_id, sales_group_id))");
+            statement.execute("INSERT INTO broker SELECT x, 'user' || x, 'First' || x, 'Last' || x " +
+                    "FROM SYSTEM_RANGE(1, 1000)");
+            statement.execute("INSERT INTO sales_group SELECT x, 'group' || x, 'TYPE' || MOD(x, 5), x " +
+                    "FROM SYSTEM_RANGE(1, 100)");
+        }
+    }
+
+    @Test
+    @DisplayName("Captured queries that filter by unindexed columns get an index with equality columns first")
+    void flagsFullScanPredicates() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            query("SELECT * FROM broker b WHERE b.last_name = ? AND b.first_name = ?", "Last1", "First1");
+        }
+        query("SELECT * FROM sales_group WHERE max_transaction_amount > ? AND transaction_type = ?", 10, "TYPE1");
+
+        IndexAdvice advice = IndexAdvisor.of(rawDataSource).advise(dataSource.getMetrics().getStatements());
+
+        assertThat(advice.getRecommendations()).extracting(IndexRecommendation::getDdl).containsExactly(
+                "CREATE INDEX idx_broker_last_name_first_name ON broker (last_name, first_name)",
+                "CREATE INDEX idx_sales_group_transaction_type_max_transaction_amount " +
+                        "ON sales_group (transaction_type, max_transaction_amount)");
+        IndexRecommendation broker = advice.getRecommendations().get(0);
+        assertThat(broker.getReasons()).containsExactly(Reason.FULL_SCAN_PREDICATE);
+        assertThat(broker.getEstimatedBenefit()).isEqualTo(3000);
+    }
+
+    @Test
+    @DisplayName("Queries served by a leading index column are not flagged")
+    void skipsIndexedPredicates() throws SQLException {
+        query("SELECT * FROM broker WHERE username = ?", "user1");
+        query("SELECT s.* FROM sales_group s JOIN broker_sales_group bsg ON bsg.sales_group_id = s.id " +
+                "WHERE bsg.broker_id = ?", 1);
+        query("SELECT * FROM broker WHERE id IN (?, ?) AND first_name = ?", 1, 2, "First1");
+
+        IndexAdvice advice = IndexAdvisor.of(rawDataSource).advise(dataSource.getMetrics().getStatements());
+
+        assertThat(advice.getRecommendations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Applying the advice leaves nothing to recommend")
+    void adviceCanBeApplied() throws SQLException {
+        query("SELECT * FROM broker WHERE first_name LIKE ?", "First%");
+        IndexAdvisor advisor = IndexAdvisor.of(rawDataSource);
+        IndexAdvice advice = advisor.advise(dataSource.getMetrics().getStatements());
+        try (Connection connection = rawDataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(advice.toDdlScript());
+        }
+
+        assertThat(advisor.advise(dataSource.getMetrics().getStatements()).getRecommendations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A foreign key on the second column of a composite primary key is flagged")
+    void flagsUnindexedForeignKeys() {
+        TableInfo link = new TableInfo("broker_sales_group", 500);
+        link.addColumn("broker_id");
+        link.addColumn("sales_group_id");
+        link.addIndexColumn("PK_broker_sales_group", "broker_id");
+        link.addIndexColumn("PK_broker_sales_group", "sales_group_id");
+        link.addForeignKeyColumn("FK_broker_sales_group_broker", "broker_id");
+        link.addForeignKeyColumn("FK_broker_sales_group_sales_group", "sales_group_id");
+
+        IndexAdvice advice = IndexAdvisor.advise(Map.of(link.getName(), link), List.of());
+
+        assertThat(advice.getRecommendations()).singleElement().satisfies(recommendation -> {
+            assertThat(recommendation.getReasons()).containsExactly(Reason.UNINDEXED_FOREIGN_KEY);
+            assertThat(recommendation.getEstimatedBenefit()).isEqualTo(500);
+            assertThat(recommendation.getDdl()).isEqualTo(
+                    "CREATE INDEX idx_broker_sales_group_sales_group_id ON broker_sales_group (sales_group_id)");
+        });
+    }
+
+    private void query(String sql, Object... parameters) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getObject(1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bobocode.util.bulkhead;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BulkheadDataSourceTest {
+    private BulkheadDataSource dataSource;
+
+    @BeforeEach
+    void init() {
+        dataSource = BulkheadDataSource.builder()
+                .targetDataSource(JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:bulkhead_test;DB_CLOSE_DELAY=-1",
+                        "sa", ""))
+                .compartment(WorkClass.INTERACTIVE, CompartmentConfig.builder().maxConcurrent(2).build())
+                .compartment(WorkClass.BATCH, CompartmentConfig.builder()
+                        .maxConcurrent(1)
+                        .maxQueued(1)
+                        .queueTimeout(Duration.ofMillis(100))
+                        .build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Batch work cannot take connections of interactive work")
+    void isolatesWorkClasses() throws SQLException {
+        try (Connection batch = dataSource.getConnection(WorkClass.BATCH);
+             Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+            assertThat(dataSource.snapshot(WorkClass.BATCH).getActive()).isEqualTo(1);
+            assertThat(dataSource.snapshot(WorkClass.INTERACTIVE).getActive()).isEqualTo(2);
+        }
+        assertThat(dataSource.snapshot(WorkClass.INTERACTIVE).getActive()).isZero();
+    }
+
+    @Test
+    @DisplayName("Excess work is rejected immediately when the queue is disabled")
+    void rejectsFastWithoutQueue() throws SQLException {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            assertThatExceptionOfType(BulkheadRejectedException.class)
+                    .isThrownBy(() -> dataSource.getConnection())
+                    .satisfies(e -> assertThat(e.getWorkClass()).isEqualTo(WorkClass.INTERACTIVE));
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertThat(dataSource.snapshot(WorkClass.INTERACTIVE).getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Queued work is rejected after the queue timeout")
+    void rejectsAfterQueueTimeout() throws SQLException {
+        try (Connection batch = dataSource.getConnection(WorkClass.BATCH)) {
+            assertThatExceptionOfType(BulkheadRejectedException.class)
+                    .isThrownBy(() -> dataSource.getConnection(WorkClass.BATCH));
+        }
+        CompartmentSnapshot snapshot = dataSource.snapshot(WorkClass.BATCH);
+        assertThat(snapshot.getTimedOut()).isEqualTo(1);
+        assertThat(snapshot.getQueueWait().getMaxNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(90).toNanos());
+    }
+
+    @Test
+    @DisplayName("Queued work gets a permit when a connection is closed")
+    void admitsQueuedWork() throws Exception {
+        Connection batch = dataSource.getConnection(WorkClass.BATCH);
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> {
+            try (Connection connection = dataSource.getConnection(WorkClass.BATCH)) {
+                connection.isValid(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.snapshot(WorkClass.BATCH).getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        batch.close();
+
+        queued.get(1, TimeUnit.SECONDS);
+        assertThat(dataSource.snapshot(WorkClass.BATCH).getAdmitted()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Work scope tags connections of the current thread")
+    void tagsConnectionsWithWorkScope() throws SQLException {
+        try (WorkScope scope = dataSource.workScope(WorkClass.ADMIN); Connection connection = dataSource.getConnection()) {
+            assertThat(dataSource.snapshot(WorkClass.ADMIN).getActive()).isEqualTo(1);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(dataSource.snapshot(WorkClass.INTERACTIVE).getActive()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.bobocode.util.leak;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LeakDetectingDataSourceTest {
+    private LeakDetectingDataSource dataSource;
+
+    @BeforeEach
+    void init() {
+        dataSource = LeakDetectingDataSource.builder()
+                .targetDataSource(JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:leak_test;DB_CLOSE_DELAY=-1",
+                        "sa", ""))
+                .leakThreshold(Duration.ofMillis(50))
+                .stackTraceSampling(1)
+                .build();
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("A connection held longer than the threshold is reported with its call site and open statements")
+    void reportsLeakedConnection() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+            connection.prepareStatement("SELECT 1").close();
+            Thread.sleep(100);
+
+            List<HeldConnection> leaks = dataSource.detectLeaks();
+
+            assertThat(leaks).hasSize(1);
+            HeldConnection leak = leaks.get(0);
+            assertThat(leak.getCallSite()).contains("LeakDetectingDataSourceTest.reportsLeakedConnection");
+            assertThat(leak.getOpenStatements()).isEqualTo(1);
+            assertThat(leak.getHeldNanos()).isGreaterThan(Duration.ofMillis(50).toNanos());
+            assertThat(leak.getAcquiredAt()).isNotEmpty();
+        }
+        assertThat(dataSource.getMetrics().getLeaksDetected()).isEqualTo(1);
+        assertThat(dataSource.detectLeaks()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A leak is counted only once")
+    void reportsLeakOnce() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            Thread.sleep(100);
+            dataSource.detectLeaks();
+            dataSource.detectLeaks();
+        }
+
+        assertThat(dataSource.getMetrics().getLeaksDetected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Connections held shorter than the threshold are not reported")
+    void ignoresShortHolds() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(dataSource.detectLeaks()).isEmpty();
+            assertThat(dataSource.getHeldConnections()).hasSize(1);
+        }
+        assertThat(dataSource.getHeldConnections()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Hold time is recorded per call site")
+    void recordsHoldTimePerCallSite() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            useConnection();
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.isValid(1);
+        }
+
+        List<CallSiteSnapshot> callSites = dataSource.getMetrics().getCallSites();
+
+        assertThat(callSites).hasSize(2);
+        assertThat(callSites).filteredOn(callSite -> callSite.getCallSite().contains("useConnection"))
+                .singleElement()
+                .satisfies(callSite -> assertThat(callSite.getHoldTime().getCount()).isEqualTo(3));
+        assertThat(dataSource.getMetrics().getActiveConnections()).isZero();
+    }
+
+    @Test
+    @DisplayName("Statements that are not closed before the connection are counted")
+    void countsUnclosedStatements() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            Statement statement = connection.createStatement();
+            statement.execute("SELECT 1");
+            PreparedStatement preparedStatement = connection.prepareStatement("SELECT 1");
+            preparedStatement.close();
+            preparedStatement.close();
+        }
+
+        assertThat(dataSource.getMetrics().getUnclosedStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Callable statements are counted as open statements")
+    void countsCallableStatements() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            CallableStatement callableStatement = connection.prepareCall("CALL 1");
+            callableStatement.execute();
+            connection.prepareCall("CALL 2").close();
+            Thread.sleep(100);
+
+            List<HeldConnection> leaks = dataSource.detectLeaks();
+
+            assertThat(leaks).hasSize(1);
+            assertThat(leaks.get(0).getOpenStatements()).isEqualTo(1);
+        }
+
+        assertThat(dataSource.getMetrics().getUnclosedStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Stack traces are not captured when sampling is disabled")
+    void doesNotCaptureStackTraceWhenSamplingIsDisabled() throws SQLException {
+        LeakDetectingDataSource unsampled = LeakDetectingDataSource.builder()
+                .targetDataSource(dataSource.getTargetDataSource())
+                .stackTraceSampling(0)
+                .build();
+        try (Connection connection = unsampled.getConnection()) {
+            HeldConnection held = unsampled.getHeldConnections().get(0);
+
+            assertThat(held.getAcquiredAt()).isNull();
+            assertThat(held.getCallSite()).contains("doesNotCaptureStackTraceWhenSamplingIsDisabled");
+        }
+    }
+
+    private void useConnection() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.isValid(1);
+        }
+    }
+}
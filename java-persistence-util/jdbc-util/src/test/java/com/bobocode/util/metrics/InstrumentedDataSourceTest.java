@@ -0,0 +1,136 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class InstrumentedDataSourceTest {
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = new InstrumentedDataSource(JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:instrumented_test;DB_CLOSE_DELAY=-1", "sa", ""));
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        }
+        dataSource.getMetrics().reset();
+    }
+
+    @Test
+    @DisplayName("Executions of a prepared statement are recorded with affected and returned rows")
+    void recordsPreparedStatementExecutions() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO products VALUES (?, ?)")) {
+                for (long id = 1; id <= 3; id++) {
+                    insert.setLong(1, id);
+                    insert.setString(2, "Product " + id);
+                    insert.executeUpdate();
+                }
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT * FROM products WHERE id > ?")) {
+                select.setLong(1, 1);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getString("name");
+                    }
+                }
+            }
+        }
+
+        SqlMetricsSnapshot snapshot = dataSource.snapshot();
+        StatementSnapshot insert = snapshot.findStatement("INSERT INTO products VALUES (?, ?)").orElseThrow();
+        StatementSnapshot select = snapshot.findStatement("SELECT * FROM products WHERE id > ?").orElseThrow();
+        assertThat(insert.getExecutions()).isEqualTo(3);
+        assertThat(insert.getRows()).isEqualTo(3);
+        assertThat(insert.getLatency().getCount()).isEqualTo(3);
+        assertThat(insert.getLatency().getP99Nanos()).isPositive();
+        assertThat(select.getExecutions()).isEqualTo(1);
+        assertThat(select.getRows()).isEqualTo(2);
+        assertThat(snapshot.getConnectionAcquire().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Plain statements with different literals are recorded under the same shape")
+    void groupsStatementsByShape() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO products VALUES (1, 'Fanta')");
+            statement.executeUpdate("INSERT INTO products  VALUES (2, 'Sprite');");
+        }
+
+        StatementSnapshot insert = dataSource.snapshot().findStatement("INSERT INTO products VALUES (?, ?)").orElseThrow();
+        assertThat(insert.getExecutions()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Failed executions are counted as errors")
+    void recordsErrors() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO products VALUES (1, 'Fanta')");
+            assertThatExceptionOfType(SQLException.class)
+                    .isThrownBy(() -> statement.executeUpdate("INSERT INTO products VALUES (1, 'Fanta')"));
+        }
+
+        StatementSnapshot insert = dataSource.snapshot().findStatement("INSERT INTO products VALUES (?, ?)").orElseThrow();
+        assertThat(insert.getExecutions()).isEqualTo(2);
+        assertThat(insert.getErrors()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("SQL shapes hide literals, comments and IN list length")
+    void normalizesSql() {
+        assertThat(SqlShapes.normalize("SELECT * FROM account WHERE email = 'a''b@c.com' AND id IN (1, 2, 3) -- c\n"))
+                .isEqualTo("SELECT * FROM account WHERE email = ? AND id IN (?)");
+        assertThat(SqlShapes.normalize("SELECT t1.id FROM \"table 1\" t1 WHERE t1.id IN (?, ?) /* x */ LIMIT 10;"))
+                .isEqualTo("SELECT t1.id FROM \"table 1\" t1 WHERE t1.id IN (?) LIMIT ?");
+    }
+
+    @Test
+    @DisplayName("Number of SQL shapes is bounded")
+    void boundsNumberOfShapes() throws SQLException {
+        dataSource = new InstrumentedDataSource(dataSource.getTargetDataSource(), new SqlMetrics(2));
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT 1");
+            statement.executeQuery("SELECT count(*) FROM products");
+            statement.executeQuery("SELECT name FROM products");
+            statement.executeQuery("SELECT id FROM products");
+        }
+
+        SqlMetricsSnapshot snapshot = dataSource.snapshot();
+        assertThat(snapshot.getStatements()).hasSize(2);
+        assertThat(snapshot.findStatement(SqlMetrics.OTHER_STATEMENTS).orElseThrow().getExecutions()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Metrics are published via JMX")
+    void publishesMetricsToJmx() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT count(*) FROM products");
+        }
+
+        ObjectName objectName = dataSource.getMetrics().registerMBean("test");
+        try {
+            CompositeData[] statements = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(objectName, "Statements");
+            assertThat(statements).hasSize(1);
+            assertThat(statements[0].get("sql")).isEqualTo("SELECT count(*) FROM products");
+            assertThat(statements[0].get("executions")).isEqualTo(1L);
+        } finally {
+            dataSource.getMetrics().unregisterMBean("test");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bobocode.util.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles are reported with a relative error below 1/16")
+    void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100_000);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(100_000_000);
+        assertThat((double) snapshot.getP50Nanos()).isCloseTo(50_000_000, within(50_000_000 / 16.0));
+        assertThat((double) snapshot.getP99Nanos()).isCloseTo(99_000_000, within(99_000_000 / 16.0));
+        assertThat((double) snapshot.getP999Nanos()).isCloseTo(99_900_000, within(99_900_000 / 16.0));
+        assertThat((double) snapshot.getMeanNanos()).isCloseTo(50_000_500, within(1.0));
+    }
+
+    @Test
+    @DisplayName("Every value falls into a bucket that contains it")
+    void bucketContainsValue() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(LatencyHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.bucketUpperBound(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Reset clears all the values")
+    void resetClearsValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+
+        histogram.reset();
+
+        assertThat(histogram.snapshot()).isEqualTo(new LatencySnapshot(0, 0, 0, 0, 0, 0));
+    }
+}
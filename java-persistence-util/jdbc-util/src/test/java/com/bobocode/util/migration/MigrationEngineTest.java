@@ -0,0 +1,153 @@
+package com.bobocode.util.migration;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MigrationEngineTest {
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:migration_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    @DisplayName("All the versioned scripts are applied to an empty database in version order")
+    void appliesAllScripts() throws SQLException {
+        MigrationResult result = engine("migration/v2").migrate();
+
+        assertThat(result.getAppliedVersions()).extracting(MigrationVersion::toString).containsExactly("1", "1.1");
+        assertThat(result.getPreviouslyApplied()).isZero();
+        assertThat(count("sales_group")).isEqualTo(1);
+        assertThat(count(MigrationEngine.DEFAULT_HISTORY_TABLE)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("An up to date database is not migrated again")
+    void skipsAppliedScripts() {
+        engine("migration/v2").migrate();
+
+        MigrationResult result = engine("migration/v2").migrate();
+
+        assertThat(result.isUpToDate()).isTrue();
+        assertThat(result.getPreviouslyApplied()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Only new scripts are applied")
+    void appliesOnlyNewScripts() {
+        engine("migration/v1").migrate();
+
+        MigrationResult result = engine("migration/v2").migrate();
+
+        assertThat(result.getAppliedVersions()).extracting(MigrationVersion::toString).containsExactly("1.1");
+        assertThat(result.getPreviouslyApplied()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A script changed after it was applied fails the migration")
+    void failsOnChangedScript() {
+        engine("migration/v1").migrate();
+
+        assertThatExceptionOfType(MigrationException.class)
+                .isThrownBy(() -> engine("migration/changed").migrate())
+                .withMessageContaining("V1__create_broker.sql");
+    }
+
+    @Test
+    @DisplayName("The same version found in two classpath entries fails the migration")
+    void failsOnVersionFoundInTwoClasspathEntries(@TempDir Path tempDir) throws IOException {
+        Path first = createScript(tempDir.resolve("first"), "CREATE TABLE broker (id BIGINT)");
+        Path second = createScript(tempDir.resolve("second"), "CREATE TABLE broker (id BIGINT, username VARCHAR(255))");
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{first.toUri().toURL(), second.toUri().toURL()}, null)) {
+            MigrationEngine engine = MigrationEngine.builder().dataSource(dataSource).location("migration/copied")
+                    .classLoader(classLoader).build();
+
+            assertThatExceptionOfType(MigrationException.class)
+                    .isThrownBy(engine::migrate)
+                    .withMessageContaining("Found more than one migration with version 1");
+        }
+    }
+
+    @Test
+    @DisplayName("A failed script rolls back its data changes and is not recorded in the history")
+    void rollsBackFailedScript() throws SQLException {
+        assertThatExceptionOfType(MigrationException.class).isThrownBy(() -> engine("migration/failing").migrate())
+                .withMessage("Migration migration/failing/V1__create_seeded_broker.sql failed");
+
+        assertThat(count("seeded_broker")).isZero();
+        assertThat(count(MigrationEngine.DEFAULT_HISTORY_TABLE)).isZero();
+    }
+
+    @Test
+    @DisplayName("Concurrent migrations apply every script once")
+    void migratesConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<MigrationResult>> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(() -> engine("migration/v2").migrate());
+        }
+
+        int applied = 0;
+        for (Future<MigrationResult> result : executor.invokeAll(nodes)) {
+            applied += result.get().getAppliedVersions().size();
+        }
+        executor.shutdown();
+
+        assertThat(applied).isEqualTo(2);
+        assertThat(count(MigrationEngine.DEFAULT_HISTORY_TABLE)).isEqualTo(2);
+        assertThat(count(MigrationEngine.DEFAULT_HISTORY_TABLE + "_lock")).isZero();
+    }
+
+    @Test
+    @DisplayName("Versions are compared numerically")
+    void comparesVersionsNumerically() {
+        assertThat(MigrationVersion.parse("1.10")).isGreaterThan(MigrationVersion.parse("1.9"));
+        assertThat(MigrationVersion.parse("2_0")).isEqualByComparingTo(MigrationVersion.parse("2"));
+    }
+
+    private Path createScript(Path classpathRoot, String sql) throws IOException {
+        Path directory = Files.createDirectories(classpathRoot.resolve("migration/copied"));
+        Files.writeString(directory.resolve("V1__create_broker.sql"), sql);
+        return classpathRoot;
+    }
+
+    private MigrationEngine engine(String location) {
+        return MigrationEngine.builder().dataSource(dataSource).location(location).build();
+    }
+
+    private long count(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bobocode.util.pool;
+
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PooledDataSourceBenchmark} compares throughput of {@code ProductDao}-style CRUD operations (insert, select by
+ * id, update, delete of one {@code products} row, each on its own connection) performed by 64 concurrent callers
+ * using a plain {@link DataSource} and a {@link PooledDataSource}. Run it with {@code main()}; pass a PostgreSQL url,
+ * user and password as arguments to benchmark against PostgreSQL instead of in-memory H2.
+ */
+public class PooledDataSourceBenchmark {
+    private static final int CALLERS = 64;
+    private static final long WARM_UP_SECONDS = 3;
+    private static final long MEASUREMENT_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        DataSource plainDataSource = args.length == 3
+                ? JdbcUtil.createPostgresDataSource(args[0], args[1], args[2])
+                : JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:pool_benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        createProductsTable(plainDataSource);
+
+        System.out.printf("unpooled: %,.0f CRUD cycles/s%n", measure(plainDataSource));
+        PoolConfig config = PoolConfig.builder().minSize(CALLERS).maxSize(CALLERS).build();
+        try (PooledDataSource pooledDataSource = JdbcUtil.createPooledDataSource(plainDataSource, config)) {
+            System.out.printf("pooled:   %,.0f CRUD cycles/s%n", measure(pooledDataSource));
+        }
+    }
+
+    private static double measure(DataSource dataSource) throws Exception {
+        run(dataSource, WARM_UP_SECONDS);
+        return (double) run(dataSource, MEASUREMENT_SECONDS) / MEASUREMENT_SECONDS;
+    }
+
+    private static long run(DataSource dataSource, long seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                long cycles = 0;
+                while (System.nanoTime() < deadline) {
+                    crudCycle(dataSource);
+                    cycles++;
+                }
+                return cycles;
+            }));
+        }
+        start.countDown();
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        return total;
+    }
+
+    private static void crudCycle(DataSource dataSource) throws SQLException {
+        long id;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO products(name, producer, price, expiration_date) VALUES (?, ?, ?, ?);",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            insert.setString(1, "Fanta");
+            insert.setString(2, "The Coca-Cola Company");
+            insert.setBigDecimal(3, BigDecimal.valueOf(22));
+            insert.setDate(4, Date.valueOf(LocalDate.of(2030, 4, 14)));
+            insert.executeUpdate();
+            ResultSet generatedKeys = insert.getGeneratedKeys();
+            generatedKeys.next();
+            id = generatedKeys.getLong(1);
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT * FROM products WHERE id = ?;")) {
+            select.setLong(1, id);
+            select.executeQuery().next();
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement update = connection.prepareStatement("UPDATE products SET price = ? WHERE id = ?;")) {
+            update.setBigDecimal(1, BigDecimal.valueOf(23));
+            update.setLong(2, id);
+            update.executeUpdate();
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM products WHERE id = ?;")) {
+            delete.setLong(1, id);
+            delete.executeUpdate();
+        }
+    }
+
+    private static void createProductsTable(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS products (\n" +
+                    "  id            SERIAL NOT NULL,\n" +
+                    "  name     VARCHAR(255) NOT NULL,\n" +
+                    "  producer     VARCHAR(255) NOT NULL,\n" +
+                    "  price       DECIMAL(19, 4),\n" +
+                    "  expiration_date      TIMESTAMP NOT NULL,\n" +
+                    "  creation_time TIMESTAMP NOT NULL DEFAULT now(),\n" +
+                    "\n" +
+                    "  CONSTRAINT products_pk PRIMARY KEY (id)\n" +
+                    ");");
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.bobocode.util.pool;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.statement.StatementCachingDataSource;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PooledDataSourceTest {
+    private static final String URL = "jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1";
+
+    private final DataSource targetDataSource = JdbcUtil.createInMemoryH2DataSource(URL, "sa", "");
+    private PooledDataSource pool;
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Pool opens min size connections on startup")
+    void opensMinSizeConnections() {
+        pool = createPool(PoolConfig.builder().minSize(3).maxSize(5).build());
+
+        assertThat(pool.getTotalConnections()).isEqualTo(3);
+        assertThat(pool.getIdleConnections()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Closing a connection returns the physical connection to the pool")
+    void reusesPhysicalConnection() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).build());
+
+        Connection physical;
+        try (Connection connection = pool.getConnection()) {
+            physical = connection.unwrap(JdbcConnection.class);
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertThat(connection.unwrap(JdbcConnection.class)).isSameAs(physical);
+            assertThat(pool.getActiveConnections()).isEqualTo(1);
+        }
+        assertThat(physical.isClosed()).isFalse();
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+        assertThat(pool.getActiveConnections()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("getConnection() times out when all the connections are in use")
+    void timesOutWhenExhausted() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).connectionTimeout(Duration.ofMillis(50)).build());
+
+        try (Connection ignored = pool.getConnection()) {
+            assertThatExceptionOfType(SQLTransientConnectionException.class).isThrownBy(() -> pool.getConnection());
+        }
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Closed logical connection cannot be used")
+    void closedConnectionCannotBeUsed() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(1).maxSize(1).build());
+
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThatExceptionOfType(SQLException.class).isThrownBy(connection::createStatement)
+                .withMessage("Connection is closed");
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Connection state is reset and unfinished transaction is rolled back on return")
+    void resetsConnectionStateOnReturn() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).build());
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS reset_test (id BIGINT)");
+        }
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            statement.execute("INSERT INTO reset_test VALUES (1)");
+        }
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            assertThat(connection.getAutoCommit()).isTrue();
+            assertThat(connection.isReadOnly()).isFalse();
+            var resultSet = statement.executeQuery("SELECT count(*) FROM reset_test");
+            resultSet.next();
+            assertThat(resultSet.getInt(1)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Schema switched with SQL is restored on return")
+    void restoresSchemaOnReturn() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).build());
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS tenant_a");
+            statement.execute("SET SCHEMA tenant_a");
+            assertThat(connection.getSchema()).isEqualTo("TENANT_A");
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            assertThat(connection.getSchema()).isEqualTo("PUBLIC");
+        }
+    }
+
+    @Test
+    @DisplayName("Statements and result sets left open by the caller are closed on return")
+    void closesLeftOpenStatementsOnReturn() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).build());
+
+        Statement statement;
+        ResultSet resultSet;
+        try (Connection connection = pool.getConnection()) {
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery("SELECT 1");
+        }
+
+        assertThat(statement.isClosed()).isTrue();
+        assertThat(resultSet.isClosed()).isTrue();
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Idle connections above min size are evicted")
+    void evictsIdleConnections() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(1).maxSize(3).idleTimeout(Duration.ZERO).build());
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        Connection third = pool.getConnection();
+        first.close();
+        second.close();
+        third.close();
+
+        pool.runHousekeeping();
+
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Connections are replaced after their max lifetime")
+    void replacesExpiredConnections() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).maxLifetime(Duration.ZERO).build());
+
+        Connection physical;
+        try (Connection connection = pool.getConnection()) {
+            physical = connection.unwrap(JdbcConnection.class);
+        }
+
+        assertThat(physical.isClosed()).isTrue();
+        assertThat(pool.getTotalConnections()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Broken idle connection is replaced on borrow")
+    void replacesInvalidConnectionOnBorrow() throws SQLException {
+        pool = createPool(PoolConfig.builder().minSize(0).maxSize(1).validationBypassWindow(Duration.ZERO).build());
+        Connection physical;
+        try (Connection connection = pool.getConnection()) {
+            physical = connection.unwrap(JdbcConnection.class);
+        }
+        physical.close();
+
+        try (Connection connection = pool.getConnection()) {
+            assertThat(connection.unwrap(JdbcConnection.class)).isNotSameAs(physical);
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Warm-up prepares hot statements on every min size connection")
+    void warmUpPreparesHotStatements() throws SQLException {
+        createProductsTable();
+        pool = createPool(PoolConfig.builder().minSize(3).maxSize(5).statementCacheSize(10).build());
+        List<String> hotStatements = List.of("SELECT * FROM products WHERE id = ?", "DELETE FROM products WHERE id = ?");
+
+        WarmUpReport report = pool.warmUp(hotStatements);
+
+        assertThat(report.isReady()).isTrue();
+        assertThat(pool.isReady()).isTrue();
+        assertThat(report.getValidConnections()).isEqualTo(3);
+        assertThat(report.getPreparedStatements()).isEqualTo(6);
+        assertThat(pool.getTotalConnections()).isEqualTo(3);
+        StatementCachingDataSource cache = pool.unwrap(StatementCachingDataSource.class);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM products WHERE id = ?")) {
+            assertThat(cache.getStats().getHits()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Pool is not ready when a hot statement cannot be prepared")
+    void warmUpReportsFailedStatements() {
+        pool = createPool(PoolConfig.builder().minSize(2).maxSize(2).build());
+
+        WarmUpReport report = pool.warmUp(List.of("SELECT * FROM missing_table"));
+
+        assertThat(report.isReady()).isFalse();
+        assertThat(pool.isReady()).isFalse();
+        assertThat(report.getFailedStatements()).containsExactly("SELECT * FROM missing_table");
+        assertThat(report.getValidConnections()).isEqualTo(2);
+    }
+
+    private void createProductsTable() throws SQLException {
+        try (Connection connection = targetDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS products (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        }
+    }
+
+    private PooledDataSource createPool(PoolConfig config) {
+        return JdbcUtil.createPooledDataSource(targetDataSource, config);
+    }
+}
@@ -0,0 +1,151 @@
+package com.bobocode.util.routing;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTest {
+    private static DataSource primary;
+    private static DataSource firstReplica;
+    private static DataSource secondReplica;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        primary = createDatabase("primary");
+        firstReplica = createDatabase("first_replica");
+        secondReplica = createDatabase("second_replica");
+    }
+
+    private static DataSource createDatabase(String name) throws SQLException {
+        String url = String.format("jdbc:h2:mem:routing_%s;DB_CLOSE_DELAY=-1", name);
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(url, "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE database_name (name VARCHAR(255))");
+            statement.execute(String.format("INSERT INTO database_name VALUES ('%s')", name));
+        }
+        return dataSource;
+    }
+
+    @Test
+    @DisplayName("Connections are routed to the primary by default")
+    void routesToPrimaryByDefault() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(firstReplica).build();
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(databaseName(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    @DisplayName("Read-only connections are routed to replicas using round robin")
+    void routesReadOnlyConnectionsToReplicas() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(firstReplica).replica(secondReplica).build();
+
+        assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("first_replica");
+        assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("second_replica");
+        assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("first_replica");
+        assertThat(dataSource.getReplicaReadCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Connections obtained inside a read scope are routed to replicas")
+    void routesReadScopeToReplicas() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(firstReplica).build();
+
+        try (ReadScope ignored = dataSource.readScope(); Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isReadOnly()).isTrue();
+            assertThat(databaseName(connection)).isEqualTo("first_replica");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(databaseName(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    @DisplayName("Explicit setReadOnly(false) inside a read scope routes the connection to the primary")
+    void setReadOnlyFalseOverridesReadScope() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(firstReplica).build();
+
+        try (ReadScope ignored = dataSource.readScope(); Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(false);
+            assertThat(databaseName(connection)).isEqualTo("primary");
+            assertThat(connection.isReadOnly()).isFalse();
+        }
+        assertThat(dataSource.getReplicaReadCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Reads fall back to the primary and are counted there when no replica can open a connection")
+    void countsPrimaryFallbackAsPrimaryRead() throws SQLException {
+        DataSource brokenReplica = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:routing_first_replica;DB_CLOSE_DELAY=-1", "sa", "wrong_password");
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(brokenReplica).build();
+
+        assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("primary");
+        assertThat(dataSource.getReplicaReadCount()).isEqualTo(0);
+        assertThat(dataSource.getPrimaryReadCount()).isEqualTo(1);
+        assertThat(dataSource.getInFlightCount(0)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Least-in-flight balancing chooses a replica with fewer open connections")
+    void leastInFlightChoosesLessLoadedReplica() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(firstReplica).replica(secondReplica)
+                .loadBalancing(LoadBalancing.LEAST_IN_FLIGHT).build();
+
+        try (Connection first = dataSource.getConnection()) {
+            first.setReadOnly(true);
+            assertThat(databaseName(first)).isEqualTo("first_replica");
+            for (int i = 0; i < 3; i++) {
+                assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("second_replica");
+            }
+            assertThat(dataSource.getInFlightCount(0)).isEqualTo(1);
+        }
+        assertThat(dataSource.getInFlightCount(0)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Reads after a write on the same thread go to the primary within read-your-writes window")
+    void readYourWritesWindowRoutesReadsToPrimary() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = ReadWriteRoutingDataSource.builder()
+                .primary(primary).replica(firstReplica).readYourWritesWindow(Duration.ofMinutes(1)).build();
+
+        assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("first_replica");
+        try (Connection connection = dataSource.getConnection()) {
+            databaseName(connection);
+        }
+        assertThat(readOnlyDatabaseName(dataSource)).isEqualTo("primary");
+        assertThat(dataSource.getPrimaryReadCount()).isEqualTo(1);
+    }
+
+    private String readOnlyDatabaseName(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            return databaseName(connection);
+        }
+    }
+
+    private String databaseName(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT name FROM database_name");
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
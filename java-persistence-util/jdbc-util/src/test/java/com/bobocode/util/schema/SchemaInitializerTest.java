@@ -0,0 +1,115 @@
+package com.bobocode.util.schema;
+
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class SchemaInitializerTest {
+    private static final TableDefinition ACCOUNT = TableDefinition.builder()
+            .name("account")
+            .column(ColumnDefinition.of("id", "BIGINT"))
+            .column(ColumnDefinition.of("email", "VARCHAR(255) NOT NULL"))
+            .column(ColumnDefinition.of("first_name", "VARCHAR(255) NOT NULL"))
+            .column(ColumnDefinition.of("balance", "DECIMAL(19, 4)"))
+            .constraint(ConstraintDefinition.primaryKey("account_pk", "id"))
+            .constraint(ConstraintDefinition.unique("account_email_uq", "email"))
+            .build();
+    private static final TableDefinition PAYMENT = TableDefinition.builder()
+            .name("payment")
+            .column(ColumnDefinition.of("id", "BIGINT"))
+            .column(ColumnDefinition.of("account_id", "BIGINT NOT NULL"))
+            .constraint(ConstraintDefinition.primaryKey("payment_pk", "id"))
+            .constraint(ConstraintDefinition.foreignKey("payment_account_fk", "account_id", "account", "id"))
+            .build();
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:schema_test;DB_CLOSE_DELAY=-1", "sa", "");
+        execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Missing tables are created with foreign keys added after all the tables")
+    void createsMissingTables() {
+        SchemaInitializationResult result = initializer(PAYMENT, ACCOUNT).initialize();
+
+        assertThat(result.getExecutedStatements()).containsExactly(
+                "CREATE TABLE payment (id BIGINT, account_id BIGINT NOT NULL, CONSTRAINT payment_pk PRIMARY KEY (id))",
+                "CREATE TABLE account (id BIGINT, email VARCHAR(255) NOT NULL, first_name VARCHAR(255) NOT NULL, " +
+                        "balance DECIMAL(19, 4), CONSTRAINT account_pk PRIMARY KEY (id), " +
+                        "CONSTRAINT account_email_uq UNIQUE (email))",
+                "ALTER TABLE payment ADD CONSTRAINT payment_account_fk FOREIGN KEY (account_id) REFERENCES account (id)");
+    }
+
+    @Test
+    @DisplayName("No DDL is issued against an up to date database")
+    void issuesNoDdlWhenUpToDate() {
+        initializer(ACCOUNT, PAYMENT).initialize();
+
+        SchemaInitializationResult result = initializer(ACCOUNT, PAYMENT).initialize();
+
+        assertThat(result.isUpToDate()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Missing columns and constraints are added to an existing table")
+    void addsMissingColumnsAndConstraints() throws SQLException {
+        execute("CREATE TABLE account (id BIGINT, email VARCHAR(255) NOT NULL, CONSTRAINT account_pk PRIMARY KEY (id))");
+
+        SchemaInitializationResult result = initializer(ACCOUNT).initialize();
+
+        assertThat(result.getExecutedStatements()).containsExactly(
+                "ALTER TABLE account ADD COLUMN first_name VARCHAR(255) NOT NULL",
+                "ALTER TABLE account ADD COLUMN balance DECIMAL(19, 4)",
+                "ALTER TABLE account ADD CONSTRAINT account_email_uq UNIQUE (email)");
+        assertThat(initializer(ACCOUNT).plan()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Planning does not change the database")
+    void planDoesNotExecute() {
+        assertThat(initializer(ACCOUNT).plan()).hasSize(1);
+
+        assertThat(initializer(ACCOUNT).plan()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A failing statement is reported")
+    void reportsFailingStatement() throws SQLException {
+        execute("CREATE TABLE account (id BIGINT, email VARCHAR(255), first_name VARCHAR(255), " +
+                "CONSTRAINT account_pk PRIMARY KEY (id))");
+        execute("INSERT INTO account (id, email, first_name) VALUES (1, 'a@b.com', 'A'), (2, 'a@b.com', 'B')");
+
+        assertThatExceptionOfType(SchemaInitializationException.class)
+                .isThrownBy(() -> initializer(ACCOUNT).initialize())
+                .withMessageContaining("account_email_uq");
+        // H2 commits DDL implicitly, so the column added before the failure stays and only the constraint is missing
+        assertThat(initializer(ACCOUNT).plan())
+                .containsExactly("ALTER TABLE account ADD CONSTRAINT account_email_uq UNIQUE (email)");
+    }
+
+    private SchemaInitializer initializer(TableDefinition... tables) {
+        SchemaInitializer.SchemaInitializerBuilder builder = SchemaInitializer.builder().dataSource(dataSource);
+        for (TableDefinition table : tables) {
+            builder.table(table);
+        }
+        return builder.build();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bobocode.util.script;
+
+import com.bobocode.util.FileReaderException;
+import com.bobocode.util.JdbcUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class SqlScriptRunnerTest {
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:script_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    @DisplayName("Script from the classpath is executed statement by statement")
+    void runsClasspathScript() throws SQLException {
+        ScriptReport report = SqlScriptRunner.of(dataSource).runResource("script/seed.sql");
+
+        assertThat(report.getStatements()).isEqualTo(6);
+        assertThat(report.getBatches()).isZero();
+        assertThat(report.getExecutionTime().getCount()).isEqualTo(6);
+        assertThat(report.getSlowest()).hasSize(6);
+        assertThat(findUsernames()).containsExactly("semi;colon", "it's", "tnemmoc a ton --");
+        assertThat(findTableComment()).isEqualTo("Brokers; the ; and -- inside a dollar-quoted literal are not split");
+    }
+
+    @Test
+    @DisplayName("Consecutive DML statements are executed in batches")
+    void batchesConsecutiveDml() throws SQLException {
+        SqlScriptRunner runner = SqlScriptRunner.builder().dataSource(dataSource).batchSize(2).build();
+
+        ScriptReport report = runner.runResource("script/seed.sql");
+
+        assertThat(report.getStatements()).isEqualTo(6);
+        assertThat(report.getBatches()).isEqualTo(3);
+        assertThat(findUsernames()).containsExactly("semi;colon", "it's", "tnemmoc a ton --");
+    }
+
+    @Test
+    @DisplayName("Only the slowest statements are kept in the report")
+    void keepsSlowestStatements() throws SQLException {
+        SqlScriptRunner runner = SqlScriptRunner.builder().dataSource(dataSource).slowestStatements(2).build();
+
+        ScriptReport report = runner.runResource("script/seed.sql");
+
+        assertThat(report.getSlowest()).hasSize(2);
+        assertThat(report.getSlowest().get(0).getElapsedNanos())
+                .isGreaterThanOrEqualTo(report.getSlowest().get(1).getElapsedNanos());
+    }
+
+    @Test
+    @DisplayName("A failed statement is reported with its line number")
+    void reportsFailedStatementLine() {
+        String script = "CREATE TABLE a (id INT);\n\nINSERT INTO missing VALUES (1);";
+
+        assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(() -> SqlScriptRunner.of(dataSource).run(new StringReader(script)))
+                .withMessageContaining("line 3");
+    }
+
+    @Test
+    @DisplayName("Missing script is reported")
+    void reportsMissingScript() {
+        assertThatExceptionOfType(FileReaderException.class)
+                .isThrownBy(() -> SqlScriptRunner.of(dataSource).runResource("script/missing.sql"));
+    }
+
+    private List<String> findUsernames() throws SQLException {
+        List<String> usernames = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT username FROM broker ORDER BY id")) {
+            while (resultSet.next()) {
+                usernames.add(resultSet.getString(1));
+            }
+        }
+        return usernames;
+    }
+
+    private String findTableComment() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT remarks FROM information_schema.tables WHERE table_name = 'BROKER'")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bobocode.util.script;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatementReaderTest {
+
+    @Test
+    @DisplayName("Statements are split by semicolons and trimmed")
+    void splitsStatements() throws IOException {
+        assertThat(readAll("CREATE TABLE a (id INT);\n\n  INSERT INTO a VALUES (1) ;INSERT INTO a VALUES (2)"))
+                .containsExactly("CREATE TABLE a (id INT)", "INSERT INTO a VALUES (1)", "INSERT INTO a VALUES (2)");
+    }
+
+    @Test
+    @DisplayName("Semicolons inside literals and quoted identifiers do not split statements")
+    void ignoresSeparatorsInQuotes() throws IOException {
+        assertThat(readAll("INSERT INTO a VALUES ('x;y', 'it''s;');SELECT \"a;b\" FROM a;"))
+                .containsExactly("INSERT INTO a VALUES ('x;y', 'it''s;')", "SELECT \"a;b\" FROM a");
+    }
+
+    @Test
+    @DisplayName("Comments are removed")
+    void removesComments() throws IOException {
+        assertThat(readAll("-- header; comment\nSELECT 1 /* inline; /* nested */ comment */ FROM a; -- tail"))
+                .singleElement()
+                .satisfies(statement -> assertThat(statement).isEqualToNormalizingWhitespace("SELECT 1 FROM a"));
+    }
+
+    @Test
+    @DisplayName("Dollar-quoted bodies are kept as a whole")
+    void keepsDollarQuotedBodies() throws IOException {
+        String function = "CREATE FUNCTION f() RETURNS INT AS $body$ BEGIN RETURN 1; END; $body$ LANGUAGE plpgsql";
+
+        assertThat(readAll(function + ";\nCREATE ALIAS F AS $$ int f() { return 1; } $$;"))
+                .containsExactly(function, "CREATE ALIAS F AS $$ int f() { return 1; } $$");
+    }
+
+    @Test
+    @DisplayName("Positional parameters and dollar signs in identifiers are not dollar quotes")
+    void distinguishesDollarQuotesFromParameters() throws IOException {
+        assertThat(readAll("SELECT $1, a$b FROM t;SELECT 2"))
+                .containsExactly("SELECT $1, a$b FROM t", "SELECT 2");
+    }
+
+    @Test
+    @DisplayName("Statement line numbers are tracked")
+    void tracksLineNumbers() throws IOException {
+        SqlStatementReader reader = new SqlStatementReader(new StringReader("-- comment\nSELECT 1;\n\n\nSELECT\n2;"));
+
+        reader.nextStatement();
+        assertThat(reader.getStatementLineNumber()).isEqualTo(2);
+        reader.nextStatement();
+        assertThat(reader.getStatementLineNumber()).isEqualTo(5);
+    }
+
+    private static List<String> readAll(String script) throws IOException {
+        List<String> statements = new ArrayList<>();
+        try (SqlStatementReader reader = new SqlStatementReader(new StringReader(script))) {
+            String statement;
+            while ((statement = reader.nextStatement()) != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,138 @@
+package com.bobocode.util.slowlog;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.metrics.InstrumentedDataSource;
+import com.bobocode.util.metrics.StatementExecution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryLogTest {
+    private DataSource rawDataSource;
+    private InstrumentedDataSource dataSource;
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void init() throws SQLException {
+        rawDataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:slow_query_log_test;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        dataSource = new InstrumentedDataSource(rawDataSource);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+            statement.execute("INSERT INTO products VALUES (1, 'Apple'), (2, 'Banana')");
+        }
+        slowQueryLog = SlowQueryLog.builder()
+                .explainDataSource(rawDataSource)
+                .threshold(Duration.ZERO)
+                .capacity(2)
+                .build();
+        dataSource.addListener(slowQueryLog);
+    }
+
+    @AfterEach
+    void close() {
+        slowQueryLog.close();
+    }
+
+    @Test
+    @DisplayName("Slow query is recorded with bind parameters and a full scan plan")
+    void capturesFullScanPlan() throws Exception {
+        String sql = "SELECT * FROM products WHERE name = ?";
+        selectByName(sql, "Apple");
+
+        SlowQuery slowQuery = awaitPlan(sql);
+
+        assertThat(slowQuery.getParameters()).containsExactly("Apple");
+        assertThat(slowQuery.getPlan()).containsIgnoringCase("products");
+        assertThat(slowQuery.isFullScan()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Index lookup is not reported as a full scan")
+    void capturesIndexPlan() throws Exception {
+        String sql = "SELECT * FROM products WHERE id = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, 1L);
+            statement.executeQuery().close();
+        }
+
+        assertThat(awaitPlan(sql).isFullScan()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Executions of the same shape are de-duplicated")
+    void deduplicatesByShape() throws Exception {
+        String sql = "SELECT * FROM products WHERE name = ?";
+        selectByName(sql, "Apple");
+        selectByName(sql, "Banana");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT * FROM products WHERE name = 'Cherry'").close();
+        }
+
+        List<SlowQuery> slowQueries = slowQueryLog.getSlowQueries();
+
+        assertThat(slowQueries).hasSize(1);
+        assertThat(slowQueries.get(0).getSlowExecutions()).isEqualTo(3);
+        assertThat(slowQueries.get(0).getSql()).isEqualTo("SELECT * FROM products WHERE name = 'Cherry'");
+    }
+
+    @Test
+    @DisplayName("The ring keeps only the most recent shapes")
+    void evictsOldestShape() {
+        for (int i = 1; i <= 3; i++) {
+            slowQueryLog.onExecution(new StatementExecution("SELECT " + i + " FROM t" + i, "SELECT ? FROM t" + i,
+                    List.of(), 1_000, -1, null));
+        }
+
+        assertThat(slowQueryLog.getSlowQueries()).extracting(SlowQuery::getShape)
+                .containsExactlyInAnyOrder("SELECT ? FROM t2", "SELECT ? FROM t3");
+    }
+
+    @Test
+    @DisplayName("Fast statements are ignored")
+    void ignoresFastStatements() {
+        try (SlowQueryLog log = SlowQueryLog.builder().threshold(Duration.ofSeconds(10)).build()) {
+            log.onExecution(new StatementExecution("SELECT 1", "SELECT ?", List.of(), 1_000, -1, null));
+
+            assertThat(log.getSlowQueries()).isEmpty();
+        }
+    }
+
+    private void selectByName(String sql, String name) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getLong("id");
+                }
+            }
+        }
+    }
+
+    private SlowQuery awaitPlan(String sql) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            SlowQuery slowQuery = slowQueryLog.findSlowQuery(sql).orElseThrow();
+            if (slowQuery.getPlan() != null) {
+                return slowQuery;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Plan is not captured for " + sql);
+    }
+}
@@ -0,0 +1,159 @@
+package com.bobocode.util.statement;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import org.h2.jdbc.JdbcPreparedStatement;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class StatementCachingDataSourceTest {
+    private static final String SELECT_BY_ID_SQL = "SELECT name FROM products WHERE id = ?";
+    private static DataSource targetDataSource;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        targetDataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:statement_cache_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = targetDataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+            statement.execute("INSERT INTO products VALUES (1, 'Fanta'), (2, 'Sprite')");
+        }
+    }
+
+    @Test
+    @DisplayName("Closed statement is reused by the next prepareStatement() call with the same SQL")
+    void reusesClosedStatement() throws SQLException {
+        StatementCachingDataSource dataSource = new StatementCachingDataSource(targetDataSource, 10);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement physical;
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+                physical = statement.unwrap(JdbcPreparedStatement.class);
+                assertThat(findName(statement, 1L)).isEqualTo("Fanta");
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+                assertThat(statement.unwrap(JdbcPreparedStatement.class)).isSameAs(physical);
+                assertThat(findName(statement, 2L)).isEqualTo("Sprite");
+            }
+        }
+        assertThat(dataSource.getStats().getMisses()).isEqualTo(1);
+        assertThat(dataSource.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Statements with the same SQL and different options are cached separately")
+    void distinguishesStatementOptions() throws SQLException {
+        StatementCachingDataSource dataSource = new StatementCachingDataSource(targetDataSource, 10);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement(SELECT_BY_ID_SQL).close();
+            connection.prepareStatement(SELECT_BY_ID_SQL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+            connection.prepareStatement(SELECT_BY_ID_SQL).close();
+        }
+        assertThat(dataSource.getStats().getMisses()).isEqualTo(2);
+        assertThat(dataSource.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Statement that is still open is not handed out twice")
+    void doesNotShareOpenStatement() throws SQLException {
+        StatementCachingDataSource dataSource = new StatementCachingDataSource(targetDataSource, 10);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement first = connection.prepareStatement(SELECT_BY_ID_SQL);
+             PreparedStatement second = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+            assertThat(first.unwrap(JdbcPreparedStatement.class)).isNotSameAs(second.unwrap(JdbcPreparedStatement.class));
+        }
+        assertThat(dataSource.getStats().getHits()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Settings changed by the caller do not leak to the next user of a cached statement")
+    void restoresStatementSettings() throws SQLException {
+        StatementCachingDataSource dataSource = new StatementCachingDataSource(targetDataSource, 10);
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+                statement.setMaxRows(10);
+                statement.setFetchSize(5);
+                statement.setQueryTimeout(5);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+                PreparedStatement physical = statement.unwrap(JdbcPreparedStatement.class);
+                try (Connection freshConnection = targetDataSource.getConnection();
+                     PreparedStatement fresh = freshConnection.prepareStatement(SELECT_BY_ID_SQL)) {
+                    assertThat(physical.getMaxRows()).isEqualTo(fresh.getMaxRows());
+                    assertThat(physical.getFetchSize()).isEqualTo(fresh.getFetchSize());
+                    assertThat(physical.getQueryTimeout()).isEqualTo(fresh.getQueryTimeout());
+                }
+            }
+        }
+        assertThat(dataSource.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Least recently used statement is closed when the cache is full")
+    void evictsLeastRecentlyUsedStatement() throws SQLException {
+        StatementCachingDataSource dataSource = new StatementCachingDataSource(targetDataSource, 1);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL);
+            PreparedStatement physical = statement.unwrap(JdbcPreparedStatement.class);
+            statement.close();
+            connection.prepareStatement("SELECT count(*) FROM products").close();
+
+            assertThat(physical.isClosed()).isTrue();
+        }
+        assertThat(dataSource.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cached statement cannot be used after it was closed")
+    void closedStatementCannotBeUsed() throws SQLException {
+        StatementCachingDataSource dataSource = new StatementCachingDataSource(targetDataSource, 10);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL);
+            statement.close();
+
+            assertThat(statement.isClosed()).isTrue();
+            assertThatExceptionOfType(SQLException.class).isThrownBy(() -> statement.setLong(1, 1L))
+                    .withMessage("Statement is closed");
+        }
+    }
+
+    @Test
+    @DisplayName("Statement cache of a pooled connection survives returning the connection to the pool")
+    void cacheSurvivesPooledConnectionReturn() throws SQLException {
+        PoolConfig config = PoolConfig.builder().minSize(1).maxSize(1).statementCacheSize(10).build();
+        try (PooledDataSource pool = JdbcUtil.createPooledDataSource(targetDataSource, config)) {
+            for (long id = 1; id <= 2; id++) {
+                try (Connection connection = pool.getConnection();
+                     PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+                    findName(statement, id);
+                }
+            }
+            StatementCacheStats stats = pool.unwrap(StatementCachingDataSource.class).getStats();
+            assertThat(stats.getMisses()).isEqualTo(1);
+            assertThat(stats.getHits()).isEqualTo(1);
+        }
+    }
+
+    private String findName(PreparedStatement statement, long id) throws SQLException {
+        statement.setLong(1, id);
+        ResultSet resultSet = statement.executeQuery();
+        resultSet.next();
+        return resultSet.getString(1);
+    }
+}
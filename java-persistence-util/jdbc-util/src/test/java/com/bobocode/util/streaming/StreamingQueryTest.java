@@ -0,0 +1,135 @@
+package com.bobocode.util.streaming;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import org.h2.engine.Session;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class StreamingQueryTest {
+    private static final int ROWS = 10_000;
+
+    private PooledDataSource dataSource;
+    private StreamingQuery streamingQuery;
+
+    @BeforeEach
+    void init() throws SQLException {
+        DataSource target = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:streaming_test;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        try (Connection connection = target.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS account");
+            statement.execute("CREATE TABLE account (id BIGINT PRIMARY KEY, email VARCHAR(255))");
+            statement.execute("INSERT INTO account SELECT x, 'user' || x || '@mail.com' FROM system_range(1, " + ROWS + ")");
+        }
+        dataSource = JdbcUtil.createPooledDataSource(target, PoolConfig.builder().minSize(1).maxSize(1).build());
+        streamingQuery = StreamingQuery.of(dataSource);
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("All the rows are streamed in order")
+    void streamsAllRows() {
+        try (Stream<Long> ids = streamingQuery.stream("SELECT id FROM account ORDER BY id",
+                resultSet -> resultSet.getLong("id"))) {
+            List<Long> list = ids.collect(toList());
+
+            assertThat(list).hasSize(ROWS);
+            assertThat(list.get(0)).isEqualTo(1L);
+            assertThat(list.get(ROWS - 1)).isEqualTo((long) ROWS);
+        }
+    }
+
+    @Test
+    @DisplayName("Query parameters are bound")
+    void bindsParameters() {
+        try (Stream<String> emails = streamingQuery.stream("SELECT email FROM account WHERE id <= ?",
+                statement -> statement.setLong(1, 3), resultSet -> resultSet.getString("email"))) {
+            assertThat(emails.collect(toList())).containsExactlyInAnyOrder("user1@mail.com", "user2@mail.com",
+                    "user3@mail.com");
+        }
+    }
+
+    @Test
+    @DisplayName("Closing a partially read stream releases the connection")
+    void releasesConnectionOnClose() throws SQLException {
+        try (Stream<Long> ids = streamingQuery.stream("SELECT id FROM account", resultSet -> resultSet.getLong(1))) {
+            Iterator<Long> iterator = ids.iterator();
+            iterator.next();
+            assertThat(dataSource.getActiveConnections()).isEqualTo(1);
+        }
+        assertThat(dataSource.getActiveConnections()).isZero();
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.getAutoCommit()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Lazy execution that was already on stays on after the stream is closed")
+    void keepsLazyExecutionThatWasOn() throws SQLException {
+        DataSource lazyTarget = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:streaming_test;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1", "sa", "");
+        try (PooledDataSource lazyDataSource = JdbcUtil.createPooledDataSource(lazyTarget,
+                PoolConfig.builder().minSize(1).maxSize(1).build())) {
+            try (Stream<Long> ids = StreamingQuery.of(lazyDataSource).stream("SELECT id FROM account",
+                    resultSet -> resultSet.getLong(1))) {
+                assertThat(ids.count()).isEqualTo(ROWS);
+            }
+            try (Connection connection = lazyDataSource.getConnection()) {
+                Session session = (Session) connection.unwrap(JdbcConnection.class).getSession();
+                assertThat(session.isLazyQueryExecution()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The connection is released when the last row is read")
+    void releasesConnectionWhenExhausted() {
+        Stream<Long> ids = streamingQuery.stream("SELECT id FROM account", resultSet -> resultSet.getLong(1));
+
+        assertThat(ids.count()).isEqualTo(ROWS);
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+
+    @Test
+    @DisplayName("Invalid query fails fast and releases the connection")
+    void failsOnInvalidQuery() {
+        assertThatExceptionOfType(StreamingQueryException.class)
+                .isThrownBy(() -> streamingQuery.stream("SELECT * FROM missing_table", resultSet -> 1));
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+
+    @Test
+    @DisplayName("Fetch size adapts to row width within configured bounds")
+    void adaptsFetchSizeToRowWidth() {
+        StreamingQuery query = StreamingQuery.builder()
+                .dataSource(dataSource)
+                .batchMemoryBudget(1024L * 1024)
+                .minFetchSize(10)
+                .maxFetchSize(5_000)
+                .build();
+
+        assertThat(query.adaptFetchSize(1024)).isEqualTo(1024);
+        assertThat(query.adaptFetchSize(10)).isEqualTo(5_000);
+        assertThat(query.adaptFetchSize(1024 * 1024)).isEqualTo(10);
+    }
+}
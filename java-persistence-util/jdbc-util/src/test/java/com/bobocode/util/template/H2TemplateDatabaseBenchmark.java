@@ -0,0 +1,99 @@
+package com.bobocode.util.template;
+
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link H2TemplateDatabaseBenchmark} compares two ways of getting a fresh in-memory H2 database with the
+ * {@code account} schema and 100 000 seeded rows: running DDL and batched inserts from scratch (cold init), and
+ * creating a database from an {@link H2TemplateDatabase} snapshot (clone). Run it with {@code main()}.
+ */
+public class H2TemplateDatabaseBenchmark {
+    private static final int SEED_ROWS = 100_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        H2TemplateDatabase template = H2TemplateDatabase.create("account_benchmark",
+                H2TemplateDatabaseBenchmark::createAndSeedAccounts);
+        System.out.printf("template build: %d ms, snapshot %,d bytes%n", elapsedMillis(start),
+                template.getSnapshotSize());
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            start = System.nanoTime();
+            DataSource cold = JdbcUtil.createInMemoryH2DataSource(String.format(
+                    "jdbc:h2:mem:cold_%d;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;", round), "sa", "");
+            createAndSeedAccounts(cold);
+            long coldMillis = elapsedMillis(start);
+            shutdown(cold);
+
+            start = System.nanoTime();
+            DataSource clone = template.createDatabase("clone_" + round);
+            long rows = countAccounts(clone);
+            long cloneMillis = elapsedMillis(start);
+            template.dropDatabase("clone_" + round);
+
+            System.out.printf("round %d: cold init %d ms, clone %d ms (%,d rows)%n", round, coldMillis, cloneMillis,
+                    rows);
+        }
+    }
+
+    private static void createAndSeedAccounts(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE account (id BIGINT, email VARCHAR(255) NOT NULL, " +
+                        "first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, gender VARCHAR(255) NOT NULL, " +
+                        "birthday DATE NOT NULL, balance DECIMAL(19, 4), creation_time TIMESTAMP NOT NULL DEFAULT now(), " +
+                        "CONSTRAINT account_pk PRIMARY KEY (id), CONSTRAINT account_email_uq UNIQUE (email))");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO account " +
+                    "(id, email, first_name, last_name, gender, birthday, balance) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= SEED_ROWS; i++) {
+                    insert.setLong(1, i);
+                    insert.setString(2, "user" + i + "@mail.com");
+                    insert.setString(3, "First" + i);
+                    insert.setString(4, "Last" + i);
+                    insert.setString(5, i % 2 == 0 ? "FEMALE" : "MALE");
+                    insert.setDate(6, Date.valueOf(LocalDate.of(1990, 1, 1).plusDays(i % 10_000)));
+                    insert.setBigDecimal(7, BigDecimal.valueOf(i, 2));
+                    insert.addBatch();
+                    if (i % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static long countAccounts(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM account")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void shutdown(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,94 @@
+package com.bobocode.util.template;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class H2TemplateDatabaseTest {
+    private static H2TemplateDatabase template;
+
+    @BeforeAll
+    static void init() {
+        template = H2TemplateDatabase.create("template_test", dataSource -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE broker (id BIGINT PRIMARY KEY, username VARCHAR(255) UNIQUE)");
+                statement.execute("INSERT INTO broker VALUES (1, 'john'), (2, 'jane')");
+            }
+        });
+    }
+
+    @AfterEach
+    void dropDatabases() {
+        template.dropDatabase("clone_a");
+        template.dropDatabase("clone_b");
+    }
+
+    @Test
+    @DisplayName("A database created from a template has its schema and seed data")
+    void createsDatabaseWithSeedData() throws SQLException {
+        DataSource dataSource = template.createDatabase("clone_a");
+
+        assertThat(countBrokers(dataSource)).isEqualTo(2);
+        assertThat(template.getSnapshotSize()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Databases created from the same template are independent")
+    void createsIndependentDatabases() throws SQLException {
+        DataSource first = template.createDatabase("clone_a");
+        DataSource second = template.createDatabase("clone_b");
+        try (Connection connection = first.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM broker");
+        }
+
+        assertThat(countBrokers(first)).isZero();
+        assertThat(countBrokers(second)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A dropped database can be created again from the template")
+    void recreatesDroppedDatabase() throws SQLException {
+        DataSource dataSource = template.createDatabase("clone_a");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM broker");
+        }
+        template.dropDatabase("clone_a");
+
+        assertThat(countBrokers(template.createDatabase("clone_a"))).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("An existing database is not overwritten")
+    void doesNotOverwriteExistingDatabase() {
+        template.createDatabase("clone_a");
+
+        assertThatExceptionOfType(TemplateDatabaseException.class)
+                .isThrownBy(() -> template.createDatabase("clone_a"));
+    }
+
+    @Test
+    @DisplayName("Database names that cannot be used in a JDBC url are rejected")
+    void rejectsInvalidName() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> template.createDatabase("clone;INIT=RUNSCRIPT"));
+    }
+
+    private static long countBrokers(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM broker")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
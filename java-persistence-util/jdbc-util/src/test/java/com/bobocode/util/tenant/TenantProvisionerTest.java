@@ -0,0 +1,85 @@
+package com.bobocode.util.tenant;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.script.SqlScriptRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TenantProvisionerTest {
+    private DataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:tenant_provisioner_test;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    @DisplayName("Every tenant gets its own initialized schema")
+    void provisionsTenants() throws SQLException {
+        List<String> tenants = IntStream.rangeClosed(1, 20).mapToObj(i -> "tenant_" + i).collect(Collectors.toList());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        ProvisioningReport report = TenantProvisioner.builder()
+                .dataSource(dataSource)
+                .parallelism(4)
+                .initializer(tenantDataSource -> {
+                    threads.add(Thread.currentThread().getName());
+                    SqlScriptRunner.of(tenantDataSource).runResource("tenant/user_profile.sql");
+                })
+                .build()
+                .provision(tenants);
+
+        assertThat(report.isSuccessful()).isTrue();
+        assertThat(report.getProvisioned()).containsExactlyElementsOf(tenants);
+        assertThat(threads).hasSizeBetween(1, 4);
+        assertThat(countTables("TENANT_7")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A failed tenant is reported without stopping the others")
+    void reportsFailures() {
+        ProvisioningReport report = TenantProvisioner.builder()
+                .dataSource(dataSource)
+                .initializer(tenantDataSource -> {
+                    try (Connection connection = tenantDataSource.getConnection();
+                         Statement statement = connection.createStatement()) {
+                        statement.execute("CREATE TABLE account (id BIGINT)");
+                        if (connection.getSchema().equals("TENANT_2")) {
+                            statement.execute("CREATE TABLE account (id BIGINT)");
+                        }
+                    }
+                })
+                .build()
+                .provision(List.of("tenant_1", "tenant_2", "tenant_3"));
+
+        assertThat(report.getProvisioned()).containsExactly("tenant_1", "tenant_3");
+        assertThat(report.getFailures()).containsOnlyKeys("tenant_2");
+    }
+
+    private long countTables(String schema) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(String.format(
+                     "SELECT count(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = '%s'", schema))) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bobocode.util.tenant;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import com.bobocode.util.script.SqlScriptRunner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link TenantProvisioningBenchmark} provisions 500 tenants with the user profile schema on an in-memory H2
+ * database, first by a single thread (serial), then by a pool of threads (parallel). Every run uses a fresh
+ * database. Run it with {@code main()}.
+ */
+public class TenantProvisioningBenchmark {
+    private static final int TENANTS = 500;
+    private static final int PARALLELISM = 8;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        List<String> tenants = IntStream.rangeClosed(1, TENANTS).mapToObj(i -> "tenant_" + i)
+                .collect(Collectors.toList());
+        for (int round = 1; round <= ROUNDS; round++) {
+            long serialMillis = provision("serial_" + round, tenants, 1);
+            long parallelMillis = provision("parallel_" + round, tenants, PARALLELISM);
+            System.out.printf("round %d: serial %d ms, parallel (%d threads) %d ms%n", round, serialMillis,
+                    PARALLELISM, parallelMillis);
+        }
+    }
+
+    private static long provision(String databaseName, List<String> tenants, int parallelism) {
+        PooledDataSource pool = JdbcUtil.createPooledDataSource(JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:" + databaseName, "sa", ""),
+                PoolConfig.builder().minSize(parallelism).maxSize(parallelism).build());
+        try {
+            ProvisioningReport report = TenantProvisioner.builder()
+                    .dataSource(pool)
+                    .parallelism(parallelism)
+                    .initializer(tenantDataSource -> SqlScriptRunner.of(tenantDataSource)
+                            .runResource("tenant/user_profile.sql"))
+                    .build()
+                    .provision(tenants);
+            if (!report.isSuccessful()) {
+                throw new IllegalStateException("Provisioning failed: " + report.getFailures());
+            }
+            return TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos());
+        } finally {
+            pool.close(); // the in-memory database is dropped with its last connection
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.bobocode.util.tenant;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class TenantRoutingDataSourceTest {
+    private PooledDataSource pool;
+    private TenantRoutingDataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource(
+                "jdbc:h2:mem:tenant_routing_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = h2DataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String tenant : new String[]{"tenant_a", "tenant_b"}) {
+                statement.execute(String.format("CREATE SCHEMA %s", tenant));
+                statement.execute(String.format("CREATE TABLE %s.account (name VARCHAR(255))", tenant));
+                statement.execute(String.format("INSERT INTO %s.account VALUES ('%s')", tenant, tenant));
+            }
+        }
+        pool = JdbcUtil.createPooledDataSource(h2DataSource, PoolConfig.builder().minSize(1).maxSize(1).build());
+        dataSource = TenantRoutingDataSource.of(pool);
+    }
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Connections use the schema of the tenant bound to the thread")
+    void routesToTenantSchema() throws SQLException {
+        try (TenantScope scope = dataSource.tenantScope("tenant_a")) {
+            assertThat(accountName()).isEqualTo("tenant_a");
+            try (TenantScope nested = dataSource.tenantScope("tenant_b")) {
+                assertThat(accountName()).isEqualTo("tenant_b");
+            }
+            assertThat(accountName()).isEqualTo("tenant_a");
+        }
+    }
+
+    @Test
+    @DisplayName("The schema is not set again on a physical connection that already uses it")
+    void cachesSchemaPerPhysicalConnection() throws SQLException {
+        try (TenantScope scope = dataSource.tenantScope("tenant_a")) {
+            accountName();
+            accountName();
+            accountName();
+        }
+
+        assertThat(dataSource.getSchemaSwitches()).isEqualTo(1);
+
+        try (TenantScope scope = dataSource.tenantScope("tenant_b")) {
+            accountName();
+        }
+
+        assertThat(dataSource.getSchemaSwitches()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A tenant data source ignores the current scope")
+    void tenantDataSource() throws SQLException {
+        DataSource tenantB = dataSource.forTenant("tenant_b");
+
+        try (TenantScope scope = dataSource.tenantScope("tenant_a");
+             Connection connection = tenantB.getConnection()) {
+            assertThat(accountName(connection)).isEqualTo("tenant_b");
+        }
+    }
+
+    @Test
+    @DisplayName("A connection without a tenant is rejected unless there is a default schema")
+    void requiresTenant() throws SQLException {
+        assertThatExceptionOfType(SQLException.class).isThrownBy(() -> dataSource.getConnection());
+
+        TenantRoutingDataSource withDefault = TenantRoutingDataSource.builder()
+                .targetDataSource(pool)
+                .defaultSchema("tenant_b")
+                .build();
+        try (Connection connection = withDefault.getConnection()) {
+            assertThat(accountName(connection)).isEqualTo("tenant_b");
+        }
+    }
+
+    @Test
+    @DisplayName("Tenant names are validated")
+    void validatesTenantName() {
+        assertThatIllegalArgumentException().isThrownBy(() -> dataSource.tenantScope("a; DROP ALL OBJECTS"));
+    }
+
+    private String accountName() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return accountName(connection);
+        }
+    }
+
+    private String accountName(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM account")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+CREATE TABLE broker (
+    id       BIGINT,
+    username VARCHAR(100) NOT NULL,
+    CONSTRAINT PK_broker PRIMARY KEY (id)
+);
@@ -0,0 +1,7 @@
+CREATE TABLE seeded_broker (
+  id    BIGINT,
+  code  VARCHAR(20) NOT NULL
+);
+
+INSERT INTO seeded_broker (id, code) VALUES (1, 'ab12');
+INSERT INTO missing_table (id) VALUES (1);
@@ -0,0 +1,7 @@
+CREATE TABLE sales_group (
+    id   BIGINT,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT PK_sales_group PRIMARY KEY (id)
+);
+
+INSERT INTO sales_group VALUES (1, 'default');
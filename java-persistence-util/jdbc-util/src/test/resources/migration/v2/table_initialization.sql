@@ -0,0 +1 @@
+-- not a versioned migration, it is ignored
@@ -0,0 +1,15 @@
+/*
+  Test script with comments, quotes and dollar-quoted bodies
+*/
+CREATE TABLE broker (
+    id       BIGINT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL -- a comment with ; inside
+);
+
+INSERT INTO broker VALUES (1, 'semi;colon');
+INSERT INTO broker VALUES (2, 'it''s');
+INSERT INTO broker VALUES (3, '-- not a comment');
+
+COMMENT ON TABLE broker IS $$Brokers; the ; and -- inside a dollar-quoted literal are not split$$;
+
+UPDATE broker SET username = $$tnemmoc a ton --$$ WHERE id = 3;
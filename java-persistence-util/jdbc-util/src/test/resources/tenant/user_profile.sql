@@ -0,0 +1,19 @@
+CREATE TABLE users (
+  id         BIGINT,
+  email      VARCHAR(255) NOT NULL,
+  first_name VARCHAR(255) NOT NULL,
+  last_name  VARCHAR(255) NOT NULL,
+  birthday   DATE         NOT NULL,
+  CONSTRAINT users_PK PRIMARY KEY (id),
+  CONSTRAINT users_email_AK UNIQUE (email)
+);
+
+CREATE TABLE profiles (
+  user_id      BIGINT,
+  city         VARCHAR(255),
+  job_position VARCHAR(255),
+  company      VARCHAR(255),
+  education    VARCHAR(255),
+  CONSTRAINT profiles_PK PRIMARY KEY (user_id),
+  CONSTRAINT profiles_users_FK FOREIGN KEY (user_id) REFERENCES users
+);